@@ -0,0 +1,182 @@
+package com.slightlyloony.jsisyphus;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.slightlyloony.jsisyphus.Utils.log;
+
+/**
+ * Base class for generative tracks: tracks drawn with random choices, shaped by some tunable parameters.  The random choices all come from {@link #random},
+ * which is seeded with the track's seed, so a track with the same seed and parameters is always drawn the same way.  Subclasses declare their parameters
+ * (with a default value and the range of sensible values) in their constructor, read them while drawing, and do their drawing in {@link #draw()}.  A
+ * {@link SweepRunner} can generate many variants of a generative track, each with a different seed and randomly chosen parameters, and keep the best.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public abstract class AGenerativeTrack extends ATrack {
+
+    protected final Random random;
+
+    private final long seed;
+    private final Map<String,Parameter> parameters;
+
+
+    protected AGenerativeTrack( final String _baseFileName, final long _seed ) {
+        super( _baseFileName );
+        seed = _seed;
+        random = new Random( _seed );
+        parameters = new LinkedHashMap<>();
+    }
+
+
+    /**
+     * Draws this track, then renders its PNG and writes its track file.
+     */
+    @Override
+    public void trace() throws IOException {
+        log( "Tracing " + trackFileName + " with seed " + seed + " and parameters " + getParameters() );
+        draw();
+        renderPNG( pngFileName );
+        write( trackFileName );
+    }
+
+
+    /**
+     * Draws this track, using {@link #random} for any random choices, and the values of its parameters.
+     */
+    protected abstract void draw();
+
+
+    /**
+     * Declares a parameter with the given name, default value, and range of sensible values.
+     *
+     * @param _name the name of the parameter.
+     * @param _value the default value of the parameter.
+     * @param _min the minimum sensible value of the parameter.
+     * @param _max the maximum sensible value of the parameter.
+     */
+    protected void parameter( final String _name, final double _value, final double _min, final double _max ) {
+        declare( _name, _value, _min, _max, false );
+    }
+
+
+    /**
+     * Declares an integer parameter with the given name, default value, and range of sensible values.
+     *
+     * @param _name the name of the parameter.
+     * @param _value the default value of the parameter.
+     * @param _min the minimum sensible value of the parameter.
+     * @param _max the maximum sensible value of the parameter.
+     */
+    protected void intParameter( final String _name, final int _value, final int _min, final int _max ) {
+        declare( _name, _value, _min, _max, true );
+    }
+
+
+    private void declare( final String _name, final double _value, final double _min, final double _max, final boolean _integral ) {
+
+        // sanity check...
+        if( parameters.containsKey( _name ) || (_min > _max) || (_value < _min) || (_value > _max) )
+            throw new IllegalArgumentException( "Invalid parameter declaration: " + _name );
+
+        parameters.put( _name, new Parameter( _value, _min, _max, _integral ) );
+    }
+
+
+    /**
+     * Returns the value of the parameter with the given name.
+     *
+     * @param _name the name of the parameter.
+     * @return the value of the parameter.
+     */
+    protected double param( final String _name ) {
+        return get( _name ).value;
+    }
+
+
+    /**
+     * Returns the value of the integer parameter with the given name.
+     *
+     * @param _name the name of the parameter.
+     * @return the value of the parameter.
+     */
+    protected int intParam( final String _name ) {
+        return (int) Math.round( get( _name ).value );
+    }
+
+
+    /**
+     * Sets the parameter with the given name to the given value, which must be within the parameter's range.
+     *
+     * @param _name the name of the parameter.
+     * @param _value the new value of the parameter.
+     */
+    public void setParameter( final String _name, final double _value ) {
+
+        Parameter parameter = get( _name );
+
+        // sanity check...
+        if( (_value < parameter.min) || (_value > parameter.max) )
+            throw new IllegalArgumentException( "Parameter " + _name + " out of range: " + _value );
+
+        parameter.value = parameter.integral ? Math.round( _value ) : _value;
+    }
+
+
+    /**
+     * Sets each parameter to a random value within its range, using the given random number generator.
+     *
+     * @param _random the random number generator to choose values with.
+     */
+    public void randomizeParameters( final Random _random ) {
+        for( Map.Entry<String,Parameter> entry : parameters.entrySet() ) {
+            Parameter parameter = entry.getValue();
+            setParameter( entry.getKey(), parameter.min + _random.nextDouble() * (parameter.max - parameter.min) );
+        }
+    }
+
+
+    /**
+     * Returns the names and current values of this track's parameters, in the order they were declared.
+     *
+     * @return this track's parameters.
+     */
+    public Map<String,Double> getParameters() {
+        Map<String,Double> result = new LinkedHashMap<>();
+        for( Map.Entry<String,Parameter> entry : parameters.entrySet() )
+            result.put( entry.getKey(), entry.getValue().value );
+        return Collections.unmodifiableMap( result );
+    }
+
+
+    public long getSeed() {
+        return seed;
+    }
+
+
+    private Parameter get( final String _name ) {
+        Parameter parameter = parameters.get( _name );
+        if( parameter == null )
+            throw new IllegalArgumentException( "No such parameter: " + _name );
+        return parameter;
+    }
+
+
+    private static class Parameter {
+        private double value;
+        private final double min;
+        private final double max;
+        private final boolean integral;
+
+
+        private Parameter( final double _value, final double _min, final double _max, final boolean _integral ) {
+            value = _value;
+            min = _min;
+            max = _max;
+            integral = _integral;
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.slightlyloony.jsisyphus;
 
 import com.slightlyloony.jsisyphus.lines.Line;
+import com.slightlyloony.jsisyphus.lines.PolarFunction;
 import com.slightlyloony.jsisyphus.models.Model;
 import com.slightlyloony.jsisyphus.positions.Position;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Base class for all tracks.
@@ -20,9 +22,14 @@ public abstract class ATrack {
 
 
     protected ATrack( final String baseFileName ) {
+        this( baseFileName, DrawingSettings.DEFAULT );
+    }
+
+
+    protected ATrack( final String baseFileName, final DrawingSettings _settings ) {
         trackFileName = baseFileName + ".thr";
         pngFileName = baseFileName + ".png";
-        dc = new DrawingContext();
+        dc = new DrawingContext( _settings );
     }
 
 
@@ -75,6 +82,40 @@ public abstract class ATrack {
     }
 
 
+    /**
+     * Moves the ball from the current position to the given point, retracing already drawn lines wherever that's possible.  The given point's coordinates
+     * are considered relative to the current position, and in the current rotation.  If the given point can't be reached that way, the route ends with a
+     * straight line drawn from the place on the drawn lines that minimizes how much of that line is visible.
+     *
+     * @param _point the point to travel to, with coordinates relative to the current position.
+     */
+    public void travelTo( final Point _point ) {
+        dc.travelTo( _point );
+    }
+
+
+    /**
+     * Moves the ball from the current position to the point at the given delta x and delta y from the current position, in the current rotation,
+     * retracing already drawn lines wherever that's possible.
+     *
+     * @param _dX the difference in x between the ending position and the current position.
+     * @param _dY the difference in y between the ending position and the current position.
+     */
+    public void travelToXY( final double _dX, final double _dY ) {
+        dc.travelToXY( _dX, _dY );
+    }
+
+
+    /**
+     * Travels from the current position to the point at the given vector from the current position, in the current rotation.
+     *
+     * @param _point the ending position, relative to the current position.
+     */
+    public void travelTo( final MutablePoint _point ) {
+        dc.travelTo( _point );
+    }
+
+
     /**
      * Draws a straight line from the current position to the given point.  The given point's coordinates are considered relative to the current position, and
      * in the current rotation.
@@ -96,6 +137,16 @@ public abstract class ATrack {
     }
 
 
+    /**
+     * Draws a straight line from the current position to the point at the given vector from the current position, in the current rotation.
+     *
+     * @param _point the ending position, relative to the current position.
+     */
+    public void lineTo( final MutablePoint _point ) {
+        dc.lineTo( _point );
+    }
+
+
     /**
      * Draws a straight line from the current position to the point at the given delta rho and delta theta from the current position, in the current
      * rotation.
@@ -174,6 +225,17 @@ public abstract class ATrack {
     }
 
 
+    /**
+     * Draws a circular arc around the center at the given vector from the current position, in the current rotation, for the given arc angle.
+     *
+     * @param _center the center of the arc, relative to the current position.
+     * @param _arcAngle the angular fraction of the arc to draw.
+     */
+    public void arcAround( final MutablePoint _center, final double _arcAngle ) {
+        dc.arcAround( _center, _arcAngle );
+    }
+
+
     /**
      * Draws a circular arc with the given arc angle from the current position around the center point at the given delta rho and delta theta from the current
      * position, in the current rotation.
@@ -209,6 +271,18 @@ public abstract class ATrack {
     }
 
 
+    /**
+     * Draws a circular arc from the current position to the point at the given vector from the current position, in the current rotation, for the given
+     * arc angle.
+     *
+     * @param _end the end of the arc, relative to the current position.
+     * @param _arcAngle the angular fraction of the arc to draw.
+     */
+    public void arcTo( final MutablePoint _end, final double _arcAngle ) {
+        dc.arcTo( _end, _arcAngle );
+    }
+
+
     /**
      * Draws a circular arc with the given arc angle from the current position to the point at the given delta rho and delta theta from the current position,
      * in the current rotation.
@@ -250,6 +324,19 @@ public abstract class ATrack {
     }
 
 
+    /**
+     * Draws a cubic Bézier curve from the current position to the given end point, with the curve controlled by the two given control points.  Control
+     * point 1 is relative to the current position, control point 2 is relative to the end point, and the end point is relative to the current position.
+     *
+     * @param _cp1 control point 1, relative to the current position.
+     * @param _cp2 control point 2, relative to the end point.
+     * @param _end the end point, relative to the current position.
+     */
+    public void curveTo( final MutablePoint _cp1, final MutablePoint _cp2, final MutablePoint _end ) {
+        dc.curveTo( _cp1, _cp2, _end );
+    }
+
+
     /**
      * Draws a cubic Bézier curve from the current position to the given end position, with the curve controlled by the two given control point positions.
      * All of the positions are relative to the current ball position, expressed as a delta rho and delta theta in the current rotation.  Control point 1
@@ -324,6 +411,79 @@ public abstract class ATrack {
     }
 
 
+    /**
+     * Draws a quadratic Bézier curve from the current position to the given end point, with the curve controlled by the given control point.  Both are
+     * relative to the current position.
+     *
+     * @param _cp the control point, relative to the current position.
+     * @param _end the end point, relative to the current position.
+     */
+    public void quadTo( final Point _cp, final Point _end ) {
+        dc.quadTo( _cp, _end );
+    }
+
+
+    /**
+     * Draws a quadratic Bézier curve from the current position to the given end point, with the curve controlled by the given control point.  Both are
+     * given as a delta x and delta y from the current position, in the current rotation.
+     *
+     * @param _cpX the difference in x between the control point and the current position.
+     * @param _cpY the difference in y between the control point and the current position.
+     * @param _endX the difference in x between the ending position and the current position.
+     * @param _endY the difference in y between the ending position and the current position.
+     */
+    public void quadToXY( final double _cpX, final double _cpY, final double _endX, final double _endY ) {
+        dc.quadToXY( _cpX, _cpY, _endX, _endY );
+    }
+
+
+    /**
+     * Draws a quadratic Bézier curve from the current position to the given end point, with the curve controlled by the given control point.  Both are
+     * relative to the current position.
+     *
+     * @param _cp the control point, relative to the current position.
+     * @param _end the end point, relative to the current position.
+     */
+    public void quadTo( final MutablePoint _cp, final MutablePoint _end ) {
+        dc.quadTo( _cp, _end );
+    }
+
+
+    /**
+     * Draws a Catmull-Rom spline from the current position through each of the given points, in order, as a single line.  The points are all relative to
+     * the current position, and the line ends at the last of them.
+     *
+     * @param _points the points the spline passes through, relative to the current position.
+     */
+    public void catmullRomTo( final List<Point> _points ) {
+        dc.catmullRomTo( _points );
+    }
+
+
+    /**
+     * Draws a uniform cubic B-spline from the current position, controlled by each of the given control points, in order, as a single line.  The control
+     * points are all relative to the current position, and the line ends at the last of them.
+     *
+     * @param _controlPoints the control points, relative to the current position.
+     */
+    public void bSplineTo( final List<Point> _controlPoints ) {
+        dc.bSplineTo( _controlPoints );
+    }
+
+
+    /**
+     * Draws the curve given by the given polar function from the given theta to the given theta, starting from the current position, and in the current
+     * rotation.  The curve's center is wherever that start puts it.
+     *
+     * @param _function the polar function giving the curve's rho at each theta.
+     * @param _fromTheta the theta (in radians) at the start of the curve.
+     * @param _toTheta the theta (in radians) at the end of the curve.
+     */
+    public void drawPolar( final PolarFunction _function, final double _fromTheta, final double _toTheta ) {
+        dc.drawPolar( _function, _fromTheta, _toTheta );
+    }
+
+
     /**
      * Sets the current relative position to x,y 0,0.
      */
@@ -352,6 +512,17 @@ public abstract class ATrack {
     }
 
 
+    /**
+     * Sets the given vector to the current relative position, without allocating anything.
+     *
+     * @param _result the vector to set.
+     * @return the given vector.
+     */
+    public MutablePoint getCurrentRelativePosition( final MutablePoint _result ) {
+        return dc.getCurrentRelativePosition( _result );
+    }
+
+
     /**
      * Returns a vector from the current relative position to the given relative position.
      *
@@ -374,6 +545,17 @@ public abstract class ATrack {
     }
 
 
+    /**
+     * Changes the given relative position into the vector to it from the current relative position, without allocating anything.
+     *
+     * @param _destination the relative position to get a vector to, which is changed into that vector.
+     * @return the given vector.
+     */
+    public MutablePoint to( final MutablePoint _destination ) {
+        return dc.vectorTo( _destination );
+    }
+
+
     /**
      * Returns a marker for the current position.
      *
@@ -480,6 +662,22 @@ public abstract class ATrack {
     }
 
 
+    public EraseStrategy getEraseStrategy() {
+        return dc.getEraseStrategy();
+    }
+
+
+    /**
+     * Sets the strategy used to erase.  The default is {@link EraseStrategy#AUTO}, which picks the spiral or the zigzag, whichever has the shorter
+     * playback time for the current model of table.
+     *
+     * @param _eraseStrategy the erase strategy.
+     */
+    public void setEraseStrategy( final EraseStrategy _eraseStrategy ) {
+        dc.setEraseStrategy( _eraseStrategy );
+    }
+
+
     public boolean isMute() {
         return dc.isMute();
     }
@@ -490,6 +688,200 @@ public abstract class ATrack {
     }
 
 
+    public boolean isQuantize() {
+        return dc.isQuantize();
+    }
+
+
+    /**
+     * Sets whether the vertices are snapped to the current model's step grid when the track is rendered or written.
+     *
+     * @param _quantize true to quantize the vertices when rendering or writing.
+     */
+    public void setQuantize( final boolean _quantize ) {
+        dc.setQuantize( _quantize );
+    }
+
+
+    public TraceIndex getTraceIndex() {
+        return dc.getTraceIndex();
+    }
+
+
+    /**
+     * Sets the index that everything traced by this track is recorded in, or stops indexing if the given index is null.
+     *
+     * @param _traceIndex the trace index, or null for none.
+     */
+    public void setTraceIndex( final TraceIndex _traceIndex ) {
+        dc.setTraceIndex( _traceIndex );
+    }
+
+
+    public boolean isVerify() {
+        return dc.isVerify();
+    }
+
+
+    /**
+     * Sets whether the track is verified against the intended path when it's written.  Verification must be turned on before any drawing is done.
+     *
+     * @param _verify true to verify the track when writing.
+     */
+    public void setVerify( final boolean _verify ) {
+        dc.setVerify( _verify );
+    }
+
+
+    /**
+     * Returns the trouble the fitter has had with everything drawn so far (see {@link FitDiagnostic}).
+     *
+     * @return the fit diagnostics.
+     */
+    public List<FitDiagnostic> getFitDiagnostics() {
+        return dc.getFitDiagnostics();
+    }
+
+
+    public DrawingSettings getSettings() {
+        return dc.getSettings();
+    }
+
+
+    /**
+     * Changes all of the drawing settings to the given settings.
+     *
+     * @param _settings the settings to draw with.
+     */
+    public void setSettings( final DrawingSettings _settings ) {
+        dc.setSettings( _settings );
+    }
+
+
+    public FitStrategy getFitStrategy() {
+        return dc.getFitStrategy();
+    }
+
+
+    /**
+     * Sets the strategy used to fit Sisyphus lines to what's drawn.  The default is {@link FitStrategy#GREEDY}.
+     *
+     * @param _fitStrategy the fit strategy.
+     */
+    public void setFitStrategy( final FitStrategy _fitStrategy ) {
+        dc.setFitStrategy( _fitStrategy );
+    }
+
+
+    public TolerancePolicy getTolerancePolicy() {
+        return dc.getTolerancePolicy();
+    }
+
+
+    /**
+     * Sets the policy that decides the fit tolerance at each point on the table.  The default is {@link TolerancePolicy#STEP_RESOLUTION}.
+     *
+     * @param _tolerancePolicy the tolerance policy.
+     */
+    public void setTolerancePolicy( final TolerancePolicy _tolerancePolicy ) {
+        dc.setTolerancePolicy( _tolerancePolicy );
+    }
+
+
+    public VertexBudget getBudget() {
+        return dc.getBudget();
+    }
+
+
+    /**
+     * Sets the vertex budget for this track, or removes it if the given budget is null.  With a budget set, everything drawn is refitted when the track
+     * is written, at the tightest fit tolerance that meets the budget.  The budget must be set before any drawing is done.
+     *
+     * @param _budget the vertex budget, or null for no budget.
+     */
+    public void setBudget( final VertexBudget _budget ) {
+        dc.setBudget( _budget );
+    }
+
+
+    public DisplayList getDisplayList() {
+        return dc.getDisplayList();
+    }
+
+
+    /**
+     * Sets the display list to record this track's drawing commands into, or null to stop recording.  The recorded commands can be replayed into other
+     * drawing contexts, with other settings, without tracing this track again.
+     *
+     * @param _displayList the display list to record into, or null to stop recording.
+     */
+    public void setDisplayList( final DisplayList _displayList ) {
+        dc.setDisplayList( _displayList );
+    }
+
+
+    public boolean isHierarchicalFit() {
+        return dc.isHierarchicalFit();
+    }
+
+
+    /**
+     * Sets whether lines are fitted hierarchically, testing far fewer points with the same guarantee that every point fits.  The default is false.
+     *
+     * @param _hierarchicalFit true to fit hierarchically.
+     */
+    public void setHierarchicalFit( final boolean _hierarchicalFit ) {
+        dc.setHierarchicalFit( _hierarchicalFit );
+    }
+
+
+    public boolean isBoundPropagation() {
+        return dc.isBoundPropagation();
+    }
+
+
+    /**
+     * Sets whether the fitter tries to prove points fit from the points before them, avoiding most searches for the closest point on a spiral line.  The
+     * default is false.
+     *
+     * @param _boundPropagation true to propagate bounds while fitting.
+     */
+    public void setBoundPropagation( final boolean _boundPropagation ) {
+        dc.setBoundPropagation( _boundPropagation );
+    }
+
+
+    public boolean isKernelFit() {
+        return dc.isKernelFit();
+    }
+
+
+    /**
+     * Sets whether the fitter tests points, circles, and radials a block of points at a time, which is faster but fits the same.  The default is true.
+     *
+     * @param _kernelFit true to fit with the kernel.
+     */
+    public void setKernelFit( final boolean _kernelFit ) {
+        dc.setKernelFit( _kernelFit );
+    }
+
+
+    public FitCache getFitCache() {
+        return dc.getFitCache();
+    }
+
+
+    /**
+     * Sets the cache of fits to look in before fitting what this track draws, or null for no cache.  Lines that were fitted the same way when this (or any
+     * other) track was traced before aren't fitted again.
+     *
+     * @param _fitCache the fit cache.
+     */
+    public void setFitCache( final FitCache _fitCache ) {
+        dc.setFitCache( _fitCache );
+    }
+
+
     public double getCurrentRotation() {
         return dc.getCurrentRotation();
     }
@@ -0,0 +1,16 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.models.Model;
+
+/**
+ * A tolerance policy that uses the base tolerance everywhere on the table.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class ConstantTolerance implements TolerancePolicy {
+
+    @Override
+    public double toleranceAt( final double _rho, final double _baseTolerance, final Model _model ) {
+        return _baseTolerance;
+    }
+}
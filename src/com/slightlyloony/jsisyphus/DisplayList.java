@@ -0,0 +1,530 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.lines.Line;
+import com.slightlyloony.jsisyphus.lines.PolarFunction;
+import com.slightlyloony.jsisyphus.lines.SampledPolarFunction;
+import com.slightlyloony.jsisyphus.lines.SpiralSpans;
+import com.slightlyloony.jsisyphus.positions.PolarPosition;
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Instances of this class record the drawing commands given to a drawing context (see {@link DrawingContext#setDisplayList(DisplayList)}), so that they
+ * can be replayed later into other drawing contexts, with other settings: another model of table, another fit tolerance, another point spacing, and so
+ * on.  Replaying costs only the drawing and fitting, not whatever computation the track did to decide what to draw.  A display list can be replayed into
+ * several drawing contexts in a single pass, and can be saved to (and loaded from) a file.
+ *
+ * Commands are recorded as they were given, relative to the current position and rotation, so that each one is redone by the drawing context it's
+ * replayed into; the lines are sampled and fitted with that drawing context's settings.  The exceptions are lines given directly to
+ * {@link DrawingContext#draw(Line)}, the sampled points of figures drawn by a {@link FigurePlanner}, and vertices given to
+ * {@link DrawingContext#appendVertices(List)}, which are recorded as their points (and fitted again when replayed, except for the vertices); and polar
+ * functions given to {@link DrawingContext#drawPolar(PolarFunction, double, double)}, which are recorded as a table of their rho at finely spaced thetas
+ * (see {@link SampledPolarFunction}), and sampled again from that table when replayed.  Settings
+ * (the model, tolerances, and so on) are not recorded, as they're what replaying is meant to change.  A drawing command's arguments are recorded
+ * exactly, so replaying into a drawing context with the same settings produces exactly the same track.
+ *
+ * The list is stored compactly, as an array of opcodes and an array of the doubles that are their arguments.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.  Once recording is finished, though, any number of threads may replay a display list
+ * at once.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class DisplayList {
+
+    private static final int MAGIC   = 0x4A534444;  // "JSDL"...
+    private static final int VERSION = 1;
+
+    /* package */ static final byte LINE_TO           = 1;   // point...
+    /* package */ static final byte TRAVEL_TO         = 2;   // point...
+    /* package */ static final byte ERASE_TO          = 3;   // point...
+    /* package */ static final byte SPIRAL_TO         = 4;   // end point, center point, center theta, turns...
+    /* package */ static final byte ARC_AROUND        = 5;   // center point, arc angle...
+    /* package */ static final byte ARC_TO            = 6;   // end point, arc angle...
+    /* package */ static final byte CURVE_TO          = 7;   // control point 1, control point 2, end point...
+    /* package */ static final byte ORBIT             = 8;   // orbits...
+    /* package */ static final byte HOME              = 9;   // (nothing)...
+    /* package */ static final byte ARC_AROUND_CENTER = 10;  // theta...
+    /* package */ static final byte APPEND_VERTICES   = 11;  // count, then rho and theta for each vertex...
+    /* package */ static final byte DRAW              = 12;  // count, then x and y for each delta...
+    /* package */ static final byte ROTATE_TO         = 13;  // theta...
+    /* package */ static final byte ROTATE_BY         = 14;  // delta theta...
+    /* package */ static final byte ZERO_RELATIVE     = 15;  // (nothing)...
+    /* package */ static final byte SET_RELATIVE      = 16;  // point...
+    /* package */ static final byte SET_MUTE          = 17;  // 1 for mute, 0 otherwise...
+    /* package */ static final byte DRAW_SPIRAL_SPANS = 18;  // as DRAW, then the spiral center point, span count, and the index ending each span...
+    /* package */ static final byte QUAD_TO           = 19;  // control point, end point...
+    /* package */ static final byte CATMULL_ROM_TO    = 20;  // count, then each point...
+    /* package */ static final byte B_SPLINE_TO       = 21;  // count, then each control point...
+    /* package */ static final byte DRAW_RUN          = 22;  // count, then rho and theta for each sampled point of a planned figure...
+    /* package */ static final byte DRAW_POLAR        = 23;  // from theta, to theta, count, then rho at each of count evenly spaced thetas...
+
+    private byte[] ops;
+    private int opCount;
+    private double[] values;
+    private int valueCount;
+
+
+    /**
+     * Creates a new, empty, instance of this class.
+     */
+    public DisplayList() {
+        ops = new byte[256];
+        values = new double[1024];
+    }
+
+
+    /*
+     * Recording...
+     */
+
+
+    /* package */ DisplayList op( final byte _op ) {
+        if( opCount == ops.length )
+            ops = Arrays.copyOf( ops, 2 * ops.length );
+        ops[opCount++] = _op;
+        return this;
+    }
+
+
+    /* package */ DisplayList value( final double _value ) {
+        if( valueCount == values.length )
+            values = Arrays.copyOf( values, 2 * values.length );
+        values[valueCount++] = _value;
+        return this;
+    }
+
+
+    // points are recorded with both their Cartesian and polar coordinates, so that they're replayed exactly...
+    /* package */ DisplayList point( final Point _point ) {
+        return value( _point.x ).value( _point.y ).value( _point.rho ).value( _point.theta );
+    }
+
+
+    /* package */ DisplayList points( final List<Point> _points ) {
+        value( _points.size() );
+        for( Point point : _points )
+            point( point );
+        return this;
+    }
+
+
+    /* package */ DisplayList values( final double[] _values ) {
+        value( _values.length );
+        for( double value : _values )
+            value( value );
+        return this;
+    }
+
+
+    /* package */ DisplayList line( final Line _line ) {
+        List<Delta> deltas = _line.getDeltas();
+        value( deltas.size() );
+        for( Delta delta : deltas )
+            value( delta.x ).value( delta.y );
+        return this;
+    }
+
+
+    /* package */ DisplayList spans( final SpiralSpans _line ) {
+        int[] spans = _line.getSpiralSpans();
+        point( _line.getSpiralCenter() ).value( spans.length );
+        for( int span : spans )
+            value( span );
+        return this;
+    }
+
+
+    /* package */ DisplayList vertices( final List<Position> _vertices ) {
+        value( _vertices.size() );
+        for( Position vertice : _vertices )
+            value( vertice.getRho() ).value( vertice.getTheta() );
+        return this;
+    }
+
+
+    /**
+     * Returns the number of commands recorded.
+     *
+     * @return the number of commands recorded.
+     */
+    public int size() {
+        return opCount;
+    }
+
+
+    /**
+     * Removes all the recorded commands.
+     */
+    public void clear() {
+        opCount = 0;
+        valueCount = 0;
+    }
+
+
+    /*
+     * Replaying...
+     */
+
+
+    /**
+     * Replays the recorded commands into the given drawing contexts, in a single pass through this list.  Each drawing context draws with its own
+     * settings.
+     *
+     * @param _dcs the drawing contexts to replay into.
+     */
+    public void replay( final DrawingContext... _dcs ) {
+
+        Reader reader = new Reader();
+        for( int i = 0; i < opCount; i++ ) {
+
+            switch( ops[i] ) {
+
+                case LINE_TO: {
+                    Point point = reader.point();
+                    for( DrawingContext dc : _dcs ) dc.lineTo( point );
+                    break;
+                }
+
+                case TRAVEL_TO: {
+                    Point point = reader.point();
+                    for( DrawingContext dc : _dcs ) dc.travelTo( point );
+                    break;
+                }
+
+                case ERASE_TO: {
+                    Point point = reader.point();
+                    for( DrawingContext dc : _dcs ) dc.eraseTo( point );
+                    break;
+                }
+
+                case SPIRAL_TO: {
+                    Point end = reader.point();
+                    Point center = reader.point();
+                    double centerTheta = reader.value();
+                    int turns = (int) reader.value();
+                    for( DrawingContext dc : _dcs ) dc.spiralTo( end, center, centerTheta, turns );
+                    break;
+                }
+
+                case ARC_AROUND: {
+                    Point center = reader.point();
+                    double arcAngle = reader.value();
+                    for( DrawingContext dc : _dcs ) dc.arcAround( center, arcAngle );
+                    break;
+                }
+
+                case ARC_TO: {
+                    Point end = reader.point();
+                    double arcAngle = reader.value();
+                    for( DrawingContext dc : _dcs ) dc.arcTo( end, arcAngle );
+                    break;
+                }
+
+                case CURVE_TO: {
+                    Point cp1 = reader.point();
+                    Point cp2 = reader.point();
+                    Point end = reader.point();
+                    for( DrawingContext dc : _dcs ) dc.curveTo( cp1, cp2, end );
+                    break;
+                }
+
+                case QUAD_TO: {
+                    Point cp = reader.point();
+                    Point end = reader.point();
+                    for( DrawingContext dc : _dcs ) dc.quadTo( cp, end );
+                    break;
+                }
+
+                case CATMULL_ROM_TO: {
+                    List<Point> points = reader.points();
+                    for( DrawingContext dc : _dcs ) dc.catmullRomTo( points );
+                    break;
+                }
+
+                case B_SPLINE_TO: {
+                    List<Point> controlPoints = reader.points();
+                    for( DrawingContext dc : _dcs ) dc.bSplineTo( controlPoints );
+                    break;
+                }
+
+                case ORBIT: {
+                    int orbits = (int) reader.value();
+                    for( DrawingContext dc : _dcs ) dc.orbit( orbits );
+                    break;
+                }
+
+                case HOME:
+                    for( DrawingContext dc : _dcs ) dc.home();
+                    break;
+
+                case ARC_AROUND_CENTER: {
+                    double theta = reader.value();
+                    for( DrawingContext dc : _dcs ) dc.arcAroundTableCenter( theta );
+                    break;
+                }
+
+                case APPEND_VERTICES: {
+                    int count = (int) reader.value();
+                    List<Position> vertices = new ArrayList<>( count );
+                    for( int j = 0; j < count; j++ ) {
+                        double rho = reader.value();
+                        vertices.add( new PolarPosition( rho, reader.value() ) );
+                    }
+                    for( DrawingContext dc : _dcs ) dc.appendVertices( vertices );
+                    break;
+                }
+
+                case DRAW_RUN: {
+                    int count = (int) reader.value();
+                    List<Position> points = new ArrayList<>( count );
+                    for( int j = 0; j < count; j++ ) {
+                        double rho = reader.value();
+                        points.add( new PolarPosition( rho, reader.value() ) );
+                    }
+                    for( DrawingContext dc : _dcs ) dc.drawRun( points );
+                    break;
+                }
+
+                case DRAW: {
+                    int count = (int) reader.value();
+                    List<Delta> deltas = new ArrayList<>( count );
+                    for( int j = 0; j < count; j++ ) {
+                        double x = reader.value();
+                        deltas.add( new Delta( x, reader.value() ) );
+                    }
+                    Line line = new RecordedLine( deltas );
+                    for( DrawingContext dc : _dcs ) dc.draw( line );
+                    break;
+                }
+
+                case DRAW_SPIRAL_SPANS: {
+                    int count = (int) reader.value();
+                    List<Delta> deltas = new ArrayList<>( count );
+                    for( int j = 0; j < count; j++ ) {
+                        double x = reader.value();
+                        deltas.add( new Delta( x, reader.value() ) );
+                    }
+                    Point center = reader.point();
+                    int[] spans = new int[(int) reader.value()];
+                    for( int j = 0; j < spans.length; j++ )
+                        spans[j] = (int) reader.value();
+                    Line line = new RecordedSpiralLine( deltas, center, spans );
+                    for( DrawingContext dc : _dcs ) dc.draw( line );
+                    break;
+                }
+
+                case DRAW_POLAR: {
+                    double fromTheta = reader.value();
+                    double toTheta = reader.value();
+                    SampledPolarFunction function = new SampledPolarFunction( fromTheta, toTheta, reader.values() );
+                    for( DrawingContext dc : _dcs ) dc.drawPolar( function, fromTheta, toTheta );
+                    break;
+                }
+
+                case ROTATE_TO: {
+                    double theta = reader.value();
+                    for( DrawingContext dc : _dcs ) dc.rotateTo( theta );
+                    break;
+                }
+
+                case ROTATE_BY: {
+                    double deltaTheta = reader.value();
+                    for( DrawingContext dc : _dcs ) dc.rotateBy( deltaTheta );
+                    break;
+                }
+
+                case ZERO_RELATIVE:
+                    for( DrawingContext dc : _dcs ) dc.zeroCurrentRelativePosition();
+                    break;
+
+                case SET_RELATIVE: {
+                    Point point = reader.point();
+                    for( DrawingContext dc : _dcs ) dc.setCurrentRelativePosition( point );
+                    break;
+                }
+
+                case SET_MUTE: {
+                    boolean mute = reader.value() != 0;
+                    for( DrawingContext dc : _dcs ) dc.setMute( mute );
+                    break;
+                }
+
+                default:
+                    throw new IllegalStateException( "Unknown display list opcode: " + ops[i] );
+            }
+        }
+    }
+
+
+    // reads the values of the commands being replayed; each replay has its own, so replays on separate threads don't interfere...
+    private class Reader {
+
+        private int next;
+
+
+        private double value() {
+            return values[next++];
+        }
+
+
+        private Point point() {
+            double x = value();
+            double y = value();
+            double rho = value();
+            return Point.fromXYRT( x, y, rho, value() );
+        }
+
+
+        private double[] values() {
+            double[] values = new double[(int) value()];
+            for( int j = 0; j < values.length; j++ )
+                values[j] = value();
+            return values;
+        }
+
+
+        private List<Point> points() {
+            int count = (int) value();
+            List<Point> points = new ArrayList<>( count );
+            for( int j = 0; j < count; j++ )
+                points.add( point() );
+            return points;
+        }
+    }
+
+
+    // a line given to the drawing context directly, replayed as the deltas it had when it was recorded...
+    private static class RecordedLine implements Line {
+
+        private final List<Delta> deltas;
+
+
+        private RecordedLine( final List<Delta> _deltas ) {
+            deltas = _deltas;
+        }
+
+
+        @Override
+        public List<Delta> getDeltas() {
+            return Collections.unmodifiableList( deltas );
+        }
+    }
+
+
+    // a line with spiral spans given to the drawing context directly, replayed as the deltas and spans it had when it was recorded...
+    private static class RecordedSpiralLine extends RecordedLine implements SpiralSpans {
+
+        private final Point center;
+        private final int[] spans;
+
+
+        private RecordedSpiralLine( final List<Delta> _deltas, final Point _center, final int[] _spans ) {
+            super( _deltas );
+            center = _center;
+            spans = _spans;
+        }
+
+
+        @Override
+        public Point getSpiralCenter() {
+            return center;
+        }
+
+
+        @Override
+        public int[] getSpiralSpans() {
+            return spans.clone();
+        }
+    }
+
+
+    /*
+     * Serialization...
+     */
+
+
+    /**
+     * Writes this display list to the given output.
+     *
+     * @param _out the output to write to.
+     * @throws IOException on any problem writing.
+     */
+    public void write( final DataOutput _out ) throws IOException {
+        _out.writeInt( MAGIC );
+        _out.writeInt( VERSION );
+        _out.writeInt( opCount );
+        _out.write( ops, 0, opCount );
+        _out.writeInt( valueCount );
+        for( int i = 0; i < valueCount; i++ )
+            _out.writeDouble( values[i] );
+    }
+
+
+    /**
+     * Reads a display list from the given input.
+     *
+     * @param _in the input to read from.
+     * @return the display list read.
+     * @throws IOException on any problem reading, or if what's read isn't a display list.
+     */
+    public static DisplayList read( final DataInput _in ) throws IOException {
+
+        if( _in.readInt() != MAGIC )
+            throw new IOException( "Not a display list" );
+        int version = _in.readInt();
+        if( version != VERSION )
+            throw new IOException( "Unsupported display list version: " + version );
+
+        DisplayList result = new DisplayList();
+        result.opCount = _in.readInt();
+        result.ops = new byte[Math.max( 1, result.opCount )];
+        _in.readFully( result.ops, 0, result.opCount );
+        result.valueCount = _in.readInt();
+        result.values = new double[Math.max( 1, result.valueCount )];
+        for( int i = 0; i < result.valueCount; i++ )
+            result.values[i] = _in.readDouble();
+        return result;
+    }
+
+
+    /**
+     * Saves this display list to the file with the given name.
+     *
+     * @param _fileName the name of the file to save to.
+     * @throws IOException on any problem writing the file.
+     */
+    public void save( final String _fileName ) throws IOException {
+        try( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( _fileName ) ) ) ) {
+            write( out );
+        }
+    }
+
+
+    /**
+     * Loads a display list from the file with the given name.
+     *
+     * @param _fileName the name of the file to load from.
+     * @return the display list loaded.
+     * @throws IOException on any problem reading the file.
+     */
+    public static DisplayList load( final String _fileName ) throws IOException {
+        try( DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( _fileName ) ) ) ) {
+            return read( in );
+        }
+    }
+
+}
@@ -13,8 +13,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 import static java.lang.Math.*;
 import static java.lang.Math.PI;
@@ -22,15 +26,15 @@ import static java.lang.Math.PI;
 /**
  * Provides a drawing context for the Sisyphus table, supporting drawing with translation and rotation.
  *
- * Instances of this class are mutable and <i>not</i> threadsafe.
+ * Instances of this class are mutable and <i>not</i> threadsafe.  They share no mutable state with each other, though, so separate instances (for
+ * instance, one per track) may be used on separate threads at once.  Their settings may be given as a {@link DrawingSettings}, which can be shared.
  *
  * @author Tom Dilatush  tom@dilatush.com
  */
 public class DrawingContext {
 
-    private static final double DEFAULT_MAX_FIT_ERROR_METERS = 0.0005; // in meters...
-    private static final int    DEFAULT_PIXELS_PER_RHO       = 500;    // effectively the radius of the PNG in pixels...
-    private static final double DEFAULT_ERASE_SPACING        = 0.004;  // in meters...
+    private static final double SPIRAL_CENTER_EPSILON = 1.0E-6;  // how close to the table's center a line's spirals must be centered to be hints...
+    private static final double RECORDED_POLAR_INTERVAL = PI / 4096;  // the interval in theta at which display lists record polar functions...
 
     private List<Position> vertices;  // holds all the vertices we've drawn...
     private double maxPointDistance;
@@ -42,46 +46,119 @@ public class DrawingContext {
     private Point currentRelativePosition;
     private double currentRotation;
     private double eraseSpacing;  // the erase spiral radial spacing in meters...
+    private EraseStrategy eraseStrategy;
+    private FitStrategy fitStrategy;
+    private TolerancePolicy tolerancePolicy;
+    private int greedyVertexCount;          // the number of vertices a greedy fit would have generated for everything we've drawn...
+    private int fittedVertexCount;          // the number of vertices actually fitted to everything we've drawn...
+    private long fitPointTests;             // the number of point tests the fitter has done for everything we've drawn...
+    private long fitCurveSearches;          // the number of those that searched a spiral for its closest point...
+    private boolean hierarchicalFit = false;  // true to fit hierarchically (see SisyphusFitter)...
+    private boolean boundPropagation = false;  // true to propagate bounds while fitting (see SisyphusFitter)...
+    private boolean kernelFit = true;         // true to test blocks of points with the fit kernel (see SisyphusFitter)...
     private boolean mute = false;
+    private VertexBudget budget;            // the vertex budget, or null if there is none...
+    private List<Position> budgetPrefix;    // the vertices drawn before the budget was set...
+    private List<List<Position>> runs;      // the sampled point runs, kept only while there's a budget...
+    private boolean quantize = false;       // true to snap written vertices to the model's step grid...
+    private StepQuantizer quantizer;        // the quantizer used for the last write, or null if none...
+    private boolean finished;               // true once the vertices are ready to render or write, until anything more is drawn...
+    private boolean recording;              // true while a figure is being recorded; its lines are sampled into runs, but not fitted...
+    private TraceIndex traceIndex;          // the index of everything we've traced, or null if we're not indexing...
+    private TraceGraph traceGraph;          // the graph of everything we've drawn, built when we first travel...
+    private DisplayList displayList;        // the display list we're recording our drawing commands into, or null if we're not recording...
+    private FitCache fitCache;              // the cache of fits to look in before fitting, or null if there is none...
+    private FidelityVerifier verifier;      // records the intended path and verifies the track against it, or null if we're not verifying...
+    private final List<FitDiagnostic> fitDiagnostics = new ArrayList<>();  // the trouble the fitter has had with everything we've drawn...
+    private final DecimalFormat thetaFormat = new DecimalFormat( "#.########", DecimalFormatSymbols.getInstance( Locale.ROOT ) );
+    private final DecimalFormat rhoFormat   = new DecimalFormat( "#.########", DecimalFormatSymbols.getInstance( Locale.ROOT ) );
 
 
     /**
-     * Creates a new instance of this class that assumes the given initial position of the ball on the Sisyphus table.
+     * Creates a new instance of this class with the given settings, that assumes the given initial position of the ball on the Sisyphus table.
      *
      * @param _initialPosition The assumed initial position of the ball on the Sisyphus table.
+     * @param _settings the settings to draw with.
      */
-    public DrawingContext( final Position _initialPosition ) {
+    public DrawingContext( final Position _initialPosition, final DrawingSettings _settings ) {
         vertices = new ArrayList<>();
         vertices.add( _initialPosition );  // for reasons unknown to us, the table seems to want the initial position twice...
         vertices.add( _initialPosition );
         currentPosition = _initialPosition;
-        model = Model.GENERIC;
-        maxFitErrorMeters = DEFAULT_MAX_FIT_ERROR_METERS;
-        fitToleranceRho = maxFitErrorMeters / model.tableRadiusMeters();
-        maxPointDistance = 0.01;  // approximately 2mm on A16 table...
-        pixelsPerRho = DEFAULT_PIXELS_PER_RHO;
-        eraseSpacing = DEFAULT_ERASE_SPACING;
+        setSettings( _settings );
         currentRotation = 0;
         currentRelativePosition = Point.fromXY( 0, 0 );
+        fitCache = FitCache.getDefault();
+    }
+
+
+    /**
+     * Creates a new instance of this class with the default settings, that assumes the given initial position of the ball on the Sisyphus table.
+     *
+     * @param _initialPosition The assumed initial position of the ball on the Sisyphus table.
+     */
+    public DrawingContext( final Position _initialPosition ) {
+        this( _initialPosition, DrawingSettings.DEFAULT );
+    }
+
+
+    /**
+     * Creates a new instance of this class with the given settings, that assumes the ball is at the center of the Sisyphus table.
+     *
+     * @param _settings the settings to draw with.
+     */
+    public DrawingContext( final DrawingSettings _settings ) {
+        this( Position.CENTER, _settings );
     }
 
 
     /**
-     * Creates a new instance of this class that assumes the ball is at the center of the Sisyphus table.
+     * Creates a new instance of this class with the default settings, that assumes the ball is at the center of the Sisyphus table.
      */
     public DrawingContext() {
         this( Position.CENTER );
     }
 
 
+    /**
+     * Returns a snapshot of this drawing context's current settings.
+     *
+     * @return the current settings.
+     */
+    public DrawingSettings getSettings() {
+        return new DrawingSettings( model, maxFitErrorMeters, maxPointDistance, pixelsPerRho, eraseSpacing, eraseStrategy, fitStrategy, tolerancePolicy );
+    }
+
+
+    /**
+     * Changes all of this drawing context's settings to the given settings.
+     *
+     * @param _settings the settings to draw with.
+     */
+    public void setSettings( final DrawingSettings _settings ) {
+        model = _settings.getModel();
+        maxFitErrorMeters = _settings.getMaxFitErrorMeters();
+        fitToleranceRho = _settings.getFitToleranceRho();
+        maxPointDistance = _settings.getMaxPointDistance();
+        pixelsPerRho = _settings.getPixelsPerRho();
+        eraseSpacing = _settings.getEraseSpacing();
+        eraseStrategy = _settings.getEraseStrategy();
+        fitStrategy = _settings.getFitStrategy();
+        tolerancePolicy = _settings.getTolerancePolicy();
+    }
+
+
     /**
      * Erases from the current position to the given end point, spiraling either in or out depending on whether the given end point is inside or outside the
-     * current position.  The number of turns made will ensure that the spacing is no more than the current erase spacing.
+     * current position.  The number of turns made will ensure that the spacing is no more than the current erase spacing.  The erasure is drawn with the
+     * current erase strategy (see {@link ErasePlanner}), which by default is the spiral or the zigzag, whichever has the shorter playback time.
      *
      * @param _end the end point of the erasure.
      */
     public void eraseTo( final Point _end ) {
 
+        if( displayList != null ) displayList.op( DisplayList.ERASE_TO ).point( _end );
+
         // get the absolute end point...
         Point abEnd = _end.abs( this );
 
@@ -97,8 +174,11 @@ public class DrawingContext {
         // erase in the opposite direction of how the table is wound up...
         if( (_end.theta == 0) && (currentPosition.getRho() > 0) ) turns = -turns;
 
-        Line line = new ArithmeticSpiral( maxPointDistance, _end, Point.fromXY( -currentPosition.getX(), -currentPosition.getY() ), 0, turns );
-        draw( line );
+        // plan the erasure with our strategy, then draw it...
+        ErasePlanner planner = new ErasePlanner( model, eraseSpacing );
+        Point vector = Point.fromXY( abEnd.x - currentPosition.getX(), abEnd.y - currentPosition.getY() );
+        append( planner.plan( currentPosition, vector, turns, eraseStrategy ) );
+        currentRelativePosition = currentRelativePosition.sum( _end );
     }
 
 
@@ -134,8 +214,15 @@ public class DrawingContext {
      * @param _point the point to draw a line to, with coordinates relative to the current position.
      */
     public void lineTo( final Point _point ) {
+        if( displayList != null ) displayList.op( DisplayList.LINE_TO ).point( _point );
+        line( _point );
+    }
+
+
+    // draws a straight line to the given point, relative to the current position...
+    private void line( final Point _point ) {
         Line line = new StraightLine( maxPointDistance, _point.x, _point.y );
-        draw( line );
+        drawLine( line );
     }
 
 
@@ -146,7 +233,22 @@ public class DrawingContext {
      * @param _dY the difference in y between the ending position and the current position.
      */
     public void lineToXY( final double _dX, final double _dY ) {
-        lineTo( Point.fromXY( _dX, _dY ) );
+
+        // the display list needs the whole point, but the line needs only x and y...
+        if( displayList != null )
+            lineTo( Point.fromXY( _dX, _dY ) );
+        else
+            drawLine( new StraightLine( maxPointDistance, _dX, _dY ) );
+    }
+
+
+    /**
+     * Draws a straight line from the current position to the point at the given vector from the current position, in the current rotation.
+     *
+     * @param _point the ending position, relative to the current position.
+     */
+    public void lineTo( final MutablePoint _point ) {
+        lineToXY( _point.x, _point.y );
     }
 
 
@@ -162,6 +264,78 @@ public class DrawingContext {
     }
 
 
+    /**
+     * Moves the ball from the current position to the given point, retracing already drawn lines wherever that's possible.  The given point's coordinates
+     * are considered relative to the current position, and in the current rotation.  The route is the one with the shortest playback time through the
+     * lines drawn so far.  If the given point can't be reached that way, the route ends with a straight line drawn from the place on the drawn lines that
+     * minimizes how much of that line is visible.
+     *
+     * @param _point the point to travel to, with coordinates relative to the current position.
+     */
+    public void travelTo( final Point _point ) {
+
+        if( displayList != null ) displayList.op( DisplayList.TRAVEL_TO ).point( _point );
+
+        // if we're not drawing, or we're recording a figure (which keeps no vertices), or we've moved away from what we've drawn, there's nothing to
+        // route through...
+        Point target = currentRelativePosition.sum( _point );
+        Point abEnd = _point.abs( this );
+        if( mute || recording || vertices.isEmpty() || (vertices.get( vertices.size() - 1 ).distanceFrom( currentPosition ) > fitToleranceRho) ) {
+            line( _point );
+            return;
+        }
+
+        // if this is our first trip, build the graph of everything drawn so far...
+        if( traceGraph == null ) {
+            traceGraph = new TraceGraph( fitToleranceRho );
+            for( Position vertice : vertices )
+                traceGraph.add( vertice );
+        }
+
+        // retrace the route; a jump to another line at a junction needs no move, but we keep the theta in the same turn we're already in...
+        List<Integer> route = traceGraph.route( vertices.size() - 1, abEnd, model );
+        int turns = 0;
+        for( int i = 1; i < route.size(); i++ ) {
+            Position vertice = vertices.get( route.get( i ) );
+            if( abs( route.get( i ) - route.get( i - 1 ) ) != 1 ) {
+                turns = (int) round( (currentPosition.getTheta() - vertice.getTheta()) / (2 * PI) );
+                continue;
+            }
+            moveTo( (turns == 0) ? vertice : new PolarPosition( vertice.getRho(), vertice.getTheta() + turns * 2 * PI ) );
+        }
+
+        // if the route didn't get us all the way there, draw the rest of the way...
+        Point rest = Point.fromPosition( currentPosition ).vectorTo( abEnd ).rotate( -currentRotation );
+        if( rest.rho > fitToleranceRho )
+            line( rest );
+
+        currentRelativePosition = target;
+    }
+
+
+    /**
+     * Moves the ball from the current position to the point at the given delta x and delta y from the current position, in the current rotation,
+     * retracing already drawn lines wherever that's possible.
+     *
+     * @param _dX the difference in x between the ending position and the current position.
+     * @param _dY the difference in y between the ending position and the current position.
+     */
+    public void travelToXY( final double _dX, final double _dY ) {
+        travelTo( Point.fromXY( _dX, _dY ) );
+    }
+
+
+    /**
+     * Travels from the current position to the point at the given vector from the current position, in the current rotation, as {@link #travelTo(Point)}
+     * does.
+     *
+     * @param _point the ending position, relative to the current position.
+     */
+    public void travelTo( final MutablePoint _point ) {
+        travelToXY( _point.x, _point.y );
+    }
+
+
     /**
      * Draws an arithmetic spiral from the current position to the given end point.  The center of the spiral will be at the given center point.
      * The spiral will have the given number of complete turns plus (possibly) a partial turn after that to reach the specified end point.  Both the end
@@ -173,8 +347,9 @@ public class DrawingContext {
      * @param _turns the number of complete turns (positive for clockwise, negative for anti-clockwise).
      */
     public void spiralTo( final Point _end, final Point _center, final double _centerTheta, final int _turns ) {
+        if( displayList != null ) displayList.op( DisplayList.SPIRAL_TO ).point( _end ).point( _center ).value( _centerTheta ).value( _turns );
         Line line = new ArithmeticSpiral( maxPointDistance, _end, _center, _centerTheta, _turns );
-        draw( line );
+        drawLine( line );
     }
 
 
@@ -218,8 +393,9 @@ public class DrawingContext {
      * @param _arcAngle the angle of the arc to be drawn.
      */
     public void arcAround( final Point _center, final double _arcAngle ) {
+        if( displayList != null ) displayList.op( DisplayList.ARC_AROUND ).point( _center ).value( _arcAngle );
         Line line = CircularArc.fromCenter( maxPointDistance, _center.x, _center.y, _arcAngle );
-        draw( line );
+        drawLine( line );
     }
 
 
@@ -232,7 +408,23 @@ public class DrawingContext {
      * @param _arcAngle the angular fraction of the arc to draw.
      */
     public void arcAroundXY( final double _dX, final double _dY, final double _arcAngle ) {
-        arcAround( Point.fromXY( _dX, _dY ), _arcAngle );
+
+        // the display list needs the whole point, but the arc needs only x and y...
+        if( displayList != null )
+            arcAround( Point.fromXY( _dX, _dY ), _arcAngle );
+        else
+            drawLine( CircularArc.fromCenter( maxPointDistance, _dX, _dY, _arcAngle ) );
+    }
+
+
+    /**
+     * Draws a circular arc around the center at the given vector from the current position, in the current rotation, for the given arc angle.
+     *
+     * @param _center the center of the arc, relative to the current position.
+     * @param _arcAngle the angular fraction of the arc to draw.
+     */
+    public void arcAround( final MutablePoint _center, final double _arcAngle ) {
+        arcAroundXY( _center.x, _center.y, _arcAngle );
     }
 
 
@@ -257,8 +449,9 @@ public class DrawingContext {
      * @param _arcAngle
      */
     public void arcTo( final Point _end, final double _arcAngle ) {
+        if( displayList != null ) displayList.op( DisplayList.ARC_TO ).point( _end ).value( _arcAngle );
         Line line = CircularArc.fromEndPoint( maxPointDistance, _end.x, _end.y, _arcAngle );
-        draw( line );
+        drawLine( line );
     }
 
 
@@ -271,7 +464,24 @@ public class DrawingContext {
      * @param _arcAngle the angular fraction of the arc to draw.
      */
     public void arcToXY( final double _dX, final double _dY, final double _arcAngle ) {
-        arcTo( Point.fromXY( _dX, _dY ), _arcAngle );
+
+        // the display list needs the whole point, but the arc needs only x and y...
+        if( displayList != null )
+            arcTo( Point.fromXY( _dX, _dY ), _arcAngle );
+        else
+            drawLine( CircularArc.fromEndPoint( maxPointDistance, _dX, _dY, _arcAngle ) );
+    }
+
+
+    /**
+     * Draws a circular arc from the current position to the point at the given vector from the current position, in the current rotation, for the given
+     * arc angle.
+     *
+     * @param _end the end of the arc, relative to the current position.
+     * @param _arcAngle the angular fraction of the arc to draw.
+     */
+    public void arcTo( final MutablePoint _end, final double _arcAngle ) {
+        arcToXY( _end.x, _end.y, _arcAngle );
     }
 
 
@@ -299,10 +509,12 @@ public class DrawingContext {
      */
     public void curveTo( final Point _cp1, final Point _cp2, final Point _end ) {
 
+        if( displayList != null ) displayList.op( DisplayList.CURVE_TO ).point( _cp1 ).point( _cp2 ).point( _end );
+
         // convert end-relative CP2 to be current position-relative...
         Point cp2 = _end.sum( _cp2 );
         Line line = new CubicBezierCurve( maxPointDistance, _cp1.x, _cp1.y, cp2.x, cp2.y, _end.x, _end.y );
-        draw( line );
+        drawLine( line );
     }
 
 
@@ -319,7 +531,25 @@ public class DrawingContext {
      * @param _endY the difference in y between the ending position and the current position.
      */
     public void curveToXY( final double _cp1X, final double _cp1Y, final double _cp2X, final double _cp2Y, final double _endX, final double _endY ) {
-        curveTo( Point.fromXY( _cp1X, _cp1Y ), Point.fromXY( _cp2X, _cp2Y ), Point.fromXY( _endX, _endY ) );
+
+        // the display list needs the whole points, but the curve needs only x and y (with control point 2 relative to the current position)...
+        if( displayList != null )
+            curveTo( Point.fromXY( _cp1X, _cp1Y ), Point.fromXY( _cp2X, _cp2Y ), Point.fromXY( _endX, _endY ) );
+        else
+            drawLine( new CubicBezierCurve( maxPointDistance, _cp1X, _cp1Y, _endX + _cp2X, _endY + _cp2Y, _endX, _endY ) );
+    }
+
+
+    /**
+     * Draws a cubic Bézier curve from the current position to the given end point, with the curve controlled by the two given control points, just as
+     * {@link #curveTo(Point,Point,Point)} does.
+     *
+     * @param _cp1 control point 1, relative to the current position.
+     * @param _cp2 control point 2, relative to the end point.
+     * @param _end the end point, relative to the current position.
+     */
+    public void curveTo( final MutablePoint _cp1, final MutablePoint _cp2, final MutablePoint _end ) {
+        curveToXY( _cp1.x, _cp1.y, _cp2.x, _cp2.y, _end.x, _end.y );
     }
 
 
@@ -341,6 +571,100 @@ public class DrawingContext {
     }
 
 
+    /**
+     * Draws a quadratic Bézier curve from the current position to the given end point, with the curve controlled by the given control point.  Both are
+     * relative to the current position.  The curve is sampled so that its chords are within half the fit tolerance of it.
+     *
+     * @param _cp the control point, relative to the current position.
+     * @param _end the end point, relative to the current position.
+     */
+    public void quadTo( final Point _cp, final Point _end ) {
+        if( displayList != null ) displayList.op( DisplayList.QUAD_TO ).point( _cp ).point( _end );
+        drawLine( new QuadraticBezierCurve( maxPointDistance, fitToleranceRho / 2, _cp.x, _cp.y, _end.x, _end.y ) );
+    }
+
+
+    /**
+     * Draws a quadratic Bézier curve from the current position to the given end point, with the curve controlled by the given control point.  Both are
+     * given as a delta x and delta y from the current position, in the current rotation.
+     *
+     * @param _cpX the difference in x between the control point and the current position.
+     * @param _cpY the difference in y between the control point and the current position.
+     * @param _endX the difference in x between the ending position and the current position.
+     * @param _endY the difference in y between the ending position and the current position.
+     */
+    public void quadToXY( final double _cpX, final double _cpY, final double _endX, final double _endY ) {
+
+        // the display list needs the whole points, but the curve needs only x and y...
+        if( displayList != null )
+            quadTo( Point.fromXY( _cpX, _cpY ), Point.fromXY( _endX, _endY ) );
+        else
+            drawLine( new QuadraticBezierCurve( maxPointDistance, fitToleranceRho / 2, _cpX, _cpY, _endX, _endY ) );
+    }
+
+
+    /**
+     * Draws a quadratic Bézier curve from the current position to the given end point, with the curve controlled by the given control point.  Both are
+     * relative to the current position.
+     *
+     * @param _cp the control point, relative to the current position.
+     * @param _end the end point, relative to the current position.
+     */
+    public void quadTo( final MutablePoint _cp, final MutablePoint _end ) {
+        quadToXY( _cp.x, _cp.y, _end.x, _end.y );
+    }
+
+
+    /**
+     * Draws a Catmull-Rom spline (see {@link CatmullRomSpline}) from the current position through each of the given points, in order.  The points are all
+     * relative to the current position, and the line ends at the last of them.  The whole spline is drawn as a single line, sampled so that its chords are
+     * within half the fit tolerance of it.
+     *
+     * @param _points the points the spline passes through, relative to the current position.
+     */
+    public void catmullRomTo( final List<Point> _points ) {
+        if( displayList != null ) displayList.op( DisplayList.CATMULL_ROM_TO ).points( _points );
+        drawLine( new CatmullRomSpline( maxPointDistance, fitToleranceRho / 2, _points ) );
+    }
+
+
+    /**
+     * Draws a uniform cubic B-spline (see {@link BSpline}) from the current position, controlled by each of the given control points, in order.  The
+     * control points are all relative to the current position, and the line ends at the last of them.  The whole spline is drawn as a single line, sampled
+     * so that its chords are within half the fit tolerance of it.
+     *
+     * @param _controlPoints the control points, relative to the current position.
+     */
+    public void bSplineTo( final List<Point> _controlPoints ) {
+        if( displayList != null ) displayList.op( DisplayList.B_SPLINE_TO ).points( _controlPoints );
+        drawLine( new BSpline( maxPointDistance, fitToleranceRho / 2, _controlPoints ) );
+    }
+
+
+    /**
+     * Draws the curve given by the given polar function (see {@link PolarFunctionLine}) from the given theta to the given theta, starting from the current
+     * position, and in the current rotation.  The curve's center is wherever that start puts it; if it's the table's center, the spans of the curve that
+     * are nearly arithmetic spirals are fitted with a single probe each.  The curve is sampled so that its chords are within half the fit tolerance of it.
+     *
+     * When a display list is recording, the function is recorded as a table of its rho at finely spaced thetas (see {@link SampledPolarFunction}), and the
+     * curve is drawn from that table, just as it will be when it's replayed.  Replaying with other settings samples the table again, with those settings.
+     *
+     * @param _function the polar function giving the curve's rho at each theta.
+     * @param _fromTheta the theta (in radians) at the start of the curve.
+     * @param _toTheta the theta (in radians) at the end of the curve.
+     */
+    public void drawPolar( final PolarFunction _function, final double _fromTheta, final double _toTheta ) {
+
+        PolarFunction function = _function;
+        if( displayList != null ) {
+            SampledPolarFunction sampled = new SampledPolarFunction( _function, _fromTheta, _toTheta, RECORDED_POLAR_INTERVAL );
+            displayList.op( DisplayList.DRAW_POLAR ).value( _fromTheta ).value( _toTheta ).values( sampled.getRhos() );
+            function = sampled;
+        }
+        drawLine( new PolarFunctionLine( maxPointDistance, fitToleranceRho / 2, function, _fromTheta, _toTheta ) );
+    }
+
+
     /**
      * Draws a circle at the current rho for the given number of revolutions.  If the number of orbits is positive, they will be
      * in a clockwise direction, otherwise counterclockwise.
@@ -348,10 +672,9 @@ public class DrawingContext {
      * @param _orbits the number of orbits to make.
      */
     public void orbit( final int _orbits ) {
+        if( displayList != null ) displayList.op( DisplayList.ORBIT ).value( _orbits );
         double theta = _orbits * 2 * PI;
-        Position np = new PolarPosition( currentPosition.getRho(), theta );
-        vertices.add( np );
-        currentPosition = np;
+        moveTo( new PolarPosition( currentPosition.getRho(), theta ) );
     }
 
 
@@ -359,9 +682,8 @@ public class DrawingContext {
      * Draws a straight line from the current position to the table center at the same theta as the current position.
      */
     public void home() {
-        Position np = new PolarPosition( 0, currentPosition.getTheta() );
-        vertices.add( np );
-        currentPosition = np;
+        if( displayList != null ) displayList.op( DisplayList.HOME );
+        moveTo( new PolarPosition( 0, currentPosition.getTheta() ) );
     }
 
 
@@ -369,9 +691,147 @@ public class DrawingContext {
      * Arc around the table center by the given angle.  The rho is not changed.
      */
     public void arcAroundTableCenter( final double _theta ) {
-        Position np = new PolarPosition( currentPosition.getRho(), currentPosition.getTheta() + _theta );
-        vertices.add( np );
-        currentPosition = np;
+        if( displayList != null ) displayList.op( DisplayList.ARC_AROUND_CENTER ).value( _theta );
+        moveTo( new PolarPosition( currentPosition.getRho(), currentPosition.getTheta() + _theta ) );
+    }
+
+
+    // moves directly (that is, with a single Sisyphus line) from the current position to the given position...
+    private void moveTo( final Position _position ) {
+
+        // if we have a budget, remember this move so it can be refitted...
+        if( runs != null )
+            runs.add( Arrays.asList( currentPosition, _position ) );
+
+        if( verifier != null )
+            verifier.addIntendedMove( currentPosition, _position );
+
+        addVertice( _position );
+        currentPosition = _position;
+    }
+
+
+    /**
+     * Appends the given vertices (in absolute table coordinates) to the track, each reached from the one before it by a Sisyphus line.  The first vertex
+     * should be at the current position; the thetas are shifted by whole turns so that the first one is in the same turn as the current position.  The
+     * current relative position is not changed.
+     *
+     * @param _vertices the vertices to append.
+     */
+    public void appendVertices( final List<Position> _vertices ) {
+        if( displayList != null ) displayList.op( DisplayList.APPEND_VERTICES ).vertices( _vertices );
+        append( _vertices );
+    }
+
+
+    private void append( final List<Position> _vertices ) {
+
+        if( _vertices.isEmpty() )
+            return;
+
+        int turns = (int) round( (currentPosition.getTheta() - _vertices.get( 0 ).getTheta()) / (2 * PI) );
+        for( int i = 1; i < _vertices.size(); i++ ) {
+            Position vertice = _vertices.get( i );
+            if( turns != 0 )
+                vertice = new PolarPosition( vertice.getRho(), vertice.getTheta() + turns * 2 * PI );
+            if( mute )
+                currentPosition = vertice;
+            else
+                moveTo( vertice );
+        }
+    }
+
+
+    // draws the given figure starting at the given point (relative to the current position, in the current rotation), returning the runs of sampled
+    // points it drew (in absolute table coordinates), without fitting them; nothing about this drawing context is changed.  Each run must start where
+    // the one before it ended (the first at the entry), as that's how the runs are drawn again (and reversed); a figure that moves without drawing (say,
+    // by muting) breaks that, so it's rejected...
+    /* package */ List<List<Position>> record( final Point _entry, final Figure _figure ) {
+
+        // save our state...
+        List<Position> savedVertices = vertices;
+        Position savedPosition = currentPosition;
+        Point savedRelativePosition = currentRelativePosition;
+        double savedRotation = currentRotation;
+        List<List<Position>> savedRuns = runs;
+        TraceIndex savedTraceIndex = traceIndex;
+        TraceGraph savedTraceGraph = traceGraph;
+        boolean savedMute = mute;
+        DisplayList savedDisplayList = displayList;
+        FidelityVerifier savedVerifier = verifier;
+
+        // draw the figure, all by itself...
+        Point abEntry = _entry.abs( this );
+        currentPosition = currentPosition.fromDeltaXY( abEntry.x - currentPosition.getX(), abEntry.y - currentPosition.getY() );
+        currentRelativePosition = currentRelativePosition.sum( _entry );
+        vertices = new ArrayList<>();
+        vertices.add( currentPosition );
+        runs = new ArrayList<>();
+        traceIndex = null;
+        traceGraph = null;
+        mute = false;
+        displayList = null;
+        verifier = null;
+        recording = true;
+        try {
+            Position entry = currentPosition;
+            _figure.draw();
+
+            // sanity check...
+            Position end = entry;
+            for( List<Position> run : runs ) {
+                if( run.get( 0 ) != end )
+                    throw new IllegalStateException( "Figure moved without drawing (was it muted?) from " + end + " to " + run.get( 0 ) );
+                end = run.get( run.size() - 1 );
+            }
+            return runs;
+        }
+        finally {
+
+            // restore our state, even if the figure blew up...
+            vertices = savedVertices;
+            currentPosition = savedPosition;
+            currentRelativePosition = savedRelativePosition;
+            currentRotation = savedRotation;
+            runs = savedRuns;
+            traceIndex = savedTraceIndex;
+            traceGraph = savedTraceGraph;
+            mute = savedMute;
+            displayList = savedDisplayList;
+            verifier = savedVerifier;
+            recording = false;
+        }
+    }
+
+
+    // draws a line through the given sampled points (in absolute table coordinates), as recorded for a figure; the thetas are shifted by whole turns so
+    // that the first point is in the same turn as the current position, where it should be (each run starts where the one before it ended)...
+    /* package */ void drawRun( final List<Position> _points ) {
+
+        if( displayList != null ) displayList.op( DisplayList.DRAW_RUN ).vertices( _points );
+
+        int turns = (int) round( (currentPosition.getTheta() - _points.get( 0 ).getTheta()) / (2 * PI) );
+        List<Position> points = new ArrayList<>( _points.size() );
+        points.add( currentPosition );
+        for( int i = 1; i < _points.size(); i++ ) {
+            Position point = _points.get( i );
+            points.add( (turns == 0) ? point : new PolarPosition( point.getRho(), point.getTheta() + turns * 2 * PI ) );
+        }
+        currentPosition = points.get( points.size() - 1 );
+
+        if( !mute )
+            fit( points, null );
+    }
+
+
+    // adds the given vertice to those we've drawn...
+    private void addVertice( final Position _vertice ) {
+        vertices.add( _vertice );
+        finished = false;
+        if( traceIndex != null )
+            traceIndex.add( _vertice );
+        if( traceGraph != null )
+            traceGraph.add( _vertice );
     }
 
 
@@ -388,50 +848,91 @@ public class DrawingContext {
     // TODO: add log...
     public void write( final String _fileName ) throws IOException {
 
-        massage();
+        finish();
 
-        Position current = Position.CENTER;
-        StringBuilder out = new StringBuilder();
-        for( Position position : vertices ) {
-            emit( out, position );
+        // if we're verifying, check everything but the ending pair (which is just for safety) against what we intended...
+        if( verifier != null ) {
+            verifier.verify( vertices.subList( 0, vertices.size() - 2 ) );
+            Utils.log( verifier.toString( model ) );
         }
+
+        if( fitStrategy == FitStrategy.LOOKAHEAD )
+            Utils.log( "Lookahead fitting saved " + getFitSavings() + " vertices (" + fittedVertexCount + " instead of " + greedyVertexCount + ")" );
+
+        if( !fitDiagnostics.isEmpty() )
+            Utils.log( "Fitter had trouble " + fitDiagnostics.size() + " times; the first was " + fitDiagnostics.get( 0 ) );
+
         Path path = new File( _fileName ).toPath();
-        byte[] bytes = out.toString().getBytes();
+        byte[] bytes = render( vertices, quantizer ).getBytes();
         Files.write( path, bytes );
     }
 
 
+    // readies the vertices for rendering or writing, once (so the PNG shows just what's written): refitted to the budget, made safe, and quantized...
+    private void finish() {
+
+        if( finished )
+            return;
+
+        // if we have a budget, refit everything we've drawn to meet it...
+        if( budget != null )
+            vertices = budget.fit( budgetPrefix, runs, this );
+
+        massage( vertices );
+        traceGraph = null;
+
+        // if we're quantizing, snap everything to the model's step grid...
+        quantizer = null;
+        if( quantize ) {
+            quantizer = new StepQuantizer( model );
+            vertices = quantizer.quantize( vertices );
+            Utils.log( quantizer.toString() );
+        }
+        finished = true;
+    }
+
+
     // TODO: optimize by removing points along circle (esp. at rho == 1)...
     // do several things to make sure the .thr file is safe and optimal...
-    private void massage() {
+    /* package */ static void massage( final List<Position> _vertices ) {
 
         // add two identical entries, forcing the rho to be either 0 or 1 (whichever is closer)
         // learned from Bruce Shapiro that NOT doing this could introduce positioning errors...
-        Position last = vertices.get( vertices.size() - 1 );
+        Position last = _vertices.get( _vertices.size() - 1 );
         double endRho = (last.getRho() >= 0.5) ? 1 : 0;
         Position term = new PolarPosition( endRho, last.getTheta() );
-        vertices.add( term );
-        vertices.add( term );
+        _vertices.add( term );
+        _vertices.add( term );
 
         // clamp all vertice rho values to the range [0..1]...
-        for( int i = 0; i < vertices.size(); i++ ) {
+        for( int i = 0; i < _vertices.size(); i++ ) {
 
-            Position vertice = vertices.get( i );
+            Position vertice = _vertices.get( i );
             double clampedRho = max( 0, min( 1, vertice.getRho() ) );
             if( vertice.getRho() == clampedRho )
                 continue;
-            vertices.set( i, new PolarPosition( clampedRho, vertice.getTheta() ) );
+            _vertices.set( i, new PolarPosition( clampedRho, vertice.getTheta() ) );
         }
     }
 
 
-    private static final DecimalFormat THETA_FORMAT = new DecimalFormat( "#.########" );
-    private static final DecimalFormat RHO_FORMAT   = new DecimalFormat( "#.########" );
+    // returns the .thr file contents for the given vertices, formatted for the given quantizer's step grid (or at full precision if it's null)...
+    /* package */ String render( final List<Position> _vertices, final StepQuantizer _quantizer ) {
+
+        DecimalFormat theta = (_quantizer == null) ? thetaFormat : _quantizer.getThetaFormat();
+        DecimalFormat rho   = (_quantizer == null) ? rhoFormat   : _quantizer.getRhoFormat();
+        StringBuilder out = new StringBuilder();
+        for( Position position : _vertices ) {
+            emit( out, position, theta, rho );
+        }
+        return out.toString();
+    }
+
 
-    private void emit( final StringBuilder _out, final Position _vertice ) {
-        _out.append( THETA_FORMAT.format( _vertice.getTheta() ) );
+    private void emit( final StringBuilder _out, final Position _vertice, final DecimalFormat _thetaFormat, final DecimalFormat _rhoFormat ) {
+        _out.append( _thetaFormat.format( _vertice.getTheta() ) );
         _out.append( ' ' );
-        _out.append( RHO_FORMAT.format( _vertice.getRho() ) );
+        _out.append( _rhoFormat.format( _vertice.getRho() ) );
         _out.append( '\n' );
     }
 
@@ -440,6 +941,8 @@ public class DrawingContext {
 
     public void renderPNG( final String _fileName ) throws IOException {
 
+        finish();
+
         int width  = 1 + 2 * BORDER_WIDTH + 2 * pixelsPerRho;
         int height = 1 + 2 * BORDER_WIDTH + 2 * pixelsPerRho;
 
@@ -452,41 +955,28 @@ public class DrawingContext {
         g.fillOval( BORDER_WIDTH, BORDER_WIDTH, width - 2 * BORDER_WIDTH, height - 2 * BORDER_WIDTH );
         g.setColor( Color.BLACK );
 
-        // draw a spiral line for each path we have...
-        double cx = 0;
-        double cy = 0;
+        // draw each Sisyphus line, sampled just as the table moves along it (rho and theta changing in lockstep)...
+        double sampleSpacing = 10.0 / width;
         for( int i = 1; i < vertices.size(); i++ ) {
 
-            // get our from and to, and delta theta...
             Position fromPos = vertices.get( i - 1 );
             Position toPos = vertices.get( i );
-            Point from = Point.fromPosition( fromPos );
-            Point to   = Point.fromPosition( toPos );
+            double dRho = toPos.getRho() - fromPos.getRho();
             double dTheta = toPos.getTheta() - fromPos.getTheta();
 
-            // if the distance is zero and we don't have a full circle, just move to the next one...
-            if( (from.distanceFrom( to ) < 0.0001) && ((dTheta == 0) || ( abs( Utils.normalizeTheta( dTheta ) ) > 0.0001 ) ) ) continue;
-
-            // calculate our spiral's turns...
-            int t = Utils.getTurnsFromTheta( dTheta );
-
-            // figure out our center theta, if either the from or to points are at the center...
-            double centerTheta = 0;  // the default...
-            if( from.rho < 1E-10 ) centerTheta = Utils.normalizeTheta( from.theta );
-            if( to.rho < 1E-10 ) centerTheta = Utils.normalizeTheta( to.theta );
-
-            // draw a spiral line for each pair of points within the Sisyphus line...
-            Point center = Point.fromRT( from.rho, from.theta + PI );
-            Line line = new ArithmeticSpiral( 10.0/width, from.vectorTo( to ), center, centerTheta, t );
-            List<Delta> deltas = line.getDeltas();
-            int xFrom = pixelize( cx );
-            int yFrom = pixelize( -cy );
-            for( Delta delta : deltas ) {
-
-                cx += delta.x;
-                cy += delta.y;
-                int xTo = pixelize( cx );
-                int yTo = pixelize( -cy );
+            // figure out how many samples we need (this overestimates the line's length)...
+            double estLength = abs( dTheta ) * max( fromPos.getRho(), toPos.getRho() ) + abs( dRho );
+            int samples = max( 1, (int) ceil( estLength / sampleSpacing ) );
+
+            int xFrom = pixelize( fromPos.getX() );
+            int yFrom = pixelize( -fromPos.getY() );
+            for( int s = 1; s <= samples; s++ ) {
+
+                double f = 1.0 * s / samples;
+                double rho = fromPos.getRho() + f * dRho;
+                double theta = fromPos.getTheta() + f * dTheta;
+                int xTo = pixelize( rho * sin( theta ) );
+                int yTo = pixelize( -rho * cos( theta ) );
                 g.drawLine( xFrom, yFrom, xTo, yTo );
                 xFrom = xTo;
                 yFrom = yTo;
@@ -508,6 +998,18 @@ public class DrawingContext {
      * @param _line the line to draw.
      */
     public void draw( final Line _line ) {
+        if( displayList != null ) {
+            if( _line instanceof SpiralSpans )
+                displayList.op( DisplayList.DRAW_SPIRAL_SPANS ).line( _line ).spans( (SpiralSpans) _line );
+            else
+                displayList.op( DisplayList.DRAW ).line( _line );
+        }
+        drawLine( _line );
+    }
+
+
+    // draws the given line, without recording it...
+    private void drawLine( final Line _line ) {
 
         // first we use the deltas in the line, the current position, and the current transform to produce a series of actual table points...
         List<Delta> deltas = _line.getDeltas();
@@ -537,11 +1039,50 @@ public class DrawingContext {
         // update the current relative position...
         currentRelativePosition = currentRelativePosition.sum( Point.fromXY( cumDX, cumDY ) );
 
-        if( !mute ) {
-            SisyphusFitter fitter = new SisyphusFitter( points, this );
-            fitter.generateVertices();
-            vertices.addAll( fitter.getVertices() );
-        }
+        if( !mute )
+            fit( points, (_line instanceof SpiralSpans) ? spiralSpans( (SpiralSpans) _line, points.get( 0 ) ) : null );
+    }
+
+
+    // fits Sisyphus lines to the given sampled points (the first of which is the current position), using the given spiral spans as hints (or none, if
+    // null), and adds their vertices to what we've drawn...
+    private void fit( final List<Position> _points, final int[] _spiralSpans ) {
+
+        // if we have a budget (or we're recording a figure), remember these points so they can be refitted...
+        if( runs != null )
+            runs.add( _points );
+
+        if( recording )
+            return;
+
+        if( verifier != null )
+            verifier.addIntended( _points );
+
+        SisyphusFitter fitter = new SisyphusFitter( _points, this );
+        fitter.setStrategy( fitStrategy );
+        fitter.setSpiralSpans( _spiralSpans );
+        fitter.setHierarchical( hierarchicalFit );
+        fitter.setBoundPropagation( boundPropagation );
+        fitter.setKernelEnabled( kernelFit );
+        fitter.setCache( fitCache );
+        fitter.generateVertices();
+        for( Position vertice : fitter.getVertices() )
+            addVertice( vertice );
+        fitDiagnostics.addAll( fitter.getDiagnostics() );
+        greedyVertexCount += fitter.getGreedyVertexCount();
+        fittedVertexCount += fitter.getVertices().size();
+        fitPointTests += fitter.getPointTests();
+        fitCurveSearches += fitter.getCurveSearches();
+    }
+
+
+    // returns the given line's spiral spans if its spirals are centered on the table's center when it starts at the given position, or null otherwise...
+    private int[] spiralSpans( final SpiralSpans _line, final Position _start ) {
+        Point center = _line.getSpiralCenter();
+        double t = Utils.getTheta( center.x, center.y ) + currentRotation;
+        double x = _start.getX() + center.rho * sin( t );
+        double y = _start.getY() + center.rho * cos( t );
+        return (hypot( x, y ) < SPIRAL_CENTER_EPSILON) ? _line.getSpiralSpans() : null;
     }
 
 
@@ -549,6 +1090,7 @@ public class DrawingContext {
      * Sets the current relative position to x,y 0,0.
      */
     public void zeroCurrentRelativePosition() {
+        if( displayList != null ) displayList.op( DisplayList.ZERO_RELATIVE );
         currentRelativePosition = Point.fromXY( 0, 0 );
     }
 
@@ -559,6 +1101,7 @@ public class DrawingContext {
      * @param _position the new current relative position.
      */
     public void setCurrentRelativePosition( final Point _position ) {
+        if( displayList != null ) displayList.op( DisplayList.SET_RELATIVE ).point( _position );
         currentRelativePosition = _position;
     }
 
@@ -573,6 +1116,17 @@ public class DrawingContext {
     }
 
 
+    /**
+     * Sets the given vector to the current relative position, without allocating anything.
+     *
+     * @param _result the vector to set.
+     * @return the given vector.
+     */
+    public MutablePoint getCurrentRelativePosition( final MutablePoint _result ) {
+        return _result.set( currentRelativePosition );
+    }
+
+
     /**
      * Returns a vector from the current relative position to the given relative position.
      *
@@ -584,6 +1138,17 @@ public class DrawingContext {
     }
 
 
+    /**
+     * Changes the given relative position into the vector to it from the current relative position, without allocating anything.
+     *
+     * @param _destination the relative position to get a vector to, which is changed into that vector.
+     * @return the given vector.
+     */
+    public MutablePoint vectorTo( final MutablePoint _destination ) {
+        return _destination.addXY( -currentRelativePosition.x, -currentRelativePosition.y );
+    }
+
+
     /**
      * Returns a vector from the current relative position to the table's center.
      *
@@ -610,6 +1175,7 @@ public class DrawingContext {
      * @param _theta the angle to rotate the canvas to, in radians.
      */
     public void rotateTo( final double _theta ) {
+        if( displayList != null ) displayList.op( DisplayList.ROTATE_TO ).value( _theta );
         currentRotation = _theta;
     }
 
@@ -620,12 +1186,28 @@ public class DrawingContext {
      * @param _deltaTheta the angle to rotate the canvas by.
      */
     public void rotateBy( final double _deltaTheta ) {
+        if( displayList != null ) displayList.op( DisplayList.ROTATE_BY ).value( _deltaTheta );
         currentRotation += _deltaTheta;
     }
 
 
     public void clear() {
         vertices.clear();
+        finished = false;
+        fitDiagnostics.clear();
+        greedyVertexCount = 0;
+        fittedVertexCount = 0;
+        fitPointTests = 0;
+        fitCurveSearches = 0;
+        traceGraph = null;
+        if( traceIndex != null )
+            traceIndex.clear();
+        if( verifier != null )
+            verifier.clear();
+        if( budget != null ) {
+            budgetPrefix = new ArrayList<>();
+            runs = new ArrayList<>();
+        }
     }
 
 
@@ -651,6 +1233,7 @@ public class DrawingContext {
 
     public void setModel( final Model _model ) {
         model = _model;
+        fitToleranceRho = maxFitErrorMeters / model.tableRadiusMeters();
     }
 
 
@@ -661,6 +1244,7 @@ public class DrawingContext {
 
     public void setMaxFitErrorMeters( final double _maxFitErrorMeters ) {
         maxFitErrorMeters = _maxFitErrorMeters;
+        fitToleranceRho = maxFitErrorMeters / model.tableRadiusMeters();
     }
 
 
@@ -700,6 +1284,102 @@ public class DrawingContext {
     }
 
 
+    public FitStrategy getFitStrategy() {
+        return fitStrategy;
+    }
+
+
+    /**
+     * Sets the strategy used to fit Sisyphus lines to what's drawn.  The default is {@link FitStrategy#GREEDY}; {@link FitStrategy#LOOKAHEAD} takes
+     * several times as long, but may need fewer vertices (it's a heuristic, so it won't always find the fewest).
+     *
+     * @param _fitStrategy the fit strategy.
+     */
+    public void setFitStrategy( final FitStrategy _fitStrategy ) {
+        fitStrategy = _fitStrategy;
+    }
+
+
+    /**
+     * Returns the number of vertices the fit strategy has saved, compared with a greedy fit, for everything drawn since this drawing context was created or
+     * cleared.  This is always zero for a greedy fit, and never negative, as a lookahead fit is only used where it saves vertices.
+     *
+     * @return the number of vertices saved.
+     */
+    public int getFitSavings() {
+        return greedyVertexCount - fittedVertexCount;
+    }
+
+
+    /**
+     * Returns the number of times the fitter has tested a point against a line, fitting everything drawn so far.  Fits found in the fit cache cost none.
+     *
+     * @return the number of point tests.
+     */
+    public long getFitPointTests() {
+        return fitPointTests;
+    }
+
+
+    /**
+     * Returns the number of the fitter's point tests (see {@link #getFitPointTests()}) that searched a spiral line for the point closest to the point being
+     * tested.  These are the expensive ones, which bound propagation avoids.
+     *
+     * @return the number of closest point searches.
+     */
+    public long getFitCurveSearches() {
+        return fitCurveSearches;
+    }
+
+
+    public boolean isHierarchicalFit() {
+        return hierarchicalFit;
+    }
+
+
+    /**
+     * Sets whether lines are fitted hierarchically: searched for on a decimated subset of their points, then confirmed against all of them (see
+     * {@link SisyphusFitter}).  This tests far fewer points, with the same guarantee that every point fits.  The default is false.
+     *
+     * @param _hierarchicalFit true to fit hierarchically.
+     */
+    public void setHierarchicalFit( final boolean _hierarchicalFit ) {
+        hierarchicalFit = _hierarchicalFit;
+    }
+
+
+    public TolerancePolicy getTolerancePolicy() {
+        return tolerancePolicy;
+    }
+
+
+    /**
+     * Sets the policy that decides the fit tolerance at each point on the table, starting from this drawing context's fit tolerance.  The default is
+     * {@link TolerancePolicy#STEP_RESOLUTION}, which never fits more finely than the model's motors can position the ball.
+     *
+     * @param _tolerancePolicy the tolerance policy.
+     */
+    public void setTolerancePolicy( final TolerancePolicy _tolerancePolicy ) {
+        tolerancePolicy = _tolerancePolicy;
+    }
+
+
+    public EraseStrategy getEraseStrategy() {
+        return eraseStrategy;
+    }
+
+
+    /**
+     * Sets the strategy used to erase.  The default is {@link EraseStrategy#AUTO}, which picks the spiral or the zigzag, whichever has the shorter
+     * playback time for the current model of table.
+     *
+     * @param _eraseStrategy the erase strategy.
+     */
+    public void setEraseStrategy( final EraseStrategy _eraseStrategy ) {
+        eraseStrategy = _eraseStrategy;
+    }
+
+
     private static class TransformState {
         private double rotation;
         private Position translation;
@@ -711,11 +1391,194 @@ public class DrawingContext {
     }
 
 
+    public boolean isQuantize() {
+        return quantize;
+    }
+
+
+    /**
+     * Sets whether the vertices are snapped to the current model's step grid when the track is rendered or written.  Vertices that snap to the same steps
+     * as the vertex before them are dropped.
+     *
+     * @param _quantize true to quantize the vertices when rendering or writing.
+     */
+    public void setQuantize( final boolean _quantize ) {
+        quantize = _quantize;
+    }
+
+
+    /**
+     * Returns the quantizer used when the track was last rendered or written, from which the quantization error can be retrieved, or null if the track wasn't
+     * quantized.
+     *
+     * @return the quantizer used for the last write.
+     */
+    public StepQuantizer getQuantizer() {
+        return quantizer;
+    }
+
+
+    public TraceIndex getTraceIndex() {
+        return traceIndex;
+    }
+
+
+    /**
+     * Sets the index that everything traced by this drawing context is recorded in, or stops indexing if the given index is null.  Anything already drawn
+     * is added to the index immediately.
+     *
+     * @param _traceIndex the trace index, or null for none.
+     */
+    public void setTraceIndex( final TraceIndex _traceIndex ) {
+        traceIndex = _traceIndex;
+        if( traceIndex != null )
+            for( Position vertice : vertices )
+                traceIndex.add( vertice );
+    }
+
+
+    public boolean isVerify() {
+        return verifier != null;
+    }
+
+
+    /**
+     * Sets whether the track is verified against the intended path when it's written (see {@link FidelityVerifier}).  Verification must be turned on
+     * before any drawing is done, so that the whole intended path is recorded.
+     *
+     * @param _verify true to verify the track when writing.
+     */
+    public void setVerify( final boolean _verify ) {
+
+        // sanity check...
+        if( _verify && (vertices.size() > 2) )
+            throw new IllegalStateException( "Verification must be turned on before drawing" );
+
+        verifier = _verify ? new FidelityVerifier( fitToleranceRho ) : null;
+    }
+
+
+    /**
+     * Returns the verifier holding the results of the verification done when the track was last written, or null if the track isn't being verified.
+     *
+     * @return the verifier.
+     */
+    public FidelityVerifier getVerifier() {
+        return verifier;
+    }
+
+
+    // returns the vertices drawn so far...
+    /* package */ List<Position> getVertices() {
+        return Collections.unmodifiableList( vertices );
+    }
+
+
+    /**
+     * Returns the trouble the fitter has had with everything drawn since this drawing context was created or cleared.  The fitter never fails because
+     * of trouble; these just let a batch run find the lines that gave it trouble.
+     *
+     * @return the fit diagnostics.
+     */
+    public List<FitDiagnostic> getFitDiagnostics() {
+        return Collections.unmodifiableList( fitDiagnostics );
+    }
+
+
+    public VertexBudget getBudget() {
+        return budget;
+    }
+
+
+    /**
+     * Sets the vertex budget for this track, or removes it if the given budget is null.  With a budget set, this drawing context keeps the sampled points
+     * of everything drawn, and when the track is rendered or written everything is refitted at the tightest fit tolerance that meets the budget.  The
+     * budget must be set before any drawing is done.
+     *
+     * @param _budget the vertex budget, or null for no budget.
+     */
+    public void setBudget( final VertexBudget _budget ) {
+
+        // sanity check...
+        if( (_budget != null) && (vertices.size() > 2) )
+            throw new IllegalStateException( "Vertex budget must be set before drawing" );
+
+        budget = _budget;
+        budgetPrefix = (budget == null) ? null : new ArrayList<>( vertices );
+        runs = (budget == null) ? null : new ArrayList<>();
+    }
+
+
     public void setMute( final boolean _mute ) {
+        if( displayList != null ) displayList.op( DisplayList.SET_MUTE ).value( _mute ? 1 : 0 );
         mute = _mute;
     }
 
 
+    public DisplayList getDisplayList() {
+        return displayList;
+    }
+
+
+    /**
+     * Sets the display list to record this drawing context's drawing commands into, or null to stop recording.  Commands are recorded as they're given,
+     * so that the display list can replay them into other drawing contexts, with other settings (see {@link DisplayList}).
+     *
+     * @param _displayList the display list to record into, or null to stop recording.
+     */
+    public void setDisplayList( final DisplayList _displayList ) {
+        displayList = _displayList;
+    }
+
+
+    public boolean isBoundPropagation() {
+        return boundPropagation;
+    }
+
+
+    /**
+     * Sets whether the fitter tries to prove a point fits a spiral line from the spiral point that fit the point before it, before searching the spiral for
+     * the point closest to it (see {@link SisyphusFitter}).  On smooth lines this avoids most of those searches.  The default is false.
+     *
+     * @param _boundPropagation true to propagate bounds while fitting.
+     */
+    public void setBoundPropagation( final boolean _boundPropagation ) {
+        boundPropagation = _boundPropagation;
+    }
+
+
+    public boolean isKernelFit() {
+        return kernelFit;
+    }
+
+
+    /**
+     * Sets whether the fitter tests points, circles, and radials a block of points at a time with a {@link FitKernel}, or one point at a time (see
+     * {@link SisyphusFitter}).  Either way the fit is the same; the kernel is just faster.  The default is true.
+     *
+     * @param _kernelFit true to fit with the kernel.
+     */
+    public void setKernelFit( final boolean _kernelFit ) {
+        kernelFit = _kernelFit;
+    }
+
+
+    public FitCache getFitCache() {
+        return fitCache;
+    }
+
+
+    /**
+     * Sets the cache of fits that this drawing context looks in before fitting what it draws, or null for no cache.  Drawing contexts start out with the
+     * default cache (see {@link FitCache#setDefault(FitCache)}), if there is one.
+     *
+     * @param _fitCache the fit cache.
+     */
+    public void setFitCache( final FitCache _fitCache ) {
+        fitCache = _fitCache;
+    }
+
+
     public double getCurrentRotation() {
         return currentRotation;
     }
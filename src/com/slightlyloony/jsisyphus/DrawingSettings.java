@@ -0,0 +1,142 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.models.Model;
+
+/**
+ * Instances of this class hold the settings a drawing context draws with: the model of table, the fit and sampling tolerances, the PNG size, and how
+ * erasing and fitting are done.  Each "with" method returns a copy with one setting changed, so a single instance can be built once and shared by all the
+ * drawing contexts (or tracks) being built at once, on whatever threads.  A drawing context copies the settings it's given; changing a drawing context's
+ * settings afterwards doesn't affect the instance it was made with.
+ *
+ * Instances of this class are immutable and threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class DrawingSettings {
+
+    /**
+     * The settings a drawing context has unless it's told otherwise.
+     */
+    public static final DrawingSettings DEFAULT = new DrawingSettings( Model.GENERIC, 0.0005, 0.01, 500, 0.004, EraseStrategy.AUTO, FitStrategy.GREEDY,
+            TolerancePolicy.STEP_RESOLUTION );
+
+    private final Model model;
+    private final double maxFitErrorMeters;
+    private final double maxPointDistance;   // in rho units; the default is approximately 2mm on an A16 table...
+    private final int pixelsPerRho;          // effectively the radius of the PNG in pixels...
+    private final double eraseSpacing;       // the erase spiral radial spacing in meters...
+    private final EraseStrategy eraseStrategy;
+    private final FitStrategy fitStrategy;
+    private final TolerancePolicy tolerancePolicy;
+
+
+    /* package */ DrawingSettings( final Model _model, final double _maxFitErrorMeters, final double _maxPointDistance, final int _pixelsPerRho,
+                                   final double _eraseSpacing, final EraseStrategy _eraseStrategy, final FitStrategy _fitStrategy,
+                                   final TolerancePolicy _tolerancePolicy ) {
+
+        // sanity check...
+        if( (_model == null) || (_eraseStrategy == null) || (_fitStrategy == null) || (_tolerancePolicy == null) )
+            throw new IllegalArgumentException( "Missing drawing setting" );
+        if( (_maxFitErrorMeters <= 0) || (_maxPointDistance <= 0) || (_pixelsPerRho < 1) || (_eraseSpacing <= 0) )
+            throw new IllegalArgumentException( "Invalid drawing setting" );
+
+        model = _model;
+        maxFitErrorMeters = _maxFitErrorMeters;
+        maxPointDistance = _maxPointDistance;
+        pixelsPerRho = _pixelsPerRho;
+        eraseSpacing = _eraseSpacing;
+        eraseStrategy = _eraseStrategy;
+        fitStrategy = _fitStrategy;
+        tolerancePolicy = _tolerancePolicy;
+    }
+
+
+    public DrawingSettings withModel( final Model _model ) {
+        return new DrawingSettings( _model, maxFitErrorMeters, maxPointDistance, pixelsPerRho, eraseSpacing, eraseStrategy, fitStrategy, tolerancePolicy );
+    }
+
+
+    public DrawingSettings withMaxFitErrorMeters( final double _maxFitErrorMeters ) {
+        return new DrawingSettings( model, _maxFitErrorMeters, maxPointDistance, pixelsPerRho, eraseSpacing, eraseStrategy, fitStrategy, tolerancePolicy );
+    }
+
+
+    public DrawingSettings withMaxPointDistance( final double _maxPointDistance ) {
+        return new DrawingSettings( model, maxFitErrorMeters, _maxPointDistance, pixelsPerRho, eraseSpacing, eraseStrategy, fitStrategy, tolerancePolicy );
+    }
+
+
+    public DrawingSettings withPixelsPerRho( final int _pixelsPerRho ) {
+        return new DrawingSettings( model, maxFitErrorMeters, maxPointDistance, _pixelsPerRho, eraseSpacing, eraseStrategy, fitStrategy, tolerancePolicy );
+    }
+
+
+    public DrawingSettings withEraseSpacing( final double _eraseSpacing ) {
+        return new DrawingSettings( model, maxFitErrorMeters, maxPointDistance, pixelsPerRho, _eraseSpacing, eraseStrategy, fitStrategy, tolerancePolicy );
+    }
+
+
+    public DrawingSettings withEraseStrategy( final EraseStrategy _eraseStrategy ) {
+        return new DrawingSettings( model, maxFitErrorMeters, maxPointDistance, pixelsPerRho, eraseSpacing, _eraseStrategy, fitStrategy, tolerancePolicy );
+    }
+
+
+    public DrawingSettings withFitStrategy( final FitStrategy _fitStrategy ) {
+        return new DrawingSettings( model, maxFitErrorMeters, maxPointDistance, pixelsPerRho, eraseSpacing, eraseStrategy, _fitStrategy, tolerancePolicy );
+    }
+
+
+    public DrawingSettings withTolerancePolicy( final TolerancePolicy _tolerancePolicy ) {
+        return new DrawingSettings( model, maxFitErrorMeters, maxPointDistance, pixelsPerRho, eraseSpacing, eraseStrategy, fitStrategy, _tolerancePolicy );
+    }
+
+
+    public Model getModel() {
+        return model;
+    }
+
+
+    public double getMaxFitErrorMeters() {
+        return maxFitErrorMeters;
+    }
+
+
+    /**
+     * Returns the fit tolerance in rho units, which is the maximum fit error scaled to the model's table.
+     *
+     * @return the fit tolerance, in rho units.
+     */
+    public double getFitToleranceRho() {
+        return maxFitErrorMeters / model.tableRadiusMeters();
+    }
+
+
+    public double getMaxPointDistance() {
+        return maxPointDistance;
+    }
+
+
+    public int getPixelsPerRho() {
+        return pixelsPerRho;
+    }
+
+
+    public double getEraseSpacing() {
+        return eraseSpacing;
+    }
+
+
+    public EraseStrategy getEraseStrategy() {
+        return eraseStrategy;
+    }
+
+
+    public FitStrategy getFitStrategy() {
+        return fitStrategy;
+    }
+
+
+    public TolerancePolicy getTolerancePolicy() {
+        return tolerancePolicy;
+    }
+}
@@ -0,0 +1,222 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.lines.ArithmeticSpiral;
+import com.slightlyloony.jsisyphus.models.Model;
+import com.slightlyloony.jsisyphus.positions.PolarPosition;
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.slightlyloony.jsisyphus.Utils.log;
+import static java.lang.Math.*;
+
+/**
+ * Instances of this class plan the erasure of an annulus of the table, from the current position to an end point at a different rho, using one of
+ * several strategies.  Each strategy ends at the same place the erase spiral would have, and keeps its lines no further apart than the erase spacing.
+ * Each also sweeps the same total angle as the spiral, so the table ends up wound the same way (which whatever is drawn after the erasure depends on).
+ * The plans are made directly as Sisyphus table vertices, since every strategy is built entirely from Sisyphus lines (arithmetic spirals about the
+ * table's center):
+ *
+ * SPIRAL: a single arithmetic spiral from start to end, one vertex per turn.
+ *
+ * ZIGZAG: strokes back and forth between the starting and ending rho, each advancing theta just enough to keep the strokes' mouths at the outer rho no
+ * wider than the erase spacing.  The strokes go around the table once (plus whatever it takes to end at the right theta), and any further turns the spiral
+ * would have made are made as circles at the ending rho.
+ *
+ * RINGS: a complete circle at each rho (the erase spacing apart), with a radial step from each circle to the next.
+ *
+ * For the AUTO strategy, the spiral and the zigzag are planned and the one with the shortest playback time (for the given model of table) is chosen.
+ * The rings are never considered: the table drives rho and theta at once, so each circle takes at least as long as a turn of the spiral, and the radial
+ * steps come on top of that.  Rings are only drawn when they're asked for, for the way they look.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class ErasePlanner {
+
+    private static final int LOG_LEVEL = 1;  // [0..2], with higher numbers meaning more detailed logging...
+
+    private final Model model;
+    private final double spacingMeters;
+    private EraseStrategy chosen;
+    private double seconds;
+
+
+    /**
+     * Creates a new instance of this class that plans erasures for the given model of table, with lines no further apart than the given spacing.
+     *
+     * @param _model the model of Sisyphus table.
+     * @param _spacingMeters the maximum spacing between erase lines, in meters.
+     */
+    public ErasePlanner( final Model _model, final double _spacingMeters ) {
+        model = _model;
+        spacingMeters = _spacingMeters;
+    }
+
+
+    /**
+     * Returns the vertices (starting with the given start position) of an erasure from the given start position to the given end point, using the given
+     * strategy.  The erasure ends where an arithmetic spiral (about the table's center) with the given number of turns would.
+     *
+     * @param _start the position to start erasing from.
+     * @param _end the end point of the erasure, relative to the start position (in absolute table coordinates).
+     * @param _turns the number of complete turns (positive for clockwise, negative for anti-clockwise) for a spiral erasure.
+     * @param _strategy the strategy to use.
+     * @return the vertices of the erasure.
+     */
+    public List<Position> plan( final Position _start, final Point _end, final int _turns, final EraseStrategy _strategy ) {
+
+        // figure out the angle we're going to sweep, just as the spiral would...
+        ArithmeticSpiral.SpiralSpec spec = new ArithmeticSpiral.SpiralSpec( _end, Point.fromXY( -_start.getX(), -_start.getY() ), 0, _turns );
+        double endRho = spec.geteRho();
+
+        // the spiral's starting theta is arbitrary if we're starting at the center, so we may need to sweep a bit more (or less) to end at the right place...
+        double startCorrection = spec.getsTheta() - _start.getTheta();
+        startCorrection -= 2 * PI * round( startCorrection / (2 * PI) );
+        double sweep = spec.getdTheta() + startCorrection;
+
+        // if we have a particular strategy, there's not much to do...
+        if( _strategy != EraseStrategy.AUTO ) {
+            List<Position> result = plan( _start, endRho, sweep, abs( _turns ), _strategy );
+            if( result == null ) {
+                if( logLevel( 1 ) )
+                    log( "Can't erase with " + _strategy + " strategy; using SPIRAL" );
+                return plan( _start, _end, _turns, EraseStrategy.SPIRAL );
+            }
+            chosen = _strategy;
+            seconds = PlaybackTime.seconds( model, result );
+            return result;
+        }
+
+        // otherwise, try the ones that might be quickest, and pick the quickest...
+        List<Position> best = null;
+        StringBuilder times = new StringBuilder();
+        for( EraseStrategy strategy : EraseStrategy.values() ) {
+
+            // rings never beat the spiral, so there's no point in planning them...
+            if( (strategy == EraseStrategy.AUTO) || (strategy == EraseStrategy.RINGS) ) continue;
+            List<Position> trial = plan( _start, endRho, sweep, abs( _turns ), strategy );
+            if( trial == null ) continue;
+
+            double trialSeconds = PlaybackTime.seconds( model, trial );
+            times.append( ", " ).append( strategy ).append( ' ' ).append( round( trialSeconds ) ).append( 's' );
+            if( (best == null) || (trialSeconds < seconds) ) {
+                best = trial;
+                chosen = strategy;
+                seconds = trialSeconds;
+            }
+        }
+        if( logLevel( 2 ) )
+            log( "Erasing with " + chosen + " strategy" + times );
+        return best;
+    }
+
+
+    // returns the plan for the given strategy, or null if the strategy can't erase this annulus...
+    private List<Position> plan( final Position _start, final double _endRho, final double _sweep, final int _rings, final EraseStrategy _strategy ) {
+        switch( _strategy ) {
+            case SPIRAL: return spiral( _start, _endRho, _sweep );
+            case ZIGZAG: return zigzag( _start, _endRho, _sweep );
+            case RINGS:  return rings( _start, _endRho, _sweep, _rings );
+            default:     throw new IllegalArgumentException( "Can't plan erase strategy " + _strategy );
+        }
+    }
+
+
+    // a single spiral, with a vertex at each turn...
+    private List<Position> spiral( final Position _start, final double _endRho, final double _sweep ) {
+
+        int vertices = max( 1, (int) ceil( abs( _sweep ) / (2 * PI) ) );
+        double dRho = _endRho - _start.getRho();
+        List<Position> result = new ArrayList<>( vertices + 1 );
+        result.add( _start );
+        for( int i = 1; i <= vertices; i++ ) {
+            double f = 1.0 * i / vertices;
+            result.add( new PolarPosition( _start.getRho() + f * dRho, _start.getTheta() + f * _sweep ) );
+        }
+        return result;
+    }
+
+
+    // strokes between the starting and ending rho, an odd number of them so that we end at the ending rho...
+    private List<Position> zigzag( final Position _start, final double _endRho, final double _sweep ) {
+
+        // we can't zigzag if there's nowhere to zigzag to...
+        double maxRho = max( _start.getRho(), _endRho );
+        if( (abs( _endRho - _start.getRho() ) < 1.0E-10) || (abs( _sweep ) < 1.0E-10) )
+            return null;
+
+        // one sweep around the table is all the strokes need, so leave any whole turns beyond that for the end...
+        double wholeTurns = max( 0, floor( abs( _sweep ) / (2 * PI) ) - 1 );
+        double sweep = _sweep - signum( _sweep ) * wholeTurns * 2 * PI;
+
+        // each pair of strokes makes a "V" whose mouth must be no wider than the spacing...
+        double strokeTheta = spacingMeters / (2 * maxRho * model.tableRadiusMeters());
+        int strokes = (int) ceil( abs( sweep ) / strokeTheta );
+        if( (strokes & 1) == 0 ) strokes++;
+
+        List<Position> result = new ArrayList<>( strokes + 2 );
+        result.add( _start );
+        for( int i = 1; i <= strokes; i++ ) {
+            double rho = ((i & 1) == 1) ? _endRho : _start.getRho();
+            result.add( new PolarPosition( rho, _start.getTheta() + sweep * i / strokes ) );
+        }
+
+        // then make the turns we dropped, so that the table is wound just as the spiral would have left it...
+        if( wholeTurns > 0 )
+            result.add( new PolarPosition( _endRho, _start.getTheta() + _sweep ) );
+        return result;
+    }
+
+
+    // complete circles at evenly spaced rhos, each joined to the next by a radial step...
+    private List<Position> rings( final Position _start, final double _endRho, final double _sweep, final int _rings ) {
+
+        // if we have no rings, we just have the spiral...
+        if( _rings == 0 )
+            return spiral( _start, _endRho, _sweep );
+
+        double direction = (_sweep < 0) ? -1 : 1;
+        double dRho = _endRho - _start.getRho();
+        List<Position> result = new ArrayList<>( 2 * _rings + 2 );
+        result.add( _start );
+        double theta = _start.getTheta();
+        for( int i = 0; i < _rings; i++ ) {
+            theta += direction * 2 * PI;
+            result.add( new PolarPosition( _start.getRho() + dRho * i / _rings, theta ) );
+            if( i < _rings - 1 )
+                result.add( new PolarPosition( _start.getRho() + dRho * (i + 1) / _rings, theta ) );
+        }
+
+        // the last step goes straight to the end...
+        result.add( new PolarPosition( _endRho, _start.getTheta() + _sweep ) );
+        return result;
+    }
+
+
+    /**
+     * Returns the strategy used by the last plan (which, for the AUTO strategy, is the one that was chosen).
+     *
+     * @return the strategy used by the last plan.
+     */
+    public EraseStrategy getChosen() {
+        return chosen;
+    }
+
+
+    /**
+     * Returns the estimated playback time (in seconds) of the last plan.
+     *
+     * @return the estimated playback time of the last plan, in seconds.
+     */
+    public double getSeconds() {
+        return seconds;
+    }
+
+
+    private boolean logLevel( final int _level ) {
+        return _level <= LOG_LEVEL;
+    }
+}
@@ -0,0 +1,14 @@
+package com.slightlyloony.jsisyphus;
+
+/**
+ * Enumerates the ways an {@link ErasePlanner} can erase an annulus of the table.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public enum EraseStrategy {
+
+    AUTO,     // whichever of the spiral and the zigzag has the shortest playback time...
+    SPIRAL,   // a single arithmetic spiral, one turn per erase spacing...
+    ZIGZAG,   // radial strokes back and forth across the annulus...
+    RINGS     // concentric circles, joined by radial steps (never quicker than the spiral, so only used when asked for)...
+}
@@ -0,0 +1,268 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.models.Model;
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.Math.*;
+
+/**
+ * Instances of this class verify that a finished track actually follows the path that was intended.  The drawing context records the intended path as
+ * it's drawn: the sampled points of every line, and the Sisyphus line of every move made directly.  Verification samples the Sisyphus line between each
+ * pair of vertices in the finished track (after it's been massaged, refitted, quantized, or whatever else has been done to it), and measures how far each
+ * sample is from the intended path.  The maximum and 99th percentile of those deviations are computed for each line, and for the whole track.  The
+ * deviation the other way around (how far the intended path is from the track) is measured too, so that the Hausdorff distance between the two can be
+ * reported; that catches any part of the intended path the track skipped.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class FidelityVerifier {
+
+    private static final double CELL_SIZE = 0.01;  // in rho units, about the spacing of the points in a line...
+
+    private final double sampleSpacing;
+    private final double chordError;             // how far a straight line between indexed points may stray from the line it stands in for...
+    private final List<double[]> intendedLines;  // each holds x, y pairs...
+    private PolylineIndex intended;
+
+    private double[] segmentMaxErrors;
+    private double[] segmentP99Errors;
+    private double maxError;
+    private double p99Error;
+    private double hausdorff;
+    private int worstSegment;
+
+
+    /**
+     * Creates a new instance of this class that samples lines at the given spacing.
+     *
+     * @param _sampleSpacing the distance (in rho units) between samples along the lines.
+     */
+    public FidelityVerifier( final double _sampleSpacing ) {
+        sampleSpacing = _sampleSpacing;
+        chordError = _sampleSpacing / 10;
+        intendedLines = new ArrayList<>();
+        intended = new PolylineIndex( CELL_SIZE );
+    }
+
+
+    /**
+     * Adds the given points, in order, to the intended path.
+     *
+     * @param _points the points along the intended path.
+     */
+    public void addIntended( final List<Position> _points ) {
+        double[] line = new double[2 * _points.size()];
+        for( int i = 0; i < _points.size(); i++ ) {
+            line[2 * i] = _points.get( i ).getX();
+            line[2 * i + 1] = _points.get( i ).getY();
+        }
+        addLine( line );
+    }
+
+
+    /**
+     * Adds the Sisyphus line between the given vertices to the intended path.
+     *
+     * @param _from the vertex the line starts at.
+     * @param _to the vertex the line ends at.
+     */
+    public void addIntendedMove( final Position _from, final Position _to ) {
+        addLine( sample( _from, _to, false ) );
+    }
+
+
+    // adds the given line (x, y pairs) to the intended path...
+    private void addLine( final double[] _line ) {
+        for( int i = 0; i < _line.length; i += 2 )
+            intended.add( _line[i], _line[i + 1] );
+        intended.breakLine();
+        intendedLines.add( _line );
+    }
+
+
+    /**
+     * Removes everything from the intended path.
+     */
+    public void clear() {
+        intendedLines.clear();
+        intended = new PolylineIndex( CELL_SIZE );
+    }
+
+
+    /**
+     * Verifies the Sisyphus lines between the given vertices against the intended path.
+     *
+     * @param _vertices the vertices of the track to verify.
+     */
+    public void verify( final List<Position> _vertices ) {
+
+        int segments = max( 0, _vertices.size() - 1 );
+        segmentMaxErrors = new double[segments];
+        segmentP99Errors = new double[segments];
+        maxError = 0;
+        worstSegment = -1;
+
+        // sample the track, measuring each sample's distance from the intended path...
+        PolylineIndex track = new PolylineIndex( CELL_SIZE );
+        double[] all = new double[1024];
+        int allCount = 0;
+        for( int s = 0; s < segments; s++ ) {
+
+            double[] samples = sample( _vertices.get( s ), _vertices.get( s + 1 ), true );
+            double[] errors = new double[samples.length / 2];
+            for( int i = 0; i < errors.length; i++ )
+                errors[i] = intended.nearest( samples[2 * i], samples[2 * i + 1] );
+
+            // index the track with just as many points as it takes to follow it closely...
+            double[] outline = sample( _vertices.get( s ), _vertices.get( s + 1 ), false );
+            for( int i = 0; i < outline.length; i += 2 )
+                track.add( outline[i], outline[i + 1] );
+
+            Arrays.sort( errors );
+            segmentMaxErrors[s] = errors[errors.length - 1];
+            segmentP99Errors[s] = percentile( errors, errors.length, 0.99 );
+            if( segmentMaxErrors[s] > maxError ) {
+                maxError = segmentMaxErrors[s];
+                worstSegment = s;
+            }
+
+            // save the errors for the track's percentile...
+            if( allCount + errors.length > all.length )
+                all = Arrays.copyOf( all, max( 2 * all.length, allCount + errors.length ) );
+            System.arraycopy( errors, 0, all, allCount, errors.length );
+            allCount += errors.length;
+        }
+        Arrays.sort( all, 0, allCount );
+        p99Error = percentile( all, allCount, 0.99 );
+
+        // now the other way around, to get the Hausdorff distance...
+        hausdorff = maxError;
+        for( double[] line : intendedLines ) {
+            for( int i = 0; i < line.length; i += 2 ) {
+                hausdorff = max( hausdorff, track.nearest( line[i], line[i + 1] ) );
+
+                // check in between the points, too...
+                if( i + 3 < line.length ) {
+                    double dx = line[i + 2] - line[i];
+                    double dy = line[i + 3] - line[i + 1];
+                    int steps = (int) ceil( hypot( dx, dy ) / sampleSpacing );
+                    for( int j = 1; j < steps; j++ )
+                        hausdorff = max( hausdorff, track.nearest( line[i] + dx * j / steps, line[i + 1] + dy * j / steps ) );
+                }
+            }
+        }
+    }
+
+
+    // returns x, y pairs sampled along the Sisyphus line between the given vertices (including both of them); if dense, the samples are no further apart
+    // than the sample spacing, otherwise they're just close enough that straight lines between them never stray further than the chord error...
+    private double[] sample( final Position _from, final Position _to, final boolean _dense ) {
+
+        double dRho = _to.getRho() - _from.getRho();
+        double dTheta = _to.getTheta() - _from.getTheta();
+        double maxRho = max( _from.getRho(), _to.getRho() );
+        int samples;
+        if( _dense )
+            samples = (int) ceil( (abs( dTheta ) * maxRho + abs( dRho )) / sampleSpacing );
+        else
+            samples = (int) ceil( abs( dTheta ) / sqrt( 8 * chordError / max( maxRho, chordError ) ) );
+        samples = max( 1, samples );
+        double[] result = new double[2 * (samples + 1)];
+        for( int i = 0; i <= samples; i++ ) {
+            double f = 1.0 * i / samples;
+            double rho = _from.getRho() + f * dRho;
+            double theta = _from.getTheta() + f * dTheta;
+            result[2 * i] = rho * sin( theta );
+            result[2 * i + 1] = rho * cos( theta );
+        }
+        return result;
+    }
+
+
+    // returns the given percentile of the given sorted values...
+    private double percentile( final double[] _sorted, final int _count, final double _percentile ) {
+        if( _count == 0 ) return 0;
+        return _sorted[max( 0, (int) ceil( _percentile * _count ) - 1 )];
+    }
+
+
+    /**
+     * Returns the largest deviation (in rho units) of each line in the last verified track from the intended path.
+     *
+     * @return the maximum deviation of each line.
+     */
+    public double[] getSegmentMaxErrors() {
+        return segmentMaxErrors;
+    }
+
+
+    /**
+     * Returns the 99th percentile deviation (in rho units) of each line in the last verified track from the intended path.
+     *
+     * @return the 99th percentile deviation of each line.
+     */
+    public double[] getSegmentP99Errors() {
+        return segmentP99Errors;
+    }
+
+
+    /**
+     * Returns the largest deviation (in rho units) of the last verified track from the intended path.
+     *
+     * @return the maximum deviation of the track.
+     */
+    public double getMaxError() {
+        return maxError;
+    }
+
+
+    /**
+     * Returns the 99th percentile deviation (in rho units) of the last verified track from the intended path.
+     *
+     * @return the 99th percentile deviation of the track.
+     */
+    public double getP99Error() {
+        return p99Error;
+    }
+
+
+    /**
+     * Returns the Hausdorff distance (in rho units) between the last verified track and the intended path; that is, the larger of the greatest distance
+     * from the track to the intended path, and the greatest distance from the intended path to the track.
+     *
+     * @return the Hausdorff distance.
+     */
+    public double getHausdorff() {
+        return hausdorff;
+    }
+
+
+    /**
+     * Returns the index of the line in the last verified track with the largest deviation (line n is from vertex n to vertex n+1), or -1 if there were no
+     * lines.
+     *
+     * @return the index of the worst line.
+     */
+    public int getWorstSegment() {
+        return worstSegment;
+    }
+
+
+    /**
+     * Returns a summary of the last verification, with distances in millimeters for the given model of table.
+     *
+     * @param _model the model of Sisyphus table.
+     * @return the summary.
+     */
+    public String toString( final Model _model ) {
+        double mm = 1000 * _model.tableRadiusMeters();
+        return "Verified " + ((segmentMaxErrors == null) ? 0 : segmentMaxErrors.length) + " lines: max error " + (mm * maxError) + "mm (line " +
+                worstSegment + "), 99th percentile " + (mm * p99Error) + "mm, Hausdorff " + (mm * hausdorff) + "mm";
+    }
+}
@@ -0,0 +1,17 @@
+package com.slightlyloony.jsisyphus;
+
+/**
+ * Implemented by classes (or lambdas) that draw an independent sub-figure of a track, such as one of the trees in a forest.  A figure draws, relative to
+ * wherever the ball is when it's called, using the drawing context it was handed to a {@link FigurePlanner} with.  A figure must be one continuous line:
+ * it may not move without drawing (by muting the drawing context, say), as the planner draws it again (perhaps backwards) as the lines it drew, end to end.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public interface Figure {
+
+
+    /**
+     * Draws this figure, starting at the current position.
+     */
+    void draw();
+}
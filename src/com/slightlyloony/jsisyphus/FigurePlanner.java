@@ -0,0 +1,324 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.positions.PolarPosition;
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.slightlyloony.jsisyphus.Utils.log;
+
+/**
+ * Instances of this class decide what order to draw a set of independent figures in, so that the travel between them takes as little time as possible.
+ * Each figure is drawn (recorded) as soon as it's added, starting from its entry point, and where it ends up is its exit point.  A figure that may be
+ * drawn backwards (from its exit to its entry) is reversible.  When the figures are drawn, the planner picks the order (and direction, for reversible
+ * figures) that minimizes the time spent traveling from one figure to the next, then travels and draws them in that order.  Figures are recorded as the
+ * runs of points their lines were sampled at, not as fitted vertices, so they're fitted only when they're drawn: with the drawing context's settings,
+ * subject to its vertex budget, and recorded by its display list as points to be fitted again on replay.
+ *
+ * The cost of traveling from one figure to the next is the playback time of a direct move from the exit of one to the entry of the other, for the drawing
+ * context's model of table.  The order is found with the usual heuristics for this sort of traveling salesman problem: a greedy nearest neighbor tour,
+ * improved by 2-opt (reversing a run of figures) and Or-opt (moving a run of up to three figures elsewhere) until neither finds an improvement.  That's
+ * fast enough for a few hundred figures.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class FigurePlanner {
+
+    private static final int MAX_OR_OPT_RUN = 3;
+
+    private final DrawingContext dc;
+    private final List<Recorded> figures;
+    private double travelSeconds;
+
+
+    /**
+     * Creates a new instance of this class that plans figures for the given drawing context.
+     *
+     * @param _dc the drawing context to draw the figures in.
+     */
+    public FigurePlanner( final DrawingContext _dc ) {
+        dc = _dc;
+        figures = new ArrayList<>();
+    }
+
+
+    /**
+     * Adds the given reversible figure, which starts at the given entry point.
+     *
+     * @param _entry the figure's entry point, relative to the current position and in the current rotation.
+     * @param _figure the figure to draw.
+     */
+    public void add( final Point _entry, final Figure _figure ) {
+        add( _entry, true, _figure );
+    }
+
+
+    /**
+     * Adds the given figure, which starts at the given entry point.  The figure is recorded immediately, in the current rotation.
+     *
+     * @param _entry the figure's entry point, relative to the current position and in the current rotation.
+     * @param _reversible true if the figure may be drawn backwards.
+     * @param _figure the figure to draw.
+     * @throws IllegalStateException if the figure moved without drawing.
+     */
+    public void add( final Point _entry, final boolean _reversible, final Figure _figure ) {
+
+        List<List<Position>> runs = dc.record( _entry, _figure );
+
+        // a figure that draws nothing has nothing to plan...
+        if( runs.isEmpty() )
+            return;
+
+        // figure out where the figure leaves us, in the drawing context's relative coordinates...
+        Position entry = runs.get( 0 ).get( 0 );
+        List<Position> lastRun = runs.get( runs.size() - 1 );
+        Position exit = lastRun.get( lastRun.size() - 1 );
+        Point entryRelative = dc.getCurrentRelativePosition().sum( _entry );
+        Point exitRelative = entryRelative.sum( Point.fromXY( exit.getX() - entry.getX(), exit.getY() - entry.getY() ).rotate( -dc.getCurrentRotation() ) );
+
+        figures.add( new Recorded( runs, entryRelative, exitRelative, _reversible ) );
+    }
+
+
+    /**
+     * Draws all the figures added since the last draw, in the order (and direction) that minimizes the playback time of the travel between them.  The
+     * travel to each figure retraces already drawn lines wherever it can (see {@link DrawingContext#travelTo(Point)}).
+     */
+    public void draw() {
+
+        if( figures.isEmpty() )
+            return;
+
+        // plan our order...
+        Position start = dc.getCurrentPosition();
+        int n = figures.size();
+        int[] order = new int[n];
+        boolean[] reversed = new boolean[n];
+        greedy( start, order, reversed );
+        double greedyCost = cost( start, order, reversed );
+        boolean improved = true;
+        while( improved )
+            improved = twoOpt( start, order, reversed ) | orOpt( start, order, reversed );
+        travelSeconds = cost( start, order, reversed );
+        log( "Planned " + n + " figures; travel " + travelSeconds + " seconds (greedy alone: " + greedyCost + " seconds)" );
+
+        // now travel to and draw each figure in our planned order...
+        for( int i = 0; i < n; i++ ) {
+
+            Recorded figure = figures.get( order[i] );
+            List<List<Position>> runs = figure.runs;
+            Point entryRelative = figure.entryRelative;
+            Point exitRelative = figure.exitRelative;
+            if( reversed[i] ) {
+                runs = new ArrayList<>( runs.size() );
+                for( List<Position> run : figure.runs ) {
+                    List<Position> reversedRun = new ArrayList<>( run );
+                    Collections.reverse( reversedRun );
+                    runs.add( 0, reversedRun );
+                }
+                entryRelative = figure.exitRelative;
+                exitRelative = figure.entryRelative;
+            }
+
+            Position entry = runs.get( 0 ).get( 0 );
+            Position current = dc.getCurrentPosition();
+            dc.travelTo( Point.fromXY( entry.getX() - current.getX(), entry.getY() - current.getY() ).rotate( -dc.getCurrentRotation() ) );
+            dc.setCurrentRelativePosition( entryRelative );
+            for( List<Position> run : runs )
+                dc.drawRun( run );
+            dc.setCurrentRelativePosition( exitRelative );
+        }
+
+        figures.clear();
+    }
+
+
+    /**
+     * Returns the estimated playback time (in seconds) of the travel between figures for the last draw.
+     *
+     * @return the estimated travel time, in seconds.
+     */
+    public double getTravelSeconds() {
+        return travelSeconds;
+    }
+
+
+    // fills in the order and direction of the figures by always going to the nearest (in time) figure we haven't drawn yet...
+    private void greedy( final Position _start, final int[] _order, final boolean[] _reversed ) {
+
+        boolean[] used = new boolean[figures.size()];
+        Position at = _start;
+        for( int i = 0; i < _order.length; i++ ) {
+            double best = Double.POSITIVE_INFINITY;
+            for( int f = 0; f < figures.size(); f++ ) {
+                if( used[f] ) continue;
+                Recorded figure = figures.get( f );
+                double forward = seconds( at, figure.entry() );
+                if( forward < best ) {
+                    best = forward;
+                    _order[i] = f;
+                    _reversed[i] = false;
+                }
+                double backward = figure.reversible ? seconds( at, figure.exit() ) : Double.POSITIVE_INFINITY;
+                if( backward < best ) {
+                    best = backward;
+                    _order[i] = f;
+                    _reversed[i] = true;
+                }
+            }
+            used[_order[i]] = true;
+            at = exit( _order[i], _reversed[i] );
+        }
+    }
+
+
+    // tries reversing each run of figures (which also reverses the direction of each one), keeping any that shorten the tour...
+    private boolean twoOpt( final Position _start, final int[] _order, final boolean[] _reversed ) {
+
+        boolean improved = false;
+        int n = _order.length;
+        for( int i = 0; i < n; i++ ) {
+            for( int j = i; j < n; j++ ) {
+
+                // we can only reverse a run if every figure in it is reversible...
+                if( !figures.get( _order[j] ).reversible ) break;
+
+                // the edges into and out of the run are the only ones whose cost changes...
+                Position before = (i == 0) ? _start : exit( _order[i - 1], _reversed[i - 1] );
+                Position first = entry( _order[i], _reversed[i] );
+                Position last = exit( _order[j], _reversed[j] );
+                double oldCost = seconds( before, first );
+                double newCost = seconds( before, entry( _order[j], !_reversed[j] ) );
+                if( j < n - 1 ) {
+                    Position after = entry( _order[j + 1], _reversed[j + 1] );
+                    oldCost += seconds( last, after );
+                    newCost += seconds( exit( _order[i], !_reversed[i] ), after );
+                }
+                if( newCost >= oldCost - 1e-9 ) continue;
+
+                // reverse the run...
+                for( int a = i, b = j; a <= b; a++, b-- ) {
+                    int order = _order[a];
+                    boolean reversed = _reversed[a];
+                    _order[a] = _order[b];
+                    _reversed[a] = !_reversed[b];
+                    _order[b] = order;
+                    _reversed[b] = !reversed;
+                }
+                improved = true;
+            }
+        }
+        return improved;
+    }
+
+
+    // tries moving each run of up to three figures to every other place in the tour, keeping any move that shortens it...
+    private boolean orOpt( final Position _start, final int[] _order, final boolean[] _reversed ) {
+
+        boolean improved = false;
+        int n = _order.length;
+        int[] order = new int[n];
+        boolean[] reversed = new boolean[n];
+        for( int length = 1; length <= MAX_OR_OPT_RUN; length++ ) {
+            for( int i = 0; i + length <= n; i++ ) {
+                double current = cost( _start, _order, _reversed );
+                for( int k = 0; k <= n - length; k++ ) {
+
+                    if( k == i ) continue;
+
+                    // build the tour with the run at i moved to k (in the tour without the run)...
+                    int out = 0;
+                    for( int src = 0; src < n; src++ ) {
+                        if( out == k ) {
+                            for( int r = 0; r < length; r++ ) {
+                                order[out] = _order[i + r];
+                                reversed[out++] = _reversed[i + r];
+                            }
+                        }
+                        if( (src >= i) && (src < i + length) ) continue;
+                        order[out] = _order[src];
+                        reversed[out++] = _reversed[src];
+                    }
+                    if( out == k ) {
+                        for( int r = 0; r < length; r++ ) {
+                            order[out] = _order[i + r];
+                            reversed[out++] = _reversed[i + r];
+                        }
+                    }
+
+                    if( cost( _start, order, reversed ) < current - 1e-9 ) {
+                        System.arraycopy( order, 0, _order, 0, n );
+                        System.arraycopy( reversed, 0, _reversed, 0, n );
+                        current = cost( _start, _order, _reversed );
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+
+    // returns the total travel time for the given tour...
+    private double cost( final Position _start, final int[] _order, final boolean[] _reversed ) {
+        double cost = 0;
+        Position at = _start;
+        for( int i = 0; i < _order.length; i++ ) {
+            cost += seconds( at, entry( _order[i], _reversed[i] ) );
+            at = exit( _order[i], _reversed[i] );
+        }
+        return cost;
+    }
+
+
+    private Position entry( final int _figure, final boolean _reversed ) {
+        return _reversed ? figures.get( _figure ).exit() : figures.get( _figure ).entry();
+    }
+
+
+    private Position exit( final int _figure, final boolean _reversed ) {
+        return _reversed ? figures.get( _figure ).entry() : figures.get( _figure ).exit();
+    }
+
+
+    // returns the playback time for a direct move between the given positions, taking the shortest way around...
+    private double seconds( final Position _from, final Position _to ) {
+        double theta = _from.getTheta() + Utils.deltaTheta( _from.getTheta(), _to.getTheta() );
+        return PlaybackTime.seconds( dc.getModel(), _from, new PolarPosition( _to.getRho(), theta ) );
+    }
+
+
+    /**
+     * A figure as recorded, with the runs of points its lines were sampled at in absolute table coordinates, and its entry and exit points in the drawing
+     * context's relative coordinates.
+     */
+    private static class Recorded {
+        private final List<List<Position>> runs;
+        private final Point entryRelative;
+        private final Point exitRelative;
+        private final boolean reversible;
+
+
+        private Recorded( final List<List<Position>> _runs, final Point _entryRelative, final Point _exitRelative, final boolean _reversible ) {
+            runs = _runs;
+            entryRelative = _entryRelative;
+            exitRelative = _exitRelative;
+            reversible = _reversible;
+        }
+
+
+        private Position entry() {
+            return runs.get( 0 ).get( 0 );
+        }
+
+
+        private Position exit() {
+            List<Position> last = runs.get( runs.size() - 1 );
+            return last.get( last.size() - 1 );
+        }
+    }
+}
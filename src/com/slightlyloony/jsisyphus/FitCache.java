@@ -0,0 +1,587 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import static com.slightlyloony.jsisyphus.Utils.log;
+
+/**
+ * Instances of this class are a persistent cache of the vertices fitted by {@link SisyphusFitter}, so that tracing a track again (say, after changing only
+ * the end of it) doesn't fit again the lines that haven't changed.  The cache is content-addressed: a fit is keyed by a hash of the table points it was
+ * fitted to (after the drawing context's translation and rotation), the fit tolerance at each of those points, and the fit strategy.  Anything that
+ * changes the fit changes the key, so a stale fit can never be found; it just ages out of the cache.  A fit is stored as the indices of its vertices in
+ * the points it was fitted to, as the fitter's vertices are always some of those points.  Fits the fitter had trouble with (see {@link FitDiagnostic})
+ * aren't cached, so that the trouble is reported every time.
+ *
+ * The cache lives in a directory, in two files.  The index file is memory-mapped, and holds a fixed-size slot for each fit: its key, where its vertex
+ * indices are in the data file, its greedy vertex count, and when it was last used.  The index is read into a hash table when the cache is opened; after
+ * that, looking up a fit costs a hash table lookup and one read of the data file.  When the vertex indices stored exceed the cache's size limit, the fits
+ * least recently used are evicted, and when evicted fits take up more than half the data file, it's compacted.  The data file starts with its generation,
+ * which compacting it advances; the index records the generation its offsets are for, and if the two don't agree when the cache is opened (because we
+ * stopped part way through compacting), the cache is emptied.  A fit whose vertex indices don't fit the points being fitted is treated as a miss, and
+ * evicted.
+ *
+ * Instances of this class are mutable and threadsafe; one cache may be shared by drawing contexts on separate threads.  A cache directory must not be
+ * opened by more than one instance (or process) at once, though.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class FitCache implements Closeable {
+
+    private static final int MAGIC   = 0x4A534643;  // "JSFC"...
+    private static final int VERSION = 2;
+
+    private static final String INDEX_FILE_NAME = "fits.idx";
+    private static final String DATA_FILE_NAME  = "fits.dat";
+
+    private static final int HEADER_SIZE    = 32;  // magic, version, slot count, clock, data file generation...
+    private static final int DATA_HEADER_SIZE = 8;  // the data file generation...
+    private static final int SLOT_SIZE      = 40;  // key (16 bytes), data offset, vertex count, greedy vertex count, last used...
+    private static final int INITIAL_SLOTS  = 1024;
+    private static final long MIN_COMPACT   = 1 << 20;  // don't bother compacting data files smaller than this...
+
+    /* package */ static final int HIERARCHICAL      = 1;  // the fitter option bits, which (like the strategy) can change the fit...
+    /* package */ static final int BOUND_PROPAGATION = 2;
+
+    private static volatile FitCache defaultCache;
+
+    private final File directory;
+    private final long maxBytes;
+    private final FileChannel indexChannel;
+    private FileChannel dataChannel;
+    private MappedByteBuffer index;
+    private final Map<Key,Integer> slots = new HashMap<>();  // maps keys to the slots holding their fits...
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotCount;      // the number of slots, used or free...
+    private long clock;         // counts cache uses, to order them for eviction...
+    private long generation;    // the generation of the data file, advanced each time it's compacted...
+    private long dataEnd;       // the size of the data file...
+    private long liveBytes;     // the bytes in the data file used by fits still in the cache...
+    private long hits;
+    private long misses;
+    private long stores;
+    private long evictions;
+
+
+    /**
+     * Opens the cache in the given directory, creating the directory (and an empty cache) if there isn't one.  If the directory holds a cache written by
+     * another version of this class, or one that's damaged, the cache is emptied.
+     *
+     * @param _directory the name of the directory holding the cache.
+     * @param _maxBytes the most bytes of vertex indices the cache may hold before it evicts the fits least recently used.
+     * @throws IOException on any problem opening or creating the cache files.
+     */
+    public FitCache( final String _directory, final long _maxBytes ) throws IOException {
+
+        // sanity check...
+        if( _maxBytes <= 0 )
+            throw new IllegalArgumentException( "Cache size limit must be positive: " + _maxBytes );
+
+        directory = new File( _directory );
+        maxBytes = _maxBytes;
+        Files.createDirectories( directory.toPath() );
+        indexChannel = FileChannel.open( new File( directory, INDEX_FILE_NAME ).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE );
+        dataChannel = openData( DATA_FILE_NAME );
+        dataEnd = dataChannel.size();
+
+        long indexSize = indexChannel.size();
+        index = indexChannel.map( FileChannel.MapMode.READ_WRITE, 0, Math.max( indexSize, HEADER_SIZE + (long) INITIAL_SLOTS * SLOT_SIZE ) );
+        if( (indexSize >= HEADER_SIZE) && (index.getInt( 0 ) == MAGIC) && (index.getInt( 4 ) == VERSION) && loadSlots() )
+            return;
+
+        // there's no cache here that we can use, so we start an empty one...
+        slots.clear();
+        freeSlots.clear();
+        liveBytes = 0;
+        slotCount = 0;
+        clock = 0;
+        generation = 0;
+        startData( dataChannel );
+        dataEnd = DATA_HEADER_SIZE;
+        index.putInt( 0, MAGIC );
+        index.putInt( 4, VERSION );
+        writeHeader();
+    }
+
+
+    // reads the slots in the index into our hash table, returning false if the index doesn't agree with the data file...
+    private boolean loadSlots() {
+
+        slotCount = index.getInt( 8 );
+        clock = index.getLong( 12 );
+        generation = index.getLong( 20 );
+        if( (slotCount < 0) || (HEADER_SIZE + (long) slotCount * SLOT_SIZE > index.capacity()) )
+            return false;
+
+        // if the data file isn't the one the index points into, the index is no use to us...
+        if( dataGeneration() != generation )
+            return false;
+
+        for( int slot = 0; slot < slotCount; slot++ ) {
+            int base = slotBase( slot );
+            long offset = index.getLong( base + 16 );
+            int count = index.getInt( base + 24 );
+            if( offset < 0 ) {
+                freeSlots.add( slot );
+                continue;
+            }
+            if( (count < 0) || (offset < DATA_HEADER_SIZE) || (offset + 4L * count > dataEnd) )
+                return false;
+            slots.put( new Key( index.getLong( base ), index.getLong( base + 8 ) ), slot );
+            liveBytes += 4L * count;
+        }
+        return true;
+    }
+
+
+    /**
+     * Returns the cache that new drawing contexts use, or null if there is none.
+     *
+     * @return the default fit cache.
+     */
+    public static FitCache getDefault() {
+        return defaultCache;
+    }
+
+
+    /**
+     * Sets the cache that drawing contexts created from now on use, or null for them to have none.
+     *
+     * @param _cache the default fit cache.
+     */
+    public static void setDefault( final FitCache _cache ) {
+        defaultCache = _cache;
+    }
+
+
+    /**
+     * Returns the key for a fit to the given points, with the given tolerance at each point, by the given strategy with the given fitter options (which
+     * are zero or more of the option bits defined here) and spiral span hints (or null if there are none).  The key is the first 128 bits of the SHA-256
+     * hash of those things.
+     */
+    /* package */ static Key key( final List<Position> _points, final ToDoubleFunction<Position> _tolerance, final FitStrategy _strategy,
+                                  final int _options, final int[] _spiralSpans ) {
+
+        int spanCount = (_spiralSpans == null) ? 0 : _spiralSpans.length;
+        ByteBuffer buffer = ByteBuffer.allocate( 4 + 24 * _points.size() + 4 * spanCount );
+        buffer.putInt( _strategy.ordinal() | (_options << 8) );
+        for( Position point : _points ) {
+            buffer.putDouble( point.getRho() );
+            buffer.putDouble( point.getTheta() );
+            buffer.putDouble( _tolerance.applyAsDouble( point ) );
+        }
+        for( int i = 0; i < spanCount; i++ )
+            buffer.putInt( _spiralSpans[i] );
+
+        try {
+            ByteBuffer digest = ByteBuffer.wrap( MessageDigest.getInstance( "SHA-256" ).digest( buffer.array() ) );
+            return new Key( digest.getLong(), digest.getLong() );
+        }
+        catch( NoSuchAlgorithmException _e ) {
+            throw new IllegalStateException( "No SHA-256?", _e );
+        }
+    }
+
+
+    /**
+     * Returns the fit with the given key to the given number of points, or null if it isn't in the cache.  A cached fit whose vertex indices couldn't be
+     * a fit to that many points (as they would be after a hash collision, or if the data file were damaged) is evicted, and isn't returned.
+     */
+    /* package */ synchronized Fit get( final Key _key, final int _pointCount ) {
+
+        Integer slot = slots.get( _key );
+        if( slot == null ) {
+            misses++;
+            return null;
+        }
+
+        try {
+            int base = slotBase( slot );
+            int[] indices = readIndices( index.getLong( base + 16 ), index.getInt( base + 24 ) );
+            if( !isFit( indices, _pointCount ) ) {
+                log( "Evicting fit cache entry with vertex indices that don't fit " + _pointCount + " points" );
+                free( slot );
+                misses++;
+                return null;
+            }
+            index.putLong( base + 32, ++clock );
+            hits++;
+            return new Fit( index.getInt( base + 28 ), indices );
+        }
+        catch( IOException _e ) {
+
+            // a cache we can't read is just a cache that doesn't have this fit...
+            log( "Can't read fit cache: " + _e.getMessage() );
+            misses++;
+            return null;
+        }
+    }
+
+
+    /**
+     * Stores the given fit with the given key, evicting the fits least recently used if the cache is then too big.
+     */
+    /* package */ synchronized void put( final Key _key, final Fit _fit ) {
+
+        // if we've already got it (say, from another thread), there's nothing to do...
+        if( slots.containsKey( _key ) )
+            return;
+
+        try {
+            int slot = freeSlots.isEmpty() ? newSlot() : freeSlots.remove();
+
+            // write the data before the slot that points to it, so that a crash leaves no slot pointing at garbage...
+            long offset = dataEnd;
+            writeIndices( _fit.indices, offset );
+            dataEnd += 4L * _fit.indices.length;
+
+            int base = slotBase( slot );
+            index.putLong( base, _key.high );
+            index.putLong( base + 8, _key.low );
+            index.putInt( base + 24, _fit.indices.length );
+            index.putInt( base + 28, _fit.greedyVertexCount );
+            index.putLong( base + 32, ++clock );
+            index.putLong( base + 16, offset );
+            writeHeader();
+
+            slots.put( _key, slot );
+            liveBytes += 4L * _fit.indices.length;
+            stores++;
+
+            if( liveBytes > maxBytes )
+                evict();
+        }
+        catch( IOException _e ) {
+            log( "Can't write fit cache: " + _e.getMessage() );
+        }
+    }
+
+
+    // returns true if the given vertex indices could be a fit to the given number of points: the vertices are the points after the first, in order,
+    // ending with the last...
+    private static boolean isFit( final int[] _indices, final int _pointCount ) {
+
+        if( _indices.length == 0 )
+            return _pointCount <= 1;
+
+        int previous = 0;
+        for( int index : _indices ) {
+            if( index <= previous )
+                return false;
+            previous = index;
+        }
+        return previous == _pointCount - 1;
+    }
+
+
+    // evicts the fits least recently used until the cache is down to three quarters of its limit, so that we don't evict on every store...
+    private void evict() throws IOException {
+
+        List<Integer> used = new ArrayList<>( slots.values() );
+        used.sort( ( _a, _b ) -> Long.compare( index.getLong( slotBase( _a ) + 32 ), index.getLong( slotBase( _b ) + 32 ) ) );
+
+        long target = maxBytes - (maxBytes >> 2);
+        for( int i = 0; (i < used.size()) && (liveBytes > target); i++ )
+            free( used.get( i ) );
+
+        if( (dataEnd > MIN_COMPACT) && (dataEnd > 2 * liveBytes) )
+            compact();
+    }
+
+
+    // removes the fit in the given slot from the cache...
+    private void free( final int _slot ) {
+        int base = slotBase( _slot );
+        slots.remove( new Key( index.getLong( base ), index.getLong( base + 8 ) ) );
+        liveBytes -= 4L * index.getInt( base + 24 );
+        index.putLong( base + 16, -1 );
+        freeSlots.add( _slot );
+        evictions++;
+    }
+
+
+    // rewrites the data file with just the fits still in the cache, as the next generation of it.  The index is pointed into the new data file only once
+    // that's in place, and it's given the new generation only once all its offsets are written; should we stop anywhere in between, the generations
+    // don't agree and the cache is emptied when it's next opened...
+    private void compact() throws IOException {
+
+        long startTime = System.currentTimeMillis();
+        long nextGeneration = generation + 1;
+        String tempName = DATA_FILE_NAME + ".tmp";
+        FileChannel compacted = openData( tempName );
+        writeGeneration( compacted, nextGeneration );
+
+        // copy the live fits, remembering where each one went...
+        Map<Integer,Long> offsets = new HashMap<>();
+        long end = DATA_HEADER_SIZE;
+        for( int slot : slots.values() ) {
+            int base = slotBase( slot );
+            long offset = index.getLong( base + 16 );
+            long length = 4L * index.getInt( base + 24 );
+            for( long done = 0; done < length; )
+                done += dataChannel.transferTo( offset + done, length - done, compacted.position( end + done ) );
+            offsets.put( slot, end );
+            end += length;
+        }
+        compacted.force( false );
+        compacted.close();
+        dataChannel.close();
+
+        Files.move( new File( directory, tempName ).toPath(), new File( directory, DATA_FILE_NAME ).toPath(), StandardCopyOption.REPLACE_EXISTING );
+        dataChannel = openData( DATA_FILE_NAME );
+        dataEnd = end;
+
+        // now point the index into the new data file, and only then give it the new generation...
+        for( Map.Entry<Integer,Long> entry : offsets.entrySet() )
+            index.putLong( slotBase( entry.getKey() ) + 16, entry.getValue() );
+        index.force();
+        generation = nextGeneration;
+        writeHeader();
+        index.force();
+
+        log( "Compacted fit cache to " + end + " bytes (" + (System.currentTimeMillis() - startTime) + "ms)" );
+    }
+
+
+    // returns a new slot at the end of the index, growing the index if it's full...
+    private int newSlot() throws IOException {
+        if( slotBase( slotCount + 1 ) > index.capacity() ) {
+            index.force();
+            index = indexChannel.map( FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + 2L * index.capacity() );
+        }
+        return slotCount++;
+    }
+
+
+    private int[] readIndices( final long _offset, final int _count ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate( 4 * _count );
+        while( buffer.hasRemaining() )
+            if( dataChannel.read( buffer, _offset + buffer.position() ) < 0 )
+                throw new IOException( "Fit cache data file is truncated" );
+        buffer.flip();
+        int[] result = new int[_count];
+        buffer.asIntBuffer().get( result );
+        return result;
+    }
+
+
+    private void writeIndices( final int[] _indices, final long _offset ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate( 4 * _indices.length );
+        buffer.asIntBuffer().put( _indices );
+        while( buffer.hasRemaining() )
+            dataChannel.write( buffer, _offset + buffer.position() );
+    }
+
+
+    private FileChannel openData( final String _name ) throws IOException {
+        return FileChannel.open( new File( directory, _name ).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE );
+    }
+
+
+    // empties the given data file, leaving just our generation in it...
+    private void startData( final FileChannel _data ) throws IOException {
+        _data.truncate( 0 );
+        writeGeneration( _data, generation );
+    }
+
+
+    private static void writeGeneration( final FileChannel _data, final long _generation ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate( DATA_HEADER_SIZE );
+        buffer.putLong( 0, _generation );
+        while( buffer.hasRemaining() )
+            _data.write( buffer, buffer.position() );
+    }
+
+
+    // returns the generation recorded in our data file, or -1 if it doesn't have one...
+    private long dataGeneration() {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate( DATA_HEADER_SIZE );
+            while( buffer.hasRemaining() )
+                if( dataChannel.read( buffer, buffer.position() ) < 0 )
+                    return -1;
+            return buffer.getLong( 0 );
+        }
+        catch( IOException _e ) {
+            return -1;
+        }
+    }
+
+
+    private void writeHeader() {
+        index.putInt( 8, slotCount );
+        index.putLong( 12, clock );
+        index.putLong( 20, generation );
+    }
+
+
+    private static int slotBase( final int _slot ) {
+        return HEADER_SIZE + _slot * SLOT_SIZE;
+    }
+
+
+    /**
+     * Removes all the fits from this cache, and zeroes its statistics.
+     *
+     * @throws IOException on any problem truncating the cache files.
+     */
+    public synchronized void clear() throws IOException {
+        slots.clear();
+        freeSlots.clear();
+        slotCount = 0;
+        clock = 0;
+        liveBytes = 0;
+        startData( dataChannel );
+        dataEnd = DATA_HEADER_SIZE;
+        writeHeader();
+        hits = 0;
+        misses = 0;
+        stores = 0;
+        evictions = 0;
+    }
+
+
+    /**
+     * Writes everything in this cache to its files, and closes them.  The cache can't be used after it's closed.
+     *
+     * @throws IOException on any problem writing or closing the cache files.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        index.force();
+        dataChannel.force( false );
+        dataChannel.close();
+        indexChannel.close();
+        if( defaultCache == this )
+            defaultCache = null;
+    }
+
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+
+    public synchronized long getStores() {
+        return stores;
+    }
+
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+
+    /**
+     * Returns the number of fits in this cache.
+     *
+     * @return the number of cached fits.
+     */
+    public synchronized int size() {
+        return slots.size();
+    }
+
+
+    /**
+     * Returns the bytes of vertex indices held by the fits in this cache; this is what the cache's size limit limits.
+     *
+     * @return the bytes held by the cached fits.
+     */
+    public synchronized long getBytes() {
+        return liveBytes;
+    }
+
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+
+    /**
+     * Returns the fraction of lookups that found their fit in the cache, or zero if there have been no lookups.
+     *
+     * @return the cache hit rate.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return (lookups == 0) ? 0 : (double) hits / lookups;
+    }
+
+
+    @Override
+    public synchronized String toString() {
+        return String.format( "FitCache %s: %d fits (%d bytes), %d hits, %d misses (%.1f%% hit rate), %d stores, %d evictions", directory, slots.size(),
+                liveBytes, hits, misses, 100 * getHitRate(), stores, evictions );
+    }
+
+
+    /**
+     * The key of a cached fit: 128 bits of the hash of what was fitted.
+     */
+    /* package */ static final class Key {
+
+        private final long high;
+        private final long low;
+
+
+        private Key( final long _high, final long _low ) {
+            high = _high;
+            low = _low;
+        }
+
+
+        @Override
+        public boolean equals( final Object _o ) {
+            if( this == _o ) return true;
+            if( !(_o instanceof Key) ) return false;
+            Key key = (Key) _o;
+            return (high == key.high) && (low == key.low);
+        }
+
+
+        @Override
+        public int hashCode() {
+            return (int) (high ^ (high >>> 32));
+        }
+    }
+
+
+    /**
+     * A cached fit: the indices of its vertices in the points fitted, and the number of vertices a greedy fit generated.
+     */
+    /* package */ static final class Fit {
+
+        /* package */ final int greedyVertexCount;
+        /* package */ final int[] indices;
+
+
+        /* package */ Fit( final int _greedyVertexCount, final int[] _indices ) {
+            greedyVertexCount = _greedyVertexCount;
+            indices = _indices;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.positions.Position;
+
+/**
+ * Instances of this class record a range of points that a {@link SisyphusFitter} had trouble with.  The fitter never fails because of such trouble; it
+ * either treats the troublesome line as one that doesn't fit (for iteration limits and impossible segment analysis results), or falls back to drawing
+ * the line to the very next point even though it doesn't fit (when the binary search can't make progress).  These records let a batch run report the trouble afterwards.
+ *
+ * Instances of this class are immutable and threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class FitDiagnostic {
+
+    /**
+     * Enumerates the kinds of trouble a fitter can have.
+     */
+    public enum Cause {
+        NON_TERMINATION,      // the binary search for the longest fitting line couldn't make progress...
+        TOO_MANY_ITERATIONS,  // the search for the closest point on a spiral ran out of iterations...
+        IMPOSSIBLE_SEGMENT    // the search for the closest point on a spiral got a distance pattern that can't happen...
+    }
+
+    private final Cause cause;
+    private final int startIndex;
+    private final int endIndex;
+    private final Position start;
+    private final Position end;
+    private final int fallbackVertices;
+
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param _cause the kind of trouble the fitter had.
+     * @param _startIndex the index of the first point in the troublesome range.
+     * @param _endIndex the index of the last point in the troublesome range.
+     * @param _start the first point in the troublesome range.
+     * @param _end the last point in the troublesome range.
+     * @param _fallbackVertices the number of vertices the fallback produced for the range (always one), or zero if it wasn't used.
+     */
+    public FitDiagnostic( final Cause _cause, final int _startIndex, final int _endIndex, final Position _start, final Position _end,
+                          final int _fallbackVertices ) {
+        cause = _cause;
+        startIndex = _startIndex;
+        endIndex = _endIndex;
+        start = _start;
+        end = _end;
+        fallbackVertices = _fallbackVertices;
+    }
+
+
+    public Cause getCause() {
+        return cause;
+    }
+
+
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+
+    public int getEndIndex() {
+        return endIndex;
+    }
+
+
+    public Position getStart() {
+        return start;
+    }
+
+
+    public Position getEnd() {
+        return end;
+    }
+
+
+    public int getFallbackVertices() {
+        return fallbackVertices;
+    }
+
+
+    @Override
+    public String toString() {
+        return cause + " fitting points " + startIndex + " to " + endIndex + " (" + start + " to " + end + ")" +
+                ((fallbackVertices > 0) ? ", fallback fitted with " + fallbackVertices + " vertices" : "");
+    }
+}
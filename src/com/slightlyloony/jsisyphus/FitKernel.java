@@ -0,0 +1,169 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Instances of this class test blocks of points at once against the lines that {@link SisyphusFitter} can test without searching: points, circles, and
+ * radials.  The points are copied once into primitive arrays (along with the square of the fit tolerance at each point), and each block's squared misses
+ * are computed in a plain scalar loop over those arrays, without square roots or calls through {@link Position}.  Only then is the block scanned for a
+ * point that doesn't fit.  This is just a batched scalar loop: the strided indexing (and, for arcs, the choice of distance by theta) keeps the JIT from
+ * vectorizing it.  JSisyphus is kept to Java 1.8 (see the README), so the incubating Vector API isn't used here.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+/* package */ class FitKernel {
+
+    private static final int BLOCK = 64;  // the number of points tested at once...
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] rho;
+    private final double[] theta;
+    private final double[] tolerance2;  // the square of the fit tolerance at each point...
+    private final double[] excess = new double[BLOCK];  // how much each point in a block misses by (squared), if it's positive...
+
+
+    /* package */ FitKernel( final List<Position> _points, final ToDoubleFunction<Position> _tolerance ) {
+
+        int n = _points.size();
+        x = new double[n];
+        y = new double[n];
+        rho = new double[n];
+        theta = new double[n];
+        tolerance2 = new double[n];
+        for( int i = 0; i < n; i++ ) {
+            Position point = _points.get( i );
+            x[i] = point.getX();
+            y[i] = point.getY();
+            rho[i] = point.getRho();
+            theta[i] = point.getTheta();
+            double tolerance = _tolerance.applyAsDouble( point );
+            tolerance2[i] = tolerance * tolerance;
+        }
+    }
+
+
+    /**
+     * Returns the number of points tested by a test from the given start index to the given end index, testing every given stride of points (and the end).
+     */
+    /* package */ static int count( final int _start, final int _end, final int _stride ) {
+        return (_end - _start + _stride - 1) / _stride;
+    }
+
+
+    /**
+     * Returns the index of the first point that isn't within tolerance of the given point, or -1 if they all are.  The points tested are every given stride
+     * of points after the given start index, and the end index.
+     */
+    /* package */ int misfitNearPoint( final int _start, final int _end, final int _stride, final double _x, final double _y ) {
+
+        int count = count( _start, _end, _stride );
+        for( int block = 0; block < count; block += BLOCK ) {
+
+            int n = Math.min( BLOCK, count - block );
+            int first = _start + (block + 1) * _stride;
+            for( int i = 0; i < n; i++ ) {
+                int p = Math.min( first + i * _stride, _end );
+                double dx = x[p] - _x;
+                double dy = y[p] - _y;
+                excess[i] = dx * dx + dy * dy - tolerance2[p];
+            }
+
+            int misfit = firstPositive( n );
+            if( misfit >= 0 )
+                return Math.min( first + misfit * _stride, _end );
+        }
+        return -1;
+    }
+
+
+    /**
+     * Returns the index of the first point that isn't within tolerance of the straight line segment between the given ends, or -1 if they all are.  The
+     * points tested are every given stride of points after the given start index, and the end index.
+     */
+    /* package */ int misfitNearSegment( final int _start, final int _end, final int _stride, final double _x1, final double _y1, final double _x2,
+                                         final double _y2 ) {
+
+        double dx = _x2 - _x1;
+        double dy = _y2 - _y1;
+        double length2 = dx * dx + dy * dy;
+        double scale = (length2 == 0) ? 0 : 1 / length2;
+
+        int count = count( _start, _end, _stride );
+        for( int block = 0; block < count; block += BLOCK ) {
+
+            int n = Math.min( BLOCK, count - block );
+            int first = _start + (block + 1) * _stride;
+            for( int i = 0; i < n; i++ ) {
+                int p = Math.min( first + i * _stride, _end );
+                double px = x[p] - _x1;
+                double py = y[p] - _y1;
+                double t = Math.min( 1, Math.max( 0, (px * dx + py * dy) * scale ) );  // the fraction of the way along the segment to the closest point...
+                double ex = px - t * dx;
+                double ey = py - t * dy;
+                excess[i] = ex * ex + ey * ey - tolerance2[p];
+            }
+
+            int misfit = firstPositive( n );
+            if( misfit >= 0 )
+                return Math.min( first + misfit * _stride, _end );
+        }
+        return -1;
+    }
+
+
+    /**
+     * Returns the index of the first point that isn't within tolerance of the circular arc between the given start and end, or -1 if they all are.  The
+     * arc's rho at a given theta is m * theta + b (where m is very nearly zero), and its thetas are the start's and the end's.  The closest point on the arc
+     * to a point within the arc's thetas is the one at the same theta; otherwise it's the nearer end.  The points tested are every given stride of points
+     * after the given start index, and the end index.
+     */
+    /* package */ int misfitNearArc( final int _start, final int _end, final int _stride, final Position _arcStart, final Position _arcEnd, final double _m,
+                                     final double _b ) {
+
+        boolean clockwise = _arcEnd.getTheta() > _arcStart.getTheta();
+        Position low = clockwise ? _arcStart : _arcEnd;
+        Position high = clockwise ? _arcEnd : _arcStart;
+        double lowTheta = low.getTheta();
+        double highTheta = high.getTheta();
+        double lowX = low.getX();
+        double lowY = low.getY();
+        double highX = high.getX();
+        double highY = high.getY();
+
+        int count = count( _start, _end, _stride );
+        for( int block = 0; block < count; block += BLOCK ) {
+
+            int n = Math.min( BLOCK, count - block );
+            int first = _start + (block + 1) * _stride;
+            for( int i = 0; i < n; i++ ) {
+                int p = Math.min( first + i * _stride, _end );
+                double t = theta[p];
+                double dLow = (x[p] - lowX) * (x[p] - lowX) + (y[p] - lowY) * (y[p] - lowY);
+                double dHigh = (x[p] - highX) * (x[p] - highX) + (y[p] - highY) * (y[p] - highY);
+                double dr = rho[p] - (_m * t + _b);
+                double d2 = (t < lowTheta) ? dLow : ((t > highTheta) ? dHigh : dr * dr);
+                excess[i] = d2 - tolerance2[p];
+            }
+
+            int misfit = firstPositive( n );
+            if( misfit >= 0 )
+                return Math.min( first + misfit * _stride, _end );
+        }
+        return -1;
+    }
+
+
+    // returns the index of the first positive (or NaN) excess in the block of the given size, or -1 if there is none...
+    private int firstPositive( final int _n ) {
+        for( int i = 0; i < _n; i++ )
+            if( !(excess[i] <= 0) )  // NaNs don't fit, either...
+                return i;
+        return -1;
+    }
+}
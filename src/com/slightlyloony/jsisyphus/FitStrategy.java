@@ -0,0 +1,12 @@
+package com.slightlyloony.jsisyphus;
+
+/**
+ * Enumerates the ways a {@link SisyphusFitter} can choose the vertices of a line.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public enum FitStrategy {
+
+    GREEDY,   // always draw the longest line that fits from the last vertex...
+    LOOKAHEAD // look a little further ahead than greedy for fewer vertices; a heuristic that costs several times as much, but isn't always optimal...
+}
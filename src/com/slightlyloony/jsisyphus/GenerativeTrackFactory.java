@@ -0,0 +1,19 @@
+package com.slightlyloony.jsisyphus;
+
+/**
+ * Implemented by classes (or constructor references) that make new instances of a generative track, for a {@link SweepRunner}.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public interface GenerativeTrackFactory {
+
+
+    /**
+     * Returns a new instance of a generative track, with the given base file name and seed, and its parameters at their default values.
+     *
+     * @param _baseFileName the base file name (without extension) for the track's files.
+     * @param _seed the seed for the track's random choices.
+     * @return the new track.
+     */
+    AGenerativeTrack create( String _baseFileName, long _seed );
+}
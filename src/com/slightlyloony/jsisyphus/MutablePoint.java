@@ -0,0 +1,180 @@
+package com.slightlyloony.jsisyphus;
+
+import static java.lang.Math.*;
+
+/**
+ * Instances of this class represent a point (or the vector to it) in Cartesian coordinates, like {@link Point} but mutable, so that track code can reuse a
+ * few instances as scratch space instead of allocating a new point for every step of a loop.  Only the Cartesian coordinates are kept; rho and theta are
+ * computed if they're asked for, and not otherwise.  The coordinate conventions are those of {@link Point}: the zero radial is coincident with the
+ * positive y axis, and positive angles increase clockwise from there.<br><br>
+ *
+ * Every method that changes an instance returns that instance, so that changes can be chained: {@code v.setRT( 0.3, theta ).add( center ).scale( 2 )}.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class MutablePoint {
+
+    public double x;
+    public double y;
+
+
+    /**
+     * Creates a new instance of this class at 0, 0.
+     */
+    public MutablePoint() {
+    }
+
+
+    /**
+     * Creates a new instance of this class at the given x and y Cartesian coordinates.
+     *
+     * @param _x the x coordinate.
+     * @param _y the y coordinate.
+     */
+    public MutablePoint( final double _x, final double _y ) {
+        x = _x;
+        y = _y;
+    }
+
+
+    public MutablePoint setXY( final double _x, final double _y ) {
+        x = _x;
+        y = _y;
+        return this;
+    }
+
+
+    public MutablePoint setRT( final double _rho, final double _theta ) {
+        x = _rho * sin( _theta );
+        y = _rho * cos( _theta );
+        return this;
+    }
+
+
+    public MutablePoint set( final MutablePoint _a ) {
+        x = _a.x;
+        y = _a.y;
+        return this;
+    }
+
+
+    public MutablePoint set( final Point _a ) {
+        x = _a.x;
+        y = _a.y;
+        return this;
+    }
+
+
+    /**
+     * Sets this instance to the vector sum of itself and the given instance.
+     *
+     * @param _a the vector to add to this instance.
+     * @return this instance.
+     */
+    public MutablePoint add( final MutablePoint _a ) {
+        x += _a.x;
+        y += _a.y;
+        return this;
+    }
+
+
+    public MutablePoint addXY( final double _x, final double _y ) {
+        x += _x;
+        y += _y;
+        return this;
+    }
+
+
+    public MutablePoint addRT( final double _rho, final double _theta ) {
+        x += _rho * sin( _theta );
+        y += _rho * cos( _theta );
+        return this;
+    }
+
+
+    /**
+     * Sets this instance to the vector from itself to the given instance.
+     *
+     * @param _a the point to calculate the vector to, from this point.
+     * @return this instance.
+     */
+    public MutablePoint vectorTo( final MutablePoint _a ) {
+        x = _a.x - x;
+        y = _a.y - y;
+        return this;
+    }
+
+
+    public MutablePoint scale( final double _scaleFactor ) {
+        x *= _scaleFactor;
+        y *= _scaleFactor;
+        return this;
+    }
+
+
+    /**
+     * Rotates this instance clockwise by the given angle, around 0, 0.
+     *
+     * @param _theta the angle to rotate by.
+     * @return this instance.
+     */
+    public MutablePoint rotate( final double _theta ) {
+        double sin = sin( _theta );
+        double cos = cos( _theta );
+        double rx = x * cos + y * sin;
+        y = y * cos - x * sin;
+        x = rx;
+        return this;
+    }
+
+
+    /**
+     * Sets this instance to the vector of the same length in the opposite direction (which is what {@link Point#oppositeTheta()} returns).
+     *
+     * @return this instance.
+     */
+    public MutablePoint opposite() {
+        x = -x;
+        y = -y;
+        return this;
+    }
+
+
+    public double getRho() {
+        return hypot( x, y );
+    }
+
+
+    public double getTheta() {
+        return Utils.getTheta( x, y );
+    }
+
+
+    /**
+     * Returns the distance from the given point to this point.
+     *
+     * @param _from the point to measure the distance from.
+     * @return the distance from the given point to this point.
+     */
+    public double distanceFrom( final MutablePoint _from ) {
+        return hypot( x - _from.x, y - _from.y );
+    }
+
+
+    /**
+     * Returns a new (immutable) point with the same coordinates as this instance.
+     *
+     * @return a new point with the same coordinates as this instance.
+     */
+    public Point toPoint() {
+        return Point.fromXY( x, y );
+    }
+
+
+    @Override
+    public String toString() {
+        return "MutablePoint: (x,y): (" + x + "," + y + ")";
+    }
+}
@@ -0,0 +1,56 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.models.Model;
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.util.List;
+
+import static java.lang.Math.*;
+
+/**
+ * Static methods that estimate how long a Sisyphus table takes to play back a move or a track.  Each move between vertices is a Sisyphus line (an
+ * arithmetic spiral segment), and the table drives both of its motors at once, so a move takes as long as its slowest constraint: the theta motor's
+ * angular speed, the rho motor's linear speed, or the ball's speed along the line.  The ball's path length is bounded by the length of the spiral at its
+ * larger rho, which slightly overestimates the time for moves that change rho a lot.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class PlaybackTime {
+
+
+    /**
+     * Returns the estimated time (in seconds) for the given model of table to move the ball from one vertex to another.
+     *
+     * @param _model the model of Sisyphus table.
+     * @param _from the vertex the move starts at.
+     * @param _to the vertex the move ends at.
+     * @return the estimated time for the move, in seconds.
+     */
+    public static double seconds( final Model _model, final Position _from, final Position _to ) {
+
+        double radius = _model.tableRadiusMeters();
+        double dTheta = abs( _to.getTheta() - _from.getTheta() );
+        double dRho = abs( _to.getRho() - _from.getRho() ) * radius;
+        double maxRho = max( _from.getRho(), _to.getRho() ) * radius;
+
+        double time = dTheta / _model.maxThetaRadiansPerSecond();
+        time = max( time, dRho / _model.maxRhoMetersPerSecond() );
+        time = max( time, hypot( dTheta * maxRho, dRho ) / _model.maxBallSpeedMetersPerSecond() );
+        return time;
+    }
+
+
+    /**
+     * Returns the estimated time (in seconds) for the given model of table to play back the given vertices.
+     *
+     * @param _model the model of Sisyphus table.
+     * @param _vertices the vertices to play back.
+     * @return the estimated time for the track, in seconds.
+     */
+    public static double seconds( final Model _model, final List<Position> _vertices ) {
+        double time = 0;
+        for( int i = 1; i < _vertices.size(); i++ )
+            time += seconds( _model, _vertices.get( i - 1 ), _vertices.get( i ) );
+        return time;
+    }
+}
@@ -183,6 +183,12 @@ public class Point {
     }
 
 
+    // creates a new instance with exactly the given coordinates, which must be consistent with each other...
+    /* package */ static Point fromXYRT( final double _x, final double _y, final double _rho, final double _theta ) {
+        return new Point( _x, _y, _rho, _theta );
+    }
+
+
     @Override
     public String toString() {
         return "Point: (x,y): (" + x + "," + y + "), [rho,theta]: [" + rho + "," + theta + "]";
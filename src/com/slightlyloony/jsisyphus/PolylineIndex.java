@@ -0,0 +1,169 @@
+package com.slightlyloony.jsisyphus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.Math.*;
+
+/**
+ * Instances of this class index the segments of one or more polylines in a uniform grid of square cells, so that the distance from any point to the
+ * nearest segment can be found quickly.  Each segment is recorded in every cell its bounding box overlaps.  A nearest segment search looks at the cells
+ * in successively larger square rings around the point, stopping as soon as nothing in the unsearched cells could be closer than what it's found.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+/* package */ class PolylineIndex {
+
+    private static final int MAX_RING = 400;  // we'll never search further out than this many cells...
+
+    private final double cellSize;
+    private final Map<Long,int[]> cells;     // each array holds a count followed by that many segment indices...
+    private double[] segments;               // x0, y0, x1, y1 for each segment...
+    private int count;
+    private boolean started;
+    private double lastX;
+    private double lastY;
+
+
+    /**
+     * Creates a new, empty instance of this class with cells of the given size.
+     *
+     * @param _cellSize the size of each (square) cell.
+     */
+    /* package */ PolylineIndex( final double _cellSize ) {
+        cellSize = _cellSize;
+        cells = new HashMap<>();
+        segments = new double[4 * 1024];
+    }
+
+
+    /**
+     * Extends the current polyline to the given point.  The first point after a {@link #breakLine()} (or after creation) starts a new polyline.
+     *
+     * @param _x the x coordinate of the point.
+     * @param _y the y coordinate of the point.
+     */
+    /* package */ void add( final double _x, final double _y ) {
+
+        // if we're starting a new polyline, just remember where it starts...
+        if( !started ) {
+            started = true;
+            lastX = _x;
+            lastY = _y;
+            return;
+        }
+
+        // record the segment...
+        if( 4 * count == segments.length ) {
+            double[] newSegments = new double[2 * segments.length];
+            System.arraycopy( segments, 0, newSegments, 0, segments.length );
+            segments = newSegments;
+        }
+        int base = 4 * count;
+        segments[base] = lastX;
+        segments[base + 1] = lastY;
+        segments[base + 2] = _x;
+        segments[base + 3] = _y;
+
+        // index it in every cell its bounding box touches...
+        int x0 = cell( min( lastX, _x ) );
+        int x1 = cell( max( lastX, _x ) );
+        int y0 = cell( min( lastY, _y ) );
+        int y1 = cell( max( lastY, _y ) );
+        for( int cx = x0; cx <= x1; cx++ )
+            for( int cy = y0; cy <= y1; cy++ )
+                addToCell( key( cx, cy ), count );
+
+        count++;
+        lastX = _x;
+        lastY = _y;
+    }
+
+
+    /**
+     * Ends the current polyline, so that the next point added starts a new one.
+     */
+    /* package */ void breakLine() {
+        started = false;
+    }
+
+
+    /**
+     * Returns the distance from the given point to the nearest indexed segment, or infinity if there are none nearby.
+     *
+     * @param _x the x coordinate of the point.
+     * @param _y the y coordinate of the point.
+     * @return the distance to the nearest segment.
+     */
+    /* package */ double nearest( final double _x, final double _y ) {
+
+        int cx = cell( _x );
+        int cy = cell( _y );
+        double best = Double.POSITIVE_INFINITY;
+        for( int ring = 0; ring <= MAX_RING; ring++ ) {
+
+            // anything in this ring or beyond is at least this far away...
+            if( best <= (ring - 1) * cellSize )
+                break;
+
+            for( int x = cx - ring; x <= cx + ring; x++ ) {
+                boolean edge = (x == cx - ring) || (x == cx + ring);
+                for( int y = cy - ring; y <= cy + ring; y += (edge ? 1 : 2 * ring) ) {
+                    int[] cell = cells.get( key( x, y ) );
+                    if( cell != null )
+                        for( int i = 1; i <= cell[0]; i++ )
+                            best = min( best, distance( cell[i], _x, _y ) );
+                    if( ring == 0 ) break;
+                }
+            }
+        }
+        return best;
+    }
+
+
+    // returns the distance from the given point to the given segment...
+    private double distance( final int _segment, final double _x, final double _y ) {
+
+        int base = 4 * _segment;
+        double x0 = segments[base];
+        double y0 = segments[base + 1];
+        double dx = segments[base + 2] - x0;
+        double dy = segments[base + 3] - y0;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = (lengthSquared == 0) ? 0 : max( 0, min( 1, ((_x - x0) * dx + (_y - y0) * dy) / lengthSquared ) );
+        return hypot( x0 + t * dx - _x, y0 + t * dy - _y );
+    }
+
+
+    private void addToCell( final long _key, final int _segment ) {
+        int[] cell = cells.get( _key );
+        if( cell == null ) {
+            cell = new int[5];
+            cells.put( _key, cell );
+        }
+        else if( cell[0] == cell.length - 1 ) {
+            int[] newCell = new int[2 * cell.length];
+            System.arraycopy( cell, 0, newCell, 0, cell.length );
+            cell = newCell;
+            cells.put( _key, cell );
+        }
+        cell[++cell[0]] = _segment;
+    }
+
+
+    private int cell( final double _coordinate ) {
+        return (int) floor( _coordinate / cellSize );
+    }
+
+
+    private long key( final int _x, final int _y ) {
+        return (((long) _x) << 32) | (_y & 0xFFFFFFFFL);
+    }
+
+
+    /* package */ int size() {
+        return count;
+    }
+}
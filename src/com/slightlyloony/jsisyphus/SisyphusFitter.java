@@ -4,6 +4,7 @@ import com.slightlyloony.jsisyphus.positions.PolarPosition;
 import com.slightlyloony.jsisyphus.positions.Position;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static com.slightlyloony.jsisyphus.Utils.log;
@@ -12,6 +13,28 @@ import static com.slightlyloony.jsisyphus.Utils.log;
  * Instances of this class find the series of spiral lines drawn natively by the Sisyphus table that will fit within the fit tolerance of an arbitrary line
  * represented by a series of points.  The result is a list of vertices.
  *
+ * The binary search for the longest fitting line assumes that the line to the very next point fits.  It can only fail to make progress when that isn't
+ * so, and there's no shorter line to fall back to, so the fitter falls back to drawing the line to the very next point anyway, and goes on from there.
+ * Any trouble the fitter has is recorded as a {@link FitDiagnostic}, rather than thrown.
+ *
+ * In hierarchical mode, the search for the longest line that fits is first done on a decimated subset of the points (every {@value #DECIMATION}th one,
+ * and the end).  A line that doesn't fit the subset can't fit all the points, so the only line that needs testing against every point is the candidate
+ * that search finds.  If it fits, it's the answer; if it doesn't, the search is refined at full resolution between the last line known to fit and the
+ * candidate.  Either way, every line the fitter emits has been tested against every point, just as when not in hierarchical mode.
+ *
+ * With bound propagation, a point on a spiral line is first tested against the spiral point that fit the point tested before it, and then against the
+ * spiral point the same change in theta further along.  Either of those being within tolerance proves that the point fits, without the search for the
+ * closest point on the spiral.  As points are closely spaced, on smooth lines one or the other almost always is.
+ *
+ * Lines that can be tested without searching (points, circles, and radials) are tested a block of points at a time by a {@link FitKernel}, when there
+ * are enough points to test; the kernel can be disabled (per fitter), leaving the fitter to test one point at a time.
+ *
+ * The fitter may be given hints: the ends of spans of points that are nearly arithmetic spirals around the table's center (see
+ * {@link com.slightlyloony.jsisyphus.lines.SpiralSpans}).  The search for the longest line from a point first tries the line to the end of the span it's
+ * in; if that fits, the search goes on from there, so a span that fits costs a single probe.
+ *
+ * If the fitter is given a {@link FitCache}, it looks there for a fit to the same points before fitting them, and stores what it fits there.
+ *
  * @author Tom Dilatush  tom@dilatush.com
  */
 public class SisyphusFitter {
@@ -19,6 +42,9 @@ public class SisyphusFitter {
     private static final int LOG_LEVEL = 1;  // [0..3], with higher numbers meaning more detailed logging...
 
     private static final int MAX_ITERATIONS = 25;
+    private static final int LOOKAHEAD_WINDOW = 32;  // the number of points at the end of each layer that a lookahead fit tries to jump from...
+    private static final int DECIMATION     = 4;   // the stride through the points when searching the decimated subset in hierarchical mode...
+    private static final int KERNEL_MIN     = 16;  // the fewest points worth testing with the kernel...
 
     /**
      * Table encoding the possible outcomes resulting from measuring the distance between a point being tested and the four vertices of three Sisyphus line
@@ -42,7 +68,23 @@ public class SisyphusFitter {
     private final List<Position> points;
     private final DrawingContext dc;
     private final List<Position> vertices;
-    private final double fitTolerance;
+    private final double baseTolerance;
+    private final TolerancePolicy tolerancePolicy;
+    private final List<FitDiagnostic> diagnostics;
+    private double fitTolerance;  // the fit tolerance at the point being tested...
+    private FitStrategy strategy = FitStrategy.GREEDY;
+    private int greedyVertexCount;
+    private FitCache cache;
+    private boolean hierarchical;
+    private boolean boundPropagation;
+    private boolean kernelEnabled = true;
+    private FitKernel kernel;     // the kernel for testing blocks of points, made when it's first needed...
+    private int[] spiralSpans;    // the indices of the points ending spans that are nearly spirals around the table's center, or null if none...
+    private int spanFits;         // the number of times the line to the end of a span fit...
+    private long pointTests;      // the number of times a point has been tested against a line...
+    private int refinements;      // the number of hierarchical candidates that didn't fit at full resolution...
+    private long boundFits;       // the number of point tests that bound propagation proved fit...
+    private long curveSearches;   // the number of searches for the closest point on a spiral...
 
 
     /**
@@ -52,11 +94,26 @@ public class SisyphusFitter {
      * @param _dc the drawing context for this operation.
      */
     public SisyphusFitter( final List<Position> _points, final DrawingContext _dc ) {
+        this( _points, _dc, _dc.getFitToleranceRho() );
+    }
+
+
+    /**
+     * Creates a new instance of this class that fits to the given tolerance instead of the drawing context's.  The given tolerance is the base tolerance
+     * for the drawing context's tolerance policy, which decides the actual tolerance at each point.
+     *
+     * @param _points the list of points defining the arbitrary line that needs to have spiral lines fitted to it.
+     * @param _dc the drawing context for this operation.
+     * @param _fitTolerance the base fit tolerance, in rho units.
+     */
+    public SisyphusFitter( final List<Position> _points, final DrawingContext _dc, final double _fitTolerance ) {
 
         points = _points;
         dc = _dc;
         vertices = new ArrayList<>();
-        fitTolerance = dc.getFitToleranceRho();
+        baseTolerance = _fitTolerance;
+        tolerancePolicy = _dc.getTolerancePolicy();
+        diagnostics = new ArrayList<>();
     }
 
 
@@ -68,42 +125,87 @@ public class SisyphusFitter {
         if( logLevel( 3 ) )
             log( "Generating vertices for " + points.size() + " points from " + points.get( 0 ) + " to " + points.get( points.size() - 1) );
 
-        int last = points.size() - 1;
-        int current = 0;  // start at the beginning!
         long startTime = System.currentTimeMillis();
-        while( current < last ) {
 
-            // get our start point...
-            Position start = points.get( current );
-
-            // do a binary search to find the longest segment we can draw as a Sisyphus line...
-            int iterations = 0;
-            boolean done = false;
-            int probe = last;
-            int highestCan = current + 1;
-            int lowestCant = last + 1;
-            while( !done ) {
-                boolean canDraw = fits( current, probe );
-                iterations++;
-                if( logLevel( 3 ) ) log("  tested from " + current + " to " + probe + "; " + ( canDraw ? "fits" : "doesn't fit") );
-                if( canDraw ) {
-                    highestCan = probe;
-                    probe = probe + ((lowestCant - probe ) >> 1);
-                }
-                else {
-                    lowestCant = probe;
-                    probe = highestCan + ((probe - (highestCan + 1)) >> 1);
-                }
+        // if we've got a cache, see if these points have been fitted before...
+        FitCache.Key key = null;
+        if( cache != null ) {
+            int options = (hierarchical ? FitCache.HIERARCHICAL : 0) | (boundPropagation ? FitCache.BOUND_PROPAGATION : 0);
+            key = FitCache.key( points, this::toleranceAt, strategy, options, spiralSpans );
+            FitCache.Fit fit = cache.get( key, points.size() );
+            if( fit != null ) {
+                for( int index : fit.indices )
+                    vertices.add( points.get( index ) );
+                greedyVertexCount = fit.greedyVertexCount;
+                if( logLevel( 2 ) )
+                    log( "Found " + vertices.size() + " cached vertices in " + (System.currentTimeMillis() - startTime) + "ms" );
+                return;
+            }
+        }
+
+        greedy();
+        greedyVertexCount = vertices.size();
+
+        // if we're looking ahead, see if we can do better than greedy...
+        if( strategy == FitStrategy.LOOKAHEAD ) {
+
+            // the greedy fit has already reported any trouble with these points...
+            int diagnosticCount = diagnostics.size();
+            List<Position> lookahead = lookahead();
+            diagnostics.subList( diagnosticCount, diagnostics.size() ).clear();
+
+            if( (lookahead != null) && (lookahead.size() < vertices.size()) ) {
+                vertices.clear();
+                vertices.addAll( lookahead );
+            }
+        }
+
+        // cache the fit, unless we had trouble with it (which we want reported every time)...
+        if( (cache != null) && diagnostics.isEmpty() )
+            cache.put( key, new FitCache.Fit( greedyVertexCount, indices() ) );
+
+        long time = System.currentTimeMillis() - startTime;
+        if( logLevel( 2 ) )
+            log( "Generated " + vertices.size() + " vertices in " + time + "ms with " + pointTests + " point tests" );
+    }
+
 
-                // check for non-termination...
-                if( lowestCant == highestCan )
-                    throw new IllegalStateException( "SisyphusFitter.generate() won't terminate!" );
+    // returns the indices of our vertices in our points; the vertices are some of the points, in order...
+    private int[] indices() {
+        int[] result = new int[vertices.size()];
+        int index = 0;
+        for( int i = 0; i < result.length; i++ ) {
+            while( points.get( index ) != vertices.get( i ) )
+                index++;
+            result[i] = index;
+        }
+        return result;
+    }
+
+
+    // fits the points greedily, always drawing the longest line that fits from the last vertex...
+    private void greedy() {
+
+        int last = points.size() - 1;
+        int current = 0;  // start at the beginning!
+        while( current < last ) {
 
-                done = (lowestCant - highestCan == 1);
+            // find the longest segment we can draw as a Sisyphus line...
+            int highestCan = longest( current, current + 1 );
+
+            // if our search couldn't make progress, the line to the very next point doesn't fit; it's the shortest line there is, so we draw it anyway...
+            if( highestCan < 0 ) {
+                vertices.add( points.get( current + 1 ) );
+                diagnostics.add( new FitDiagnostic( FitDiagnostic.Cause.NON_TERMINATION, current, current + 1, points.get( current ),
+                        points.get( current + 1 ), 1 ) );
+                if( logLevel( 1 ) )
+                    log( "Fallback to the next point: " + diagnostics.get( diagnostics.size() - 1 ) );
+                current++;
+                continue;
             }
 
             if( logLevel( 3 ) )
-                log( "  after " + iterations + " iterations, adding vertice at " + points.get( highestCan ) );
+                log( "  adding vertice at " + points.get( highestCan ) );
 
             // emit the vertice...
             vertices.add( points.get( highestCan ) );
@@ -111,20 +213,168 @@ public class SisyphusFitter {
             // move to the next segment...
             current = highestCan;
         }
+    }
 
-        long time = System.currentTimeMillis() - startTime;
-        if( logLevel( 2 ) )
-            log( "Generated " + vertices.size() + " vertices in " + time + "ms");
+
+    /*
+     * Returns the vertices of a fit that looks a little further ahead than the greedy fit, which often (but not always) finds fewer vertices.  The greedy
+     * fit isn't optimal, because a line that fits between two points doesn't mean that the (different) line between points inside that range fits.  If it
+     * did, this would be the "jump game": each point can jump to any point up to the furthest one it can draw a line to, and a breadth first search finds
+     * the fewest jumps, with each layer being the range of points reachable with one more line, and the next layer ending at the furthest point that any
+     * point in the current layer can reach.
+     *
+     * That's only a heuristic here, for two reasons.  To keep the cost near linear, only the last few points (the lookahead window) of each layer are
+     * tried, starting with the last, so a point earlier in the layer that reaches further is never found.  And a point's reach is where its lines stop
+     * fitting, which doesn't mean every line short of that fits, so the layers aren't exactly the points reachable with one more line.  An exact fit
+     * would be a shortest path over every pair of points, which costs a line test per pair (quadratic in the points, each test linear in them); that's
+     * far too slow for the lines we draw.  Each point in the window is first probed just past the best reach found so far for the next layer; only if
+     * that fits do we binary search for its actual reach.  Most points fail that single probe, so each layer costs about one binary search plus a probe
+     * per point in the window.  Returns null if the fit we found has a line that doesn't actually fit.
+     */
+    private List<Position> lookahead() {
+
+        List<Integer> jumps = new ArrayList<>();  // the points we jumped from, after the start...
+        int last = points.size() - 1;
+        int layerStart = 0;
+        int layerEnd = 0;
+        while( layerEnd < last ) {
+
+            int reach = layerEnd;
+            int from = -1;
+            for( int i = layerEnd; (i >= layerStart) && (i > layerEnd - LOOKAHEAD_WINDOW) && (reach < last); i-- ) {
+
+                // if this point can't even reach one past our best so far, it can't improve on it...
+                if( !fits( i, reach + 1, 1 ) )
+                    continue;
+
+                int furthest = longest( i, reach + 1 );
+                if( furthest > reach ) {
+                    reach = furthest;
+                    from = i;
+                }
+            }
+
+            // if nothing could make progress, just take one step (the greedy fit falls back in the same place)...
+            if( from < 0 ) {
+                from = layerEnd;
+                reach = layerEnd + 1;
+            }
+
+            jumps.add( from );
+            layerStart = layerEnd + 1;
+            layerEnd = reach;
+        }
+
+        // the first jump is always from the start, and each later one is from a point the one before it could reach; we've only assumed that a point can
+        // draw a line to anything short of its reach, though, so we check each line (and give up if one doesn't fit)...
+        List<Position> result = new ArrayList<>( jumps.size() );
+        for( int j = 1; j < jumps.size(); j++ ) {
+            if( !fits( jumps.get( j - 1 ), jumps.get( j ), 1 ) )
+                return null;
+            result.add( points.get( jumps.get( j ) ) );
+        }
+        result.add( points.get( last ) );
+        return result;
+    }
+
+
+    /*
+     * Finds the furthest point that the given current point can draw a line to, given a point that it can draw to (or, if that's the very next point, one
+     * that we're assuming it can draw to).  Returns the index of the furthest point, or -1 if the search couldn't make progress (which means that the line
+     * to the very next point doesn't fit).
+     */
+    private int longest( final int _current, final int _fits ) {
+
+        // if we're in a span that's nearly a spiral, try the line to its end first...
+        int last = points.size() - 1;
+        int known = _fits;
+        if( spiralSpans != null ) {
+            int spanEnd = spanEnd( _current );
+            if( (spanEnd > known) && fits( _current, spanEnd, 1 ) ) {
+                spanFits++;
+
+                // the next span bends differently (or it wouldn't be another span), so the line almost never goes further...
+                if( (spanEnd == last) || !fits( _current, spanEnd + 1, 1 ) )
+                    return spanEnd;
+                known = spanEnd + 1;
+            }
+        }
+
+        if( !hierarchical || (last - known <= 2 * DECIMATION) )
+            return search( _current, known, last + 1, 1 );
+
+        // find a candidate with the decimated points; any trouble that matters will happen again at full resolution, so we don't report it here...
+        int diagnosticCount = diagnostics.size();
+        int candidate = search( _current, known, last + 1, DECIMATION );
+        diagnostics.subList( diagnosticCount, diagnostics.size() ).clear();
+
+        // if the decimated search couldn't make progress, neither will we...
+        if( candidate < 0 )
+            return search( _current, known, last + 1, 1 );
+
+        // the line to the point after the candidate didn't fit the decimated points, so if the candidate fits all the points, it's the furthest...
+        if( (candidate == known) || fits( _current, candidate, 1 ) )
+            return candidate;
+
+        // otherwise the furthest is somewhere short of the candidate...
+        refinements++;
+        return search( _current, known, candidate, 1 );
+    }
+
+
+    // returns the index of the point ending the span the given point is in (or starts); the last span ends at the last point...
+    private int spanEnd( final int _point ) {
+        int index = Arrays.binarySearch( spiralSpans, _point + 1 );
+        return spiralSpans[(index >= 0) ? index : Math.min( -index - 1, spiralSpans.length - 1 )];
+    }
+
+
+    /*
+     * Does a binary search to find the furthest point that the given current point can draw a line to, given a point that it can draw to (or one that we're
+     * assuming it can draw to) and a point that it can't (or one past the last point), testing every given stride of points.  Returns the index of the
+     * furthest point, or -1 if the search couldn't make progress.
+     */
+    private int search( final int _current, final int _fits, final int _cant, final int _stride ) {
+
+        int iterations = 0;
+        boolean done = (_cant - _fits <= 1);
+        int probe = _cant - 1;
+        int highestCan = _fits;
+        int lowestCant = _cant;
+        while( !done ) {
+            boolean canDraw = fits( _current, probe, _stride );
+            iterations++;
+            if( logLevel( 3 ) ) log("  tested from " + _current + " to " + probe + "; " + ( canDraw ? "fits" : "doesn't fit") );
+            if( canDraw ) {
+                highestCan = probe;
+                probe = probe + ((lowestCant - probe ) >> 1);
+            }
+            else {
+                lowestCant = probe;
+                probe = highestCan + ((probe - (highestCan + 1)) >> 1);
+            }
+
+            // check for non-termination...
+            if( lowestCant == highestCan )
+                return -1;
+
+            done = (lowestCant - highestCan == 1);
+        }
+
+        if( logLevel( 3 ) )
+            log( "  after " + iterations + " iterations, furthest point from " + _current + " is " + highestCan );
+        return highestCan;
     }
 
 
     /**
      * Returns true if the line defined by the start and end indices into the points held by this instance fits (within fit tolerance) the path that the
-     * Sisyphus table would make from the same start and end points.
+     * Sisyphus table would make from the same start and end points.  Only every given stride of points is tested (and the end point), so only with a
+     * stride of one is the line known to fit.
      *
      * @return true if the line fits.
      */
-    private boolean fits( final int _start, final int _end ) {
+    private boolean fits( final int _start, final int _end, final int _stride ) {
 
         // some setup...
         Position start = points.get( _start );
@@ -137,19 +387,28 @@ public class SisyphusFitter {
         double m = ldr / ldt;
         double b = start.getRho() - m * start.getTheta();
 
+        // if there are enough points on a line that doesn't need searching, test them a block at a time...
+        if( (isRadial || isCircle) && kernelEnabled && (FitKernel.count( _start, _end, _stride ) >= KERNEL_MIN) )
+            return fitsKernel( _start, _end, _stride, isRadial, isCircle, m, b );
+
         // where we keep our segment and sub-segment details...
         SegmentVertice st[] = {new SegmentVertice(), new SegmentVertice(), new SegmentVertice(), new SegmentVertice()};
 
         // TODO: possible optimization: test points out of order, starting in the middle?
 
-        // iterate over all the points in this line, testing them in order from start to end...
+        // iterate over the points in this line (every stride of them), testing them in order from start to end...
         SegmentVertice lastFit = new SegmentVertice();
         lastFit.rho = points.get( _start ).getRho();
         lastFit.theta = points.get( _start ).getTheta();
         calcXY( lastFit );
-        for( int p = _start + 1; p <= _end; p++ ) {
+        int p = _start;
+        while( p < _end ) {
 
+            int previous = p;
+            p = Math.min( p + _stride, _end );
+            pointTests++;
             Position testPoint = points.get( p );
+            fitTolerance = toleranceAt( testPoint );
 
             /*
                 If this path is a radial, circle, or point a special method can find the closest point.  A relatively quick test can determine whether one of
@@ -179,7 +438,14 @@ public class SisyphusFitter {
                 else
                     return logFail( p, 0 );
 
-            if( !fitsCurve( m, b, st, lastFit, p, testPoint, end ) )
+            // if a cheap bound proves this point fits, we needn't search for the closest point...
+            if( boundPropagation && fitsBound( start, end, m, b, lastFit, points.get( previous ), testPoint ) ) {
+                boundFits++;
+                continue;
+            }
+
+            curveSearches++;
+            if( !fitsCurve( _start, m, b, st, lastFit, p, testPoint, end ) )
                 return false;
         }
 
@@ -188,7 +454,54 @@ public class SisyphusFitter {
     }
 
 
-    private boolean fitsCurve( final double _m, final double _b, final SegmentVertice[] _st, final SegmentVertice _lastFit, final int _p, final Position _testPoint, final Position _end ) {
+    // tests the points on a point, circle, or radial line with the kernel, returning true if they all fit...
+    private boolean fitsKernel( final int _start, final int _end, final int _stride, final boolean _isRadial, final boolean _isCircle, final double _m,
+                                final double _b ) {
+
+        if( kernel == null )
+            kernel = new FitKernel( points, this::toleranceAt );
+
+        Position start = points.get( _start );
+        Position end = points.get( _end );
+        int misfit;
+        if( _isRadial && _isCircle )
+            misfit = kernel.misfitNearPoint( _start, _end, _stride, start.getX(), start.getY() );
+        else if( _isCircle )
+            misfit = kernel.misfitNearArc( _start, _end, _stride, start, end, _m, _b );
+        else
+            misfit = kernel.misfitNearSegment( _start, _end, _stride, start.getX(), start.getY(), end.getX(), end.getY() );
+
+        pointTests += FitKernel.count( _start, (misfit < 0) ? _end : misfit, _stride );
+        return (misfit < 0) || logFail( misfit, 0 );
+    }
+
+
+    /*
+     * Returns true if the spiral point that fit the previous point, or the one the same change in theta further along the spiral (within the line), is
+     * within tolerance of the given test point.  Either proves the test point fits, and becomes the last fit.  Returns false if neither is, which proves
+     * nothing.
+     */
+    private boolean fitsBound( final Position _start, final Position _end, final double _m, final double _b, final SegmentVertice _lastFit,
+                               final Position _previous, final Position _testPoint ) {
+
+        // the spiral point that fit the previous point is often close enough to this one too...
+        if( Math.hypot( _lastFit.x - _testPoint.getX(), _lastFit.y - _testPoint.getY() ) <= fitTolerance )
+            return true;
+
+        // otherwise, follow the spiral as far (in theta) as the points moved, as long as that's still on the line...
+        double theta = _lastFit.theta + (_testPoint.getTheta() - _previous.getTheta());
+        double low = Math.min( _start.getTheta(), _end.getTheta() );
+        double high = Math.max( _start.getTheta(), _end.getTheta() );
+        if( (theta < low) || (theta > high) )
+            return false;
+        SegmentVertice next = new SegmentVertice();
+        next.theta = theta;
+        next.rho = getRhoFromTheta( _m, _b, theta );
+        return calcVertice( next, _testPoint, _lastFit );
+    }
+
+
+    private boolean fitsCurve( final int _start, final double _m, final double _b, final SegmentVertice[] _st, final SegmentVertice _lastFit, final int _p, final Position _testPoint, final Position _end ) {
         /*
             If we get here, then we have the more difficult case - we have to see if there's a point on the spiral that is within the fit tolerance to our
             point.  The smaller the starting segment size, the fewer iterations will be required.  We use the last fit location as our start of segment,
@@ -241,8 +554,10 @@ public class SisyphusFitter {
                 hashCode();  // TODO: why is this ever being hit?
 
             // if we've iterated too much, then bail out, failing the fit...
-            if( i == MAX_ITERATIONS - 1 )
+            if( i == MAX_ITERATIONS - 1 ) {
+                trouble( FitDiagnostic.Cause.TOO_MANY_ITERATIONS, _start, _p );
                 return logFail( _p, i );
+            }
 
             // generate sub-segments, checking for fit as we go...
             double dt = Utils.deltaTheta(_st[0].theta, _st[3].theta ) / 3;
@@ -266,6 +581,7 @@ public class SisyphusFitter {
             if( sr.error ) {
                 if( LOG_LEVEL > 1 )
                     logState( "Impossible segment analysis result: " + ddp, _testPoint, _st );
+                trouble( FitDiagnostic.Cause.IMPOSSIBLE_SEGMENT, _start, _p );
                 return logFail( _p, MAX_ITERATIONS );
             }
             _st[0].theta = _st[sr.start].theta;
@@ -276,10 +592,23 @@ public class SisyphusFitter {
 
         // we've iterated too much...
         logState( "Too many iterations!", _testPoint, _st );
+        trouble( FitDiagnostic.Cause.TOO_MANY_ITERATIONS, _start, _p );
         return logFail( _p, MAX_ITERATIONS );
     }
 
 
+    // returns the fit tolerance at the given point...
+    private double toleranceAt( final Position _point ) {
+        return tolerancePolicy.toleranceAt( _point.getRho(), baseTolerance, dc.getModel() );
+    }
+
+
+    // records trouble (that we've handled by failing the fit) with the given range of points...
+    private void trouble( final FitDiagnostic.Cause _cause, final int _start, final int _end ) {
+        diagnostics.add( new FitDiagnostic( _cause, _start, _end, points.get( _start ), points.get( _end ), 0 ) );
+    }
+
+
     /**
         Returns true if we can be certain that we DON'T have a fit, if the aperture (the difference in the angles from our test point to the
         two ends of our segment) is less than a certain amount.  We do this by calculating the distance between our test point and an imaginary line
@@ -386,6 +715,8 @@ public class SisyphusFitter {
         if( fits ) {
             _lastFit.theta = _vertice.theta;
             _lastFit.rho = _vertice.rho;
+            _lastFit.x = _vertice.x;
+            _lastFit.y = _vertice.y;
         }
         return fits;
     }
@@ -448,6 +779,171 @@ public class SisyphusFitter {
     }
 
 
+    public FitStrategy getStrategy() {
+        return strategy;
+    }
+
+
+    /**
+     * Sets the strategy this fitter uses.  The default is {@link FitStrategy#GREEDY}.
+     *
+     * @param _strategy the fit strategy.
+     */
+    public void setStrategy( final FitStrategy _strategy ) {
+        strategy = _strategy;
+    }
+
+
+    public FitCache getCache() {
+        return cache;
+    }
+
+
+    /**
+     * Sets the cache this fitter looks in for fits to the same points before fitting them, or null for no cache.
+     *
+     * @param _cache the fit cache.
+     */
+    public void setCache( final FitCache _cache ) {
+        cache = _cache;
+    }
+
+
+    public boolean isKernelEnabled() {
+        return kernelEnabled;
+    }
+
+
+    /**
+     * Sets whether this fitter tests points, circles, and radials a block of points at a time with a {@link FitKernel}, or one point at a time.  The
+     * default is true.
+     *
+     * @param _kernelEnabled true to use the kernel.
+     */
+    public void setKernelEnabled( final boolean _kernelEnabled ) {
+        kernelEnabled = _kernelEnabled;
+    }
+
+
+    public int[] getSpiralSpans() {
+        return spiralSpans;
+    }
+
+
+    /**
+     * Sets the hints for this fitter: the indices of the points ending spans that are nearly arithmetic spirals around the table's center, in increasing
+     * order, or null for no hints.
+     *
+     * @param _spiralSpans the ends of the spiral spans.
+     */
+    public void setSpiralSpans( final int[] _spiralSpans ) {
+        spiralSpans = _spiralSpans;
+    }
+
+
+    /**
+     * Returns the number of times the line to the end of a hinted spiral span fit, saving a binary search.
+     *
+     * @return the number of span fits.
+     */
+    public int getSpanFits() {
+        return spanFits;
+    }
+
+
+    public boolean isHierarchical() {
+        return hierarchical;
+    }
+
+
+    /**
+     * Sets whether this fitter searches a decimated subset of the points before testing lines against all of them.  The default is false.
+     *
+     * @param _hierarchical true to fit hierarchically.
+     */
+    public void setHierarchical( final boolean _hierarchical ) {
+        hierarchical = _hierarchical;
+    }
+
+
+    /**
+     * Returns the number of times a point was tested against a line while generating the vertices.  This is the bulk of the fitter's work.
+     *
+     * @return the number of point tests.
+     */
+    public long getPointTests() {
+        return pointTests;
+    }
+
+
+    /**
+     * Returns the number of times (in hierarchical mode) the candidate found with the decimated points didn't fit all the points, so that the search had
+     * to be refined.
+     *
+     * @return the number of refined searches.
+     */
+    public int getRefinements() {
+        return refinements;
+    }
+
+
+    public boolean isBoundPropagation() {
+        return boundPropagation;
+    }
+
+
+    /**
+     * Sets whether this fitter tries to prove a point fits a spiral line from the spiral point that fit the point before it, before searching the spiral
+     * for the point closest to it.  The default is false.
+     *
+     * @param _boundPropagation true to propagate bounds.
+     */
+    public void setBoundPropagation( final boolean _boundPropagation ) {
+        boundPropagation = _boundPropagation;
+    }
+
+
+    /**
+     * Returns the number of point tests that bound propagation proved fit, without searching the spiral for the closest point.
+     *
+     * @return the number of point tests proved by bounds.
+     */
+    public long getBoundFits() {
+        return boundFits;
+    }
+
+
+    /**
+     * Returns the number of times the fitter searched a spiral line for the point closest to a point being tested.  These are the expensive point tests.
+     *
+     * @return the number of closest point searches.
+     */
+    public long getCurveSearches() {
+        return curveSearches;
+    }
+
+
+    /**
+     * Returns the number of vertices a greedy fit generated.  For a lookahead fit, the difference between this and the number of vertices actually
+     * generated is the saving the lookahead fit made.
+     *
+     * @return the number of vertices a greedy fit generated.
+     */
+    public int getGreedyVertexCount() {
+        return greedyVertexCount;
+    }
+
+
+    /**
+     * Returns the trouble this fitter had generating its vertices, in the order it happened.
+     *
+     * @return the diagnostics for the troublesome ranges of points.
+     */
+    public List<FitDiagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+
     // Returns true if the current logging level is set to a value equal to or greater than the given value.
     private boolean logLevel( final int _level ) {
         return _level <= LOG_LEVEL;
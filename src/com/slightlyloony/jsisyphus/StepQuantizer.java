@@ -0,0 +1,179 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.models.Model;
+import com.slightlyloony.jsisyphus.positions.PolarPosition;
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Instances of this class snap vertices to the step grid of a Sisyphus table model's motors.  The table can't position the ball any more finely than
+ * one theta step or one rho step, so anything finer in a .thr file is wasted.  Vertices that snap to the same step coordinates as the vertex before them
+ * would be zero-length moves for the firmware, so they are dropped (except for the duplicated first and last vertices, which are there on purpose).
+ * The error introduced by the snapping is recorded, so that it can be reported.  Snapped vertices only need enough decimal places to pick out their step
+ * (we use enough to be within 1% of a step), so the formats used to write them are shorter than the usual eight places.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class StepQuantizer {
+
+    private final Model model;
+    private final double thetaStep;  // radians per theta step...
+    private final double rhoStep;    // rho units per rho step...
+    private final long maxRhoSteps;  // the most rho steps that don't go past the edge of the table...
+    private final DecimalFormat thetaFormat;
+    private final DecimalFormat rhoFormat;
+
+    private int quantized;
+    private int dropped;
+    private double maxError;
+    private double sumSquaredError;
+
+
+    /**
+     * Creates a new instance of this class for the given model's step grid.
+     *
+     * @param _model the model of Sisyphus table to quantize for.
+     */
+    public StepQuantizer( final Model _model ) {
+        model = _model;
+        thetaStep = 2 * Math.PI / _model.thetaStepsPerRevolution();
+        rhoStep = 1.0 / (_model.rhoStepsPerMeter() * _model.tableRadiusMeters());
+        maxRhoSteps = (long) Math.floor( _model.rhoStepsPerMeter() * _model.tableRadiusMeters() + 1.0E-9 );
+        thetaFormat = getFormat( thetaStep );
+        rhoFormat = getFormat( rhoStep );
+    }
+
+
+    // returns a format with just enough decimal places to be within 1% of the given step size...
+    private static DecimalFormat getFormat( final double _step ) {
+        int places = (int) Math.ceil( -Math.log10( _step ) ) + 2;
+        StringBuilder pattern = new StringBuilder( "#." );
+        for( int i = 0; i < places; i++ )
+            pattern.append( '#' );
+        return new DecimalFormat( pattern.toString(), DecimalFormatSymbols.getInstance( Locale.ROOT ) );
+    }
+
+
+    /**
+     * Returns a new list of vertices with each of the given vertices snapped to the step grid.  The given vertices are assumed to be massaged (that is,
+     * starting and ending with a duplicated vertex).
+     *
+     * @param _vertices the vertices to quantize.
+     * @return the quantized vertices.
+     */
+    public List<Position> quantize( final List<Position> _vertices ) {
+
+        List<Position> result = new ArrayList<>( _vertices.size() );
+
+        // if we don't have both the starting and the ending pair, there's nothing safe to drop...
+        if( _vertices.size() < 4 ) {
+            for( Position vertice : _vertices )
+                result.add( snap( vertice ) );
+            return result;
+        }
+
+        // the starting pair always stays...
+        result.add( snap( _vertices.get( 0 ) ) );
+        result.add( snap( _vertices.get( 1 ) ) );
+
+        // drop any vertices in between that land on the same steps as the vertex before them...
+        for( int i = 2; i < _vertices.size() - 2; i++ ) {
+            Position vertice = snap( _vertices.get( i ) );
+            if( sameSteps( vertice, result.get( result.size() - 1 ) ) ) {
+                dropped++;
+                continue;
+            }
+            result.add( vertice );
+        }
+
+        // the ending pair always stays, but not anything just before it that lands on the same steps...
+        Position term = snap( _vertices.get( _vertices.size() - 1 ) );
+        snap( _vertices.get( _vertices.size() - 2 ) );  // just for the error statistics...
+        while( (result.size() > 2) && sameSteps( term, result.get( result.size() - 1 ) ) ) {
+            result.remove( result.size() - 1 );
+            dropped++;
+        }
+        result.add( term );
+        result.add( term );
+
+        return result;
+    }
+
+
+    // returns the given vertice snapped to the step grid, accumulating the error statistics; rho is kept on the table, since rounding to the nearest step
+    // could otherwise take a rho of 1 past the edge...
+    private Position snap( final Position _vertice ) {
+
+        long rhoSteps = Math.max( 0, Math.min( maxRhoSteps, Math.round( _vertice.getRho() / rhoStep ) ) );
+        double rho = Math.min( 1, rhoStep * rhoSteps );
+        Position snapped = new PolarPosition( rho, thetaStep * Math.round( _vertice.getTheta() / thetaStep ) );
+
+        double error = Math.hypot( snapped.getX() - _vertice.getX(), snapped.getY() - _vertice.getY() );
+        maxError = Math.max( maxError, error );
+        sumSquaredError += error * error;
+        quantized++;
+
+        return snapped;
+    }
+
+
+    // returns true if the two given (snapped) vertices are at the same step coordinates...
+    private boolean sameSteps( final Position _a, final Position _b ) {
+        return (Math.round( _a.getTheta() / thetaStep ) == Math.round( _b.getTheta() / thetaStep ))
+                && (Math.round( _a.getRho() / rhoStep ) == Math.round( _b.getRho() / rhoStep ));
+    }
+
+
+    public DecimalFormat getThetaFormat() {
+        return thetaFormat;
+    }
+
+
+    public DecimalFormat getRhoFormat() {
+        return rhoFormat;
+    }
+
+
+    /**
+     * Returns the number of vertices dropped because they landed on the same steps as the vertex before them.
+     *
+     * @return the number of vertices dropped.
+     */
+    public int getDropped() {
+        return dropped;
+    }
+
+
+    /**
+     * Returns the largest distance (in rho units) that any vertex was moved by snapping it to the step grid.
+     *
+     * @return the largest quantization error, in rho units.
+     */
+    public double getMaxError() {
+        return maxError;
+    }
+
+
+    /**
+     * Returns the root-mean-square distance (in rho units) that the vertices were moved by snapping them to the step grid.
+     *
+     * @return the RMS quantization error, in rho units.
+     */
+    public double getRmsError() {
+        return (quantized == 0) ? 0 : Math.sqrt( sumSquaredError / quantized );
+    }
+
+
+    @Override
+    public String toString() {
+        return "Quantized " + quantized + " vertices to the " + model.modelName() + " step grid; dropped " + dropped + ", max error " +
+                (1000 * maxError * model.tableRadiusMeters()) + "mm, RMS error " + (1000 * getRmsError() * model.tableRadiusMeters()) + "mm";
+    }
+}
@@ -0,0 +1,36 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.models.Model;
+
+/**
+ * A tolerance policy that never asks for a fit finer than the table's motors can position the ball.  At any rho the ball can only be placed on a grid
+ * of rho steps and theta steps; a theta step moves the ball further the further it is from the center, so the grid is coarsest at the rim.  The tolerance
+ * at a given rho is the base tolerance or the given multiple of the coarser step there, whichever is larger.  With the usual tolerances (half a
+ * millimeter or so) the steps are smaller everywhere and this is the same as a constant tolerance; it only matters for very tight tolerances.
+ *
+ * Instances of this class are immutable and threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class StepResolutionTolerance implements TolerancePolicy {
+
+    private final double steps;
+
+
+    /**
+     * Creates a new instance of this class that allows at least the given number of steps of error.
+     *
+     * @param _steps the minimum tolerance, in steps.
+     */
+    public StepResolutionTolerance( final double _steps ) {
+        steps = _steps;
+    }
+
+
+    @Override
+    public double toleranceAt( final double _rho, final double _baseTolerance, final Model _model ) {
+        double thetaStep = Math.abs( _rho ) * 2 * Math.PI / _model.thetaStepsPerRevolution();
+        double rhoStep = 1.0 / (_model.rhoStepsPerMeter() * _model.tableRadiusMeters());
+        return Math.max( _baseTolerance, steps * Math.max( thetaStep, rhoStep ) );
+    }
+}
@@ -0,0 +1,105 @@
+package com.slightlyloony.jsisyphus;
+
+import java.util.Map;
+
+/**
+ * Instances of this class hold the metrics for one variant generated by a {@link SweepRunner}, and its score.
+ *
+ * Instances of this class are immutable and threadsafe, though the track they refer to is not.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class SweepResult {
+
+    private final AGenerativeTrack track;
+    private final int variant;
+    private final int vertexCount;
+    private final double playbackSeconds;
+    private final double coverage;
+    private final double overdraw;
+    private final double score;
+
+
+    /* package */ SweepResult( final AGenerativeTrack _track, final int _variant, final int _vertexCount, final double _playbackSeconds,
+                               final double _coverage, final double _overdraw, final SweepScorer _scorer ) {
+        track = _track;
+        variant = _variant;
+        vertexCount = _vertexCount;
+        playbackSeconds = _playbackSeconds;
+        coverage = _coverage;
+        overdraw = _overdraw;
+        score = (_scorer == null) ? 0 : _scorer.score( this );
+    }
+
+
+    public AGenerativeTrack getTrack() {
+        return track;
+    }
+
+
+    /**
+     * Returns the index of this variant among those the sweep generated, in the order their seeds and parameters were chosen.
+     *
+     * @return the index of this variant.
+     */
+    public int getVariant() {
+        return variant;
+    }
+
+
+    public long getSeed() {
+        return track.getSeed();
+    }
+
+
+    public Map<String,Double> getParameters() {
+        return track.getParameters();
+    }
+
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+
+    /**
+     * Returns the estimated playback time of the variant, in seconds (see {@link PlaybackTime}).
+     *
+     * @return the estimated playback time.
+     */
+    public double getPlaybackSeconds() {
+        return playbackSeconds;
+    }
+
+
+    /**
+     * Returns the fraction [0..1] of the table the variant covers (see {@link TraceIndex#getCoverage()}).
+     *
+     * @return the fraction of the table covered.
+     */
+    public double getCoverage() {
+        return coverage;
+    }
+
+
+    /**
+     * Returns the fraction [0..1] of the variant's trace that retraces an earlier part of it (see {@link TraceIndex#getOverdrawLength()}).
+     *
+     * @return the fraction of the trace that was overdrawn.
+     */
+    public double getOverdraw() {
+        return overdraw;
+    }
+
+
+    public double getScore() {
+        return score;
+    }
+
+
+    @Override
+    public String toString() {
+        return "seed " + getSeed() + ": score " + score + ", " + vertexCount + " vertices, " + Math.round( playbackSeconds ) + "s, coverage " +
+                coverage + ", overdraw " + overdraw + ", parameters " + getParameters();
+    }
+}
@@ -0,0 +1,214 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.slightlyloony.jsisyphus.Utils.log;
+
+/**
+ * Instances of this class explore the design space of a generative track by generating many variants of it, each with a different seed and randomly
+ * chosen parameters, and keeping the best of them.  The variants are drawn in parallel (each in its own track, and therefore its own drawing context),
+ * then measured and scored.  Only the best few are kept; once all the variants are drawn, those have their PNGs rendered and their track files written,
+ * with the seed in their file names.  Each variant's seed and parameters are logged (and are in its {@link SweepResult}), so any variant can be drawn
+ * again by constructing the track with its seed and setting its parameters.
+ *
+ * The seeds and parameters of all the variants are chosen (in order) from a random number generator seeded with the sweep's seed before any are drawn,
+ * so a sweep with the same seed always generates the same variants, no matter how many threads draw them.  Variants with the same score are ranked in
+ * the order they were chosen, so the same sweep always keeps the same variants, too.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class SweepRunner {
+
+    private final String baseFileName;
+    private final GenerativeTrackFactory factory;
+    private final int variants;
+    private final int keep;
+    private final long seed;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private SweepScorer scorer = SweepScorer.COVERAGE_PER_HOUR;
+    private DrawingSettings settings;
+
+    private final List<SweepResult> best;  // sorted with the best first...
+
+
+    /**
+     * Creates a new instance of this class that generates the given number of variants of a generative track, keeping the given number of the best.
+     *
+     * @param _baseFileName the base file name for the variants; each variant's file name has its seed appended.
+     * @param _factory the factory that makes instances of the generative track.
+     * @param _variants the number of variants to generate.
+     * @param _keep the number of the best variants to keep.
+     * @param _seed the seed used to choose the seeds and parameters of the variants.
+     */
+    public SweepRunner( final String _baseFileName, final GenerativeTrackFactory _factory, final int _variants, final int _keep, final long _seed ) {
+
+        // sanity check...
+        if( (_variants < 1) || (_keep < 1) )
+            throw new IllegalArgumentException( "Invalid sweep size: " + _variants + " variants, keeping " + _keep );
+
+        baseFileName = _baseFileName;
+        factory = _factory;
+        variants = _variants;
+        keep = _keep;
+        seed = _seed;
+        best = new ArrayList<>();
+    }
+
+
+    /**
+     * Generates the variants, then renders and writes the best of them.  A variant that fails while being drawn is logged and skipped.
+     *
+     * @return the results for the best variants, with the best first.
+     * @throws IOException on any problem writing the best variants' files.
+     */
+    public List<SweepResult> run() throws IOException {
+
+        long startTime = System.currentTimeMillis();
+        best.clear();
+
+        // choose all our variants up front, so they don't depend on the order they're drawn in...
+        Random chooser = new Random( seed );
+        List<AGenerativeTrack> tracks = new ArrayList<>( variants );
+        for( int i = 0; i < variants; i++ ) {
+            long variantSeed = chooser.nextLong() & Long.MAX_VALUE;  // no minus signs in our file names...
+            AGenerativeTrack track = factory.create( baseFileName + "-" + variantSeed, variantSeed );
+            track.randomizeParameters( chooser );
+            tracks.add( track );
+        }
+
+        // draw them all in parallel...
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try {
+            List<Future<?>> futures = new ArrayList<>( variants );
+            for( int i = 0; i < tracks.size(); i++ ) {
+                final AGenerativeTrack track = tracks.get( i );
+                final int variant = i;
+                futures.add( executor.submit( new Runnable() {
+                    @Override
+                    public void run() {
+                        generate( track, variant );
+                    }
+                } ) );
+            }
+            tracks.clear();  // so that the variants we don't keep can be garbage collected...
+
+            for( Future<?> future : futures ) {
+                try {
+                    future.get();
+                }
+                catch( ExecutionException _e ) {
+                    log( "Sweep variant failed: " + _e.getCause() );
+                }
+            }
+        }
+        catch( InterruptedException _e ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Sweep interrupted" );
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        // render and write the ones we kept...
+        for( SweepResult result : best ) {
+            AGenerativeTrack track = result.getTrack();
+            log( "Keeping " + result );
+            track.renderPNG( track.pngFileName );
+            track.write( track.trackFileName );
+        }
+
+        log( "Swept " + variants + " variants of " + baseFileName + " in " + (System.currentTimeMillis() - startTime) + "ms" );
+        return Collections.unmodifiableList( new ArrayList<>( best ) );
+    }
+
+
+    // draws, measures, and scores the given variant, keeping it if it's one of the best so far...
+    private void generate( final AGenerativeTrack _track, final int _variant ) {
+
+        if( settings != null )
+            _track.setSettings( settings );
+        TraceIndex traceIndex = new TraceIndex();
+        _track.setTraceIndex( traceIndex );
+        _track.draw();
+
+        List<Position> vertices = _track.dc.getVertices();
+        double traceLength = traceIndex.getTraceLength();
+        SweepResult result = new SweepResult( _track, _variant, vertices.size(), PlaybackTime.seconds( _track.getModel(), vertices ), traceIndex.getCoverage(),
+                (traceLength == 0) ? 0 : traceIndex.getOverdrawLength() / traceLength, scorer );
+        offer( result );
+    }
+
+
+    // keeps the given result if it's one of the best so far; ties go to the variant chosen first, so what's kept doesn't depend on the order the
+    // variants finish in...
+    private synchronized void offer( final SweepResult _result ) {
+        best.add( _result );
+        Collections.sort( best, new Comparator<SweepResult>() {
+            @Override
+            public int compare( final SweepResult _a, final SweepResult _b ) {
+                int byScore = Double.compare( _b.getScore(), _a.getScore() );
+                return (byScore != 0) ? byScore : Integer.compare( _a.getVariant(), _b.getVariant() );
+            }
+        } );
+        if( best.size() > keep )
+            best.remove( best.size() - 1 );
+    }
+
+
+    public int getThreads() {
+        return threads;
+    }
+
+
+    public void setThreads( final int _threads ) {
+
+        // sanity check...
+        if( _threads < 1 )
+            throw new IllegalArgumentException( "Invalid thread count: " + _threads );
+
+        threads = _threads;
+    }
+
+
+    public DrawingSettings getSettings() {
+        return settings;
+    }
+
+
+    /**
+     * Sets the drawing settings every variant is drawn with, or (if null, the default) leaves each variant with the settings it was made with.
+     *
+     * @param _settings the drawing settings for every variant.
+     */
+    public void setSettings( final DrawingSettings _settings ) {
+        settings = _settings;
+    }
+
+
+    public SweepScorer getScorer() {
+        return scorer;
+    }
+
+
+    /**
+     * Sets the scorer used to rank the variants.  The default is {@link SweepScorer#COVERAGE_PER_HOUR}.
+     *
+     * @param _scorer the scorer.
+     */
+    public void setScorer( final SweepScorer _scorer ) {
+        scorer = _scorer;
+    }
+}
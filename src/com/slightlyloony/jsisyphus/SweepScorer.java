@@ -0,0 +1,28 @@
+package com.slightlyloony.jsisyphus;
+
+/**
+ * Implemented by classes (or lambdas) that score the variants generated by a {@link SweepRunner}.  Higher scores are better.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public interface SweepScorer {
+
+    /**
+     * Scores variants by how much of the table they cover per hour of playback.
+     */
+    public static final SweepScorer COVERAGE_PER_HOUR = new SweepScorer() {
+        @Override
+        public double score( final SweepResult _result ) {
+            return _result.getCoverage() / Math.max( 1.0 / 60, _result.getPlaybackSeconds() / 3600 );
+        }
+    };
+
+
+    /**
+     * Returns the score for the given variant.
+     *
+     * @param _result the metrics for the variant.
+     * @return the variant's score.
+     */
+    double score( SweepResult _result );
+}
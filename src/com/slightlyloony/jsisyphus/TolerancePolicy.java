@@ -0,0 +1,26 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.models.Model;
+
+/**
+ * Classes implementing this interface decide how closely a {@link SisyphusFitter} must fit the points of a line, which may vary with the point's
+ * distance from the table's center.  The drawing context's fit tolerance (or the looser one a vertex budget is trying) is the base tolerance that a
+ * policy works from.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public interface TolerancePolicy {
+
+    public static final TolerancePolicy CONSTANT = new ConstantTolerance();
+    public static final TolerancePolicy STEP_RESOLUTION = new StepResolutionTolerance( 1 );
+
+    /**
+     * Returns the fit tolerance (in rho units) for a point at the given rho.
+     *
+     * @param _rho the rho of the point being fitted.
+     * @param _baseTolerance the base fit tolerance, in rho units.
+     * @param _model the model of Sisyphus table being drawn on.
+     * @return the fit tolerance at the given rho.
+     */
+    double toleranceAt( double _rho, double _baseTolerance, Model _model );
+}
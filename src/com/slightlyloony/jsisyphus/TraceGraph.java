@@ -0,0 +1,232 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.models.Model;
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static java.lang.Math.*;
+
+/**
+ * Instances of this class hold the graph of the Sisyphus lines drawn so far, for routing the ball from one place to another without leaving a visible
+ * trace.  The nodes of the graph are the drawn vertices, in drawing order.  Each node is joined to the nodes before and after it (by the Sisyphus line
+ * that was drawn between them), and to any other node within the junction distance (where two drawn paths meet).  The vertices are indexed in a grid of
+ * square cells the size of the junction distance, so that junctions can be found quickly.
+ *
+ * Routes are found with an A* search, where the cost of each edge is the time it takes the table to play it back.  Leaving the graph to get to the
+ * destination costs the time it takes to draw a straight line there, multiplied by a large penalty for being visible.  That way a route entirely through
+ * already drawn lines is always preferred if one exists, and otherwise the route with the least visible line is chosen.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+/* package */ class TraceGraph {
+
+    private static final double VISIBLE_PENALTY = 100;  // how many times worse a visible line is than an invisible one of the same playback time...
+
+    private final double junctionDistance;
+    private final List<Position> nodes;
+    private final Map<Long,List<Integer>> grid;
+
+    // the search state, kept between routes so that each route costs only what it visits; a node's cost and previous node are only valid if its stamp is
+    // the current search's...
+    private final PriorityQueue<Entry> open = new PriorityQueue<>();
+    private double[] cost = new double[0];
+    private int[] previous = new int[0];
+    private int[] stamp = new int[0];
+    private int search;
+
+
+    /**
+     * Creates a new, empty instance of this class that joins nodes within the given distance of each other.
+     *
+     * @param _junctionDistance the distance (in rho units) within which two nodes are considered to be at the same place.
+     */
+    /* package */ TraceGraph( final double _junctionDistance ) {
+        junctionDistance = _junctionDistance;
+        nodes = new ArrayList<>();
+        grid = new HashMap<>();
+    }
+
+
+    /**
+     * Adds the given vertex as the next node of the graph, joined to the node added before it.
+     *
+     * @param _vertice the vertex to add.
+     */
+    /* package */ void add( final Position _vertice ) {
+        long key = key( cell( _vertice.getX() ), cell( _vertice.getY() ) );
+        List<Integer> cellNodes = grid.get( key );
+        if( cellNodes == null ) {
+            cellNodes = new ArrayList<>( 2 );
+            grid.put( key, cellNodes );
+        }
+        cellNodes.add( nodes.size() );
+        nodes.add( _vertice );
+    }
+
+
+    /**
+     * Returns the cheapest route from the given node toward the given destination, as a list of node indices starting with the given node.  If the last
+     * node in the route isn't within the junction distance of the destination, then there is no invisible route and the caller must draw a line from the
+     * last node to the destination.
+     *
+     * @param _start the index of the node to start from.
+     * @param _destination the destination, in absolute table coordinates.
+     * @param _model the model of table whose playback time is to be minimized.
+     * @return the node indices of the route.
+     */
+    /* package */ List<Integer> route( final int _start, final Point _destination, final Model _model ) {
+
+        int n = nodes.size();
+        double secondsPerRho = _model.tableRadiusMeters() / _model.maxBallSpeedMetersPerSecond();
+
+        startSearch();
+        visit( _start, 0, -1 );
+
+        // the heuristic (the straight line time to the destination) never overestimates, as no move is faster than a straight line...
+        open.clear();
+        open.add( new Entry( _start, 0, distance( _start, _destination ) * secondsPerRho ) );
+
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestNode = _start;
+        while( !open.isEmpty() ) {
+
+            Entry entry = open.poll();
+
+            // if nothing left can beat the best route we've found, we're done...
+            if( entry.estimate >= bestCost ) break;
+
+            // if we've found a cheaper way to this node since this entry was queued, skip it...
+            if( entry.cost > costOf( entry.node ) ) continue;
+
+            // see what it would cost to finish from here...
+            double toGo = distance( entry.node, _destination );
+            double finish = entry.cost + toGo * secondsPerRho * ((toGo <= junctionDistance) ? 1 : VISIBLE_PENALTY);
+            if( finish < bestCost ) {
+                bestCost = finish;
+                bestNode = entry.node;
+            }
+
+            // relax the drawn lines on either side of this node...
+            Position here = nodes.get( entry.node );
+            if( entry.node > 0 )
+                relax( entry, entry.node - 1, PlaybackTime.seconds( _model, here, nodes.get( entry.node - 1 ) ),
+                        _destination, secondsPerRho );
+            if( entry.node < n - 1 )
+                relax( entry, entry.node + 1, PlaybackTime.seconds( _model, here, nodes.get( entry.node + 1 ) ),
+                        _destination, secondsPerRho );
+
+            // relax any junctions with this node...
+            int cx = cell( here.getX() );
+            int cy = cell( here.getY() );
+            for( int x = cx - 1; x <= cx + 1; x++ ) {
+                for( int y = cy - 1; y <= cy + 1; y++ ) {
+                    List<Integer> cellNodes = grid.get( key( x, y ) );
+                    if( cellNodes == null ) continue;
+                    for( int other : cellNodes ) {
+                        if( other == entry.node ) continue;
+                        double d = hypot( nodes.get( other ).getX() - here.getX(), nodes.get( other ).getY() - here.getY() );
+                        if( d <= junctionDistance )
+                            relax( entry, other, d * secondsPerRho, _destination, secondsPerRho );
+                    }
+                }
+            }
+        }
+
+        // walk back from the best node to get our route...
+        List<Integer> result = new ArrayList<>();
+        for( int node = bestNode; node >= 0; node = previous[node] )
+            result.add( node );
+        Collections.reverse( result );
+        open.clear();
+        return result;
+    }
+
+
+    // records a cheaper way to the given node, if this is one...
+    private void relax( final Entry _from, final int _to, final double _edgeCost, final Point _destination, final double _secondsPerRho ) {
+
+        double cost = _from.cost + _edgeCost;
+        if( cost >= costOf( _to ) ) return;
+        visit( _to, cost, _from.node );
+        open.add( new Entry( _to, cost, cost + distance( _to, _destination ) * _secondsPerRho ) );
+    }
+
+
+    // starts a new search, making every node's cost infinite without touching them all (unless the search count wraps around)...
+    private void startSearch() {
+
+        // if we have more nodes than room for their search state, make more room...
+        int n = nodes.size();
+        if( stamp.length < n ) {
+            int size = max( n, 2 * stamp.length );
+            cost = Arrays.copyOf( cost, size );
+            previous = Arrays.copyOf( previous, size );
+            stamp = Arrays.copyOf( stamp, size );
+        }
+
+        if( ++search == Integer.MAX_VALUE ) {
+            Arrays.fill( stamp, 0 );
+            search = 1;
+        }
+    }
+
+
+    private double costOf( final int _node ) {
+        return (stamp[_node] == search) ? cost[_node] : Double.POSITIVE_INFINITY;
+    }
+
+
+    private void visit( final int _node, final double _cost, final int _previous ) {
+        cost[_node] = _cost;
+        previous[_node] = _previous;
+        stamp[_node] = search;
+    }
+
+
+    // returns the distance from the given node to the given point...
+    private double distance( final int _node, final Point _point ) {
+        return hypot( nodes.get( _node ).getX() - _point.x, nodes.get( _node ).getY() - _point.y );
+    }
+
+
+    private int cell( final double _coordinate ) {
+        return (int) floor( _coordinate / junctionDistance );
+    }
+
+
+    private long key( final int _x, final int _y ) {
+        return (((long) _x) << 32) | (_y & 0xFFFFFFFFL);
+    }
+
+
+    /**
+     * A node queued for the A* search, with the cost to get to it and the estimated cost of the entire route through it.
+     */
+    private static class Entry implements Comparable<Entry> {
+        private final int node;
+        private final double cost;
+        private final double estimate;
+
+
+        private Entry( final int _node, final double _cost, final double _estimate ) {
+            node = _node;
+            cost = _cost;
+            estimate = _estimate;
+        }
+
+
+        @Override
+        public int compareTo( final Entry _other ) {
+            return Double.compare( estimate, _other.estimate );
+        }
+    }
+}
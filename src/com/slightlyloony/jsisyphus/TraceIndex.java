@@ -0,0 +1,305 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import static java.lang.Math.*;
+
+/**
+ * Instances of this class index the traces drawn on the Sisyphus table, so that questions like "how close is the nearest trace to this point?", "how much
+ * of this annulus has been covered?" and "how much of the track retraces what's already been drawn?" can be answered quickly.  The index is a polar grid:
+ * the table is divided into annuli of equal width, and each annulus is divided into sectors of roughly the same width as the annulus, so that the cells
+ * are all roughly square.  Each vertex added extends the trace with the Sisyphus line (an arithmetic spiral segment) from the previous vertex, which is
+ * sampled at a quarter of the cell size and recorded in the cells its samples fall in.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class TraceIndex {
+
+    private static final int    DEFAULT_RINGS             = 100;
+    private static final double DEFAULT_OVERDRAW_DISTANCE = 0.005;  // in rho units...
+
+    private final int rings;
+    private final double ringWidth;
+    private final double sampleSpacing;
+    private final double overdrawDistance;
+    private final double overdrawGap;     // trace closer than this (along the trace) is the same stroke, not overdraw...
+    private final Cell[][] cells;          // indexed by [ring][sector]...
+
+    private Position last;
+    private double traceLength;
+    private double overdrawLength;
+
+
+    /**
+     * Creates a new instance of this class with the given number of annuli, which counts retraced lines as overdraw when they come within the given
+     * distance of an earlier trace.
+     *
+     * @param _rings the number of annuli to divide the table into.
+     * @param _overdrawDistance the distance (in rho units) within which a trace is considered to be retracing an earlier one.
+     */
+    public TraceIndex( final int _rings, final double _overdrawDistance ) {
+
+        // sanity check...
+        if( (_rings < 1) || (_overdrawDistance <= 0) )
+            throw new IllegalArgumentException( "Invalid trace index parameter(s)" );
+
+        rings = _rings;
+        ringWidth = 1.0 / _rings;
+        sampleSpacing = ringWidth / 4;
+        overdrawDistance = _overdrawDistance;
+        overdrawGap = 3 * _overdrawDistance;
+
+        // make our cells, roughly square...
+        cells = new Cell[rings][];
+        for( int r = 0; r < rings; r++ ) {
+            int sectors = max( 1, (int) round( 2 * PI * (r + 0.5) ) );
+            cells[r] = new Cell[sectors];
+            for( int s = 0; s < sectors; s++ )
+                cells[r][s] = new Cell();
+        }
+    }
+
+
+    /**
+     * Creates a new instance of this class with 100 annuli, which counts retraced lines as overdraw within 0.005 rho of an earlier trace.
+     */
+    public TraceIndex() {
+        this( DEFAULT_RINGS, DEFAULT_OVERDRAW_DISTANCE );
+    }
+
+
+    /**
+     * Adds the given vertex to the trace.  The Sisyphus line from the previously added vertex to this one is sampled and indexed.
+     *
+     * @param _vertex the vertex to add.
+     */
+    public void add( final Position _vertex ) {
+
+        // if this is the first vertex, there's no line yet...
+        if( last == null ) {
+            last = _vertex;
+            return;
+        }
+
+        // figure out how many samples we need along the Sisyphus line (this overestimates its length)...
+        double dRho = _vertex.getRho() - last.getRho();
+        double dTheta = _vertex.getTheta() - last.getTheta();
+        double estLength = abs( dTheta ) * max( last.getRho(), _vertex.getRho() ) + abs( dRho );
+        int samples = (int) ceil( estLength / sampleSpacing );
+
+        // sample along the line, checking for overdraw before we index each sample...
+        double lastX = last.getX();
+        double lastY = last.getY();
+        for( int i = 1; i <= samples; i++ ) {
+
+            double f = 1.0 * i / samples;
+            double rho = last.getRho() + f * dRho;
+            double theta = last.getTheta() + f * dTheta;
+            double x = rho * sin( theta );
+            double y = rho * cos( theta );
+            double length = hypot( x - lastX, y - lastY );
+            traceLength += length;
+
+            if( nearest( x, y, overdrawDistance, traceLength - overdrawGap ) <= overdrawDistance )
+                overdrawLength += length;
+
+            cell( rho, theta ).add( x, y, traceLength );
+            lastX = x;
+            lastY = y;
+        }
+
+        last = _vertex;
+    }
+
+
+    /**
+     * Removes everything from this index.
+     */
+    public void clear() {
+        for( Cell[] ring : cells )
+            for( Cell cell : ring )
+                cell.count = 0;
+        last = null;
+        traceLength = 0;
+        overdrawLength = 0;
+    }
+
+
+    /**
+     * Returns the distance (in rho units) from the given point to the nearest trace, or infinity if nothing has been traced.  The distance is accurate to
+     * within an eighth of the annulus width.
+     *
+     * @param _point the point (in absolute table coordinates) to measure from.
+     * @return the distance to the nearest trace.
+     */
+    public double nearestTrace( final Point _point ) {
+        return nearest( _point.x, _point.y, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY );
+    }
+
+
+    /**
+     * Returns the fraction [0..1] of the cells in the given annulus (with zero being the innermost) that have been traced through.
+     *
+     * @param _ring the annulus to get the coverage for.
+     * @return the fraction of the annulus covered.
+     */
+    public double getCoverage( final int _ring ) {
+        int covered = 0;
+        for( Cell cell : cells[_ring] )
+            if( cell.count > 0 ) covered++;
+        return 1.0 * covered / cells[_ring].length;
+    }
+
+
+    /**
+     * Returns the fraction [0..1] of the cells in each annulus (with the innermost first) that have been traced through.
+     *
+     * @return the fraction of each annulus covered.
+     */
+    public double[] getCoverageByAnnulus() {
+        double[] result = new double[rings];
+        for( int r = 0; r < rings; r++ )
+            result[r] = getCoverage( r );
+        return result;
+    }
+
+
+    /**
+     * Returns the fraction [0..1] of all the cells on the table that have been traced through.
+     *
+     * @return the fraction of the table covered.
+     */
+    public double getCoverage() {
+        int covered = 0;
+        int total = 0;
+        for( Cell[] ring : cells ) {
+            for( Cell cell : ring )
+                if( cell.count > 0 ) covered++;
+            total += ring.length;
+        }
+        return 1.0 * covered / total;
+    }
+
+
+    /**
+     * Returns the total length (in rho units) of the trace.
+     *
+     * @return the total length of the trace.
+     */
+    public double getTraceLength() {
+        return traceLength;
+    }
+
+
+    /**
+     * Returns the length (in rho units) of the trace that retraced (came within the overdraw distance of) an earlier part of the trace.
+     *
+     * @return the length of the trace that was overdrawn.
+     */
+    public double getOverdrawLength() {
+        return overdrawLength;
+    }
+
+
+    public int getRings() {
+        return rings;
+    }
+
+
+    // returns the distance to the nearest sample recorded at or before the given trace length; returns infinity if there is none within the given limit...
+    private double nearest( final double _x, final double _y, final double _limit, final double _maxTraceLength ) {
+
+        double rho = hypot( _x, _y );
+        double theta = atan2( _x, _y );
+
+        // search in successively larger windows until we find something inside the window, or we've searched the whole table...
+        double best = Double.POSITIVE_INFINITY;
+        for( double radius = min( ringWidth, _limit ); ; radius *= 2 ) {
+
+            int firstRing = max( 0, ring( rho - radius ) );
+            int lastRing = ring( rho + radius );
+            for( int r = firstRing; r <= lastRing; r++ ) {
+
+                // figure out which sectors in this ring could hold a sample within the window...
+                Cell[] ring = cells[r];
+                double innerRho = r * ringWidth;
+                int firstSector = 0;
+                int lastSector = ring.length - 1;
+                if( innerRho > radius ) {
+                    double halfWidth = asin( radius / innerRho );
+                    firstSector = sector( ring, theta - halfWidth ) - 1;
+                    lastSector = firstSector + (int) ceil( 2 * halfWidth / (2 * PI / ring.length) ) + 2;
+                    if( lastSector - firstSector >= ring.length ) {
+                        firstSector = 0;
+                        lastSector = ring.length - 1;
+                    }
+                }
+
+                for( int s = firstSector; s <= lastSector; s++ ) {
+                    Cell cell = ring[(s + ring.length) % ring.length];
+                    for( int i = 0; i < cell.count; i++ ) {
+                        int base = 3 * i;
+                        if( cell.data[base + 2] > _maxTraceLength ) continue;
+                        best = min( best, hypot( cell.data[base] - _x, cell.data[base + 1] - _y ) );
+                    }
+                }
+            }
+
+            // if we found something inside the window, nothing outside it can be closer...
+            boolean searchedAll = (firstRing == 0) && (lastRing == rings - 1) && (radius >= (rings - 1) * ringWidth);
+            if( (best <= radius) || (radius >= _limit) || searchedAll )
+                return best;
+        }
+    }
+
+
+    // returns the ring containing the given rho (everything past the edge is in the outer ring)...
+    private int ring( final double _rho ) {
+        return min( rings - 1, (int) floor( _rho / ringWidth ) );
+    }
+
+
+    // returns the sector in the given ring that contains the given theta; with large thetas, rounding can leave the normalized theta a hair outside
+    // [0..2pi), so we clamp the sector on both sides...
+    private int sector( final Cell[] _ring, final double _theta ) {
+        double normal = _theta - 2 * PI * floor( _theta / (2 * PI) );
+        return max( 0, min( _ring.length - 1, (int) floor( normal * _ring.length / (2 * PI) ) ) );
+    }
+
+
+    // returns the cell containing the given polar coordinates...
+    private Cell cell( final double _rho, final double _theta ) {
+        Cell[] ring = cells[ring( _rho )];
+        return ring[sector( ring, _theta )];
+    }
+
+
+    @Override
+    public String toString() {
+        return "Trace length: " + traceLength + ", overdrawn: " + overdrawLength + ", coverage: " + getCoverage();
+    }
+
+
+    /**
+     * Holds the samples (x, y, and trace length at the sample) that fall within one cell of the grid.
+     */
+    private static class Cell {
+        private double[] data = new double[12];
+        private int count;
+
+
+        private void add( final double _x, final double _y, final double _traceLength ) {
+            if( 3 * count == data.length ) {
+                double[] newData = new double[2 * data.length];
+                System.arraycopy( data, 0, newData, 0, data.length );
+                data = newData;
+            }
+            int base = 3 * count++;
+            data[base] = _x;
+            data[base + 1] = _y;
+            data[base + 2] = _traceLength;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.slightlyloony.jsisyphus;
+
+import com.slightlyloony.jsisyphus.positions.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.slightlyloony.jsisyphus.Utils.log;
+
+/**
+ * Instances of this class find the tightest fit tolerance that keeps a track within a budget of vertices and/or .thr file bytes.  The drawing context
+ * keeps the sampled points of every line it draws while a budget is set, so each trial tolerance only repeats the fitting, not the sampling.  The search
+ * starts at the drawing context's own fit tolerance, doubles it until the budget is met, then bisects between the last failure and the first success.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class VertexBudget {
+
+    private static final double MAX_FIT_TOLERANCE_RHO = 0.05;  // we won't loosen beyond 5% of the table radius...
+    private static final int    BISECTIONS            = 8;
+
+    private final int maxVertices;
+    private final int maxBytes;
+    private double tolerance;
+
+
+    /**
+     * Creates a new instance of this class with the given limits.  A limit of zero means that quantity is not limited.
+     *
+     * @param _maxVertices the maximum number of vertices in the .thr file, or zero for no limit.
+     * @param _maxBytes the maximum size of the .thr file in bytes, or zero for no limit.
+     */
+    public VertexBudget( final int _maxVertices, final int _maxBytes ) {
+
+        // sanity check...
+        if( (_maxVertices < 0) || (_maxBytes < 0) || ((_maxVertices == 0) && (_maxBytes == 0)) )
+            throw new IllegalArgumentException( "Invalid vertex budget: " + _maxVertices + " vertices, " + _maxBytes + " bytes" );
+
+        maxVertices = _maxVertices;
+        maxBytes = _maxBytes;
+    }
+
+
+    /**
+     * Fits the given point runs at successively looser tolerances until the result fits within this budget, and returns the vertices for the tightest
+     * tolerance found that does.  If even the loosest tolerance we're willing to try won't meet the budget, the vertices for that loosest tolerance are
+     * returned.
+     *
+     * @param _prefix the vertices that precede the fitted runs (and are not themselves fitted).
+     * @param _runs the point runs, in drawing order, as they were sampled by the drawing context.
+     * @param _dc the drawing context these runs were drawn in.
+     * @return the vertices for the entire track.
+     */
+    public List<Position> fit( final List<Position> _prefix, final List<List<Position>> _runs, final DrawingContext _dc ) {
+
+        long startTime = System.currentTimeMillis();
+
+        // maybe we're already within budget...
+        double lo = _dc.getFitToleranceRho();
+        List<Position> best = fitAll( _prefix, _runs, _dc, lo );
+        tolerance = lo;
+        if( meets( best, _dc ) ) {
+            log( "Track meets vertex budget at fit tolerance " + lo );
+            return best;
+        }
+
+        // double the tolerance until we meet the budget...
+        double hi = lo;
+        while( true ) {
+            hi *= 2;
+            if( hi > MAX_FIT_TOLERANCE_RHO ) {
+                log( "Track can't meet vertex budget; using fit tolerance " + tolerance );
+                return best;
+            }
+            best = fitAll( _prefix, _runs, _dc, hi );
+            tolerance = hi;
+            if( meets( best, _dc ) ) break;
+            lo = hi;
+        }
+
+        // now bisect (geometrically) to find the tightest tolerance that still meets the budget...
+        for( int i = 0; i < BISECTIONS; i++ ) {
+            double mid = Math.sqrt( lo * hi );
+            List<Position> trial = fitAll( _prefix, _runs, _dc, mid );
+            if( meets( trial, _dc ) ) {
+                hi = mid;
+                best = trial;
+                tolerance = mid;
+            }
+            else
+                lo = mid;
+        }
+
+        log( "Track meets vertex budget at fit tolerance " + tolerance + " with " + best.size() + " vertices (" +
+                (System.currentTimeMillis() - startTime) + "ms)" );
+        return best;
+    }
+
+
+    // fits all the given runs at the given tolerance, returning the vertices...
+    private List<Position> fitAll( final List<Position> _prefix, final List<List<Position>> _runs, final DrawingContext _dc, final double _tolerance ) {
+
+        List<Position> result = new ArrayList<>( _prefix );
+        for( List<Position> run : _runs ) {
+            SisyphusFitter fitter = new SisyphusFitter( run, _dc, _tolerance );
+            fitter.setStrategy( _dc.getFitStrategy() );
+            fitter.setHierarchical( _dc.isHierarchicalFit() );
+            fitter.setBoundPropagation( _dc.isBoundPropagation() );
+            fitter.setKernelEnabled( _dc.isKernelFit() );
+            fitter.setCache( _dc.getFitCache() );
+            fitter.generateVertices();
+            result.addAll( fitter.getVertices() );
+        }
+        return result;
+    }
+
+
+    // returns true if the given vertices, once massaged for writing, are within this budget...
+    private boolean meets( final List<Position> _vertices, final DrawingContext _dc ) {
+
+        List<Position> massaged = new ArrayList<>( _vertices );
+        DrawingContext.massage( massaged );
+        StepQuantizer quantizer = _dc.isQuantize() ? new StepQuantizer( _dc.getModel() ) : null;
+        if( quantizer != null )
+            massaged = quantizer.quantize( massaged );
+        if( (maxVertices > 0) && (massaged.size() > maxVertices) )
+            return false;
+        return (maxBytes == 0) || (_dc.render( massaged, quantizer ).length() <= maxBytes);
+    }
+
+
+    public int getMaxVertices() {
+        return maxVertices;
+    }
+
+
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+
+    /**
+     * Returns the fit tolerance (in rho units) chosen by the last fit, or zero if no fit has been done.
+     *
+     * @return the fit tolerance chosen by the last fit.
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+}
@@ -0,0 +1,18 @@
+package com.slightlyloony.jsisyphus.dsl;
+
+/**
+ * Implemented by the nodes of a compiled script that compute a number.  Variables are resolved to slots in an array when the script is parsed, so
+ * evaluation never looks anything up by name.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+/* package */ interface Expression {
+
+    /**
+     * Returns the value of this expression with the given variable values.
+     *
+     * @param _variables the values of the script's variables, indexed by slot.
+     * @return the value of this expression.
+     */
+    double evaluate( double[] _variables );
+}
@@ -0,0 +1,87 @@
+package com.slightlyloony.jsisyphus.dsl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Instances of this class split the source of a track script into tokens.  Words are case-insensitive (they're returned in lower case), a "#" starts a
+ * comment that runs to the end of the line, and blank lines are dropped.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+/* package */ class Lexer {
+
+    private static final String SYMBOLS = "+-*/%^(),=";
+
+    private final String source;
+    private final List<Token> tokens = new ArrayList<>();
+    private int pos;
+    private int line = 1;
+
+
+    /* package */ Lexer( final String _source ) {
+        source = _source;
+    }
+
+
+    /* package */ List<Token> tokenize() {
+
+        while( pos < source.length() ) {
+
+            char c = source.charAt( pos );
+            if( c == '\n' ) {
+                newline();
+                pos++;
+                line++;
+            }
+            else if( Character.isWhitespace( c ) )
+                pos++;
+            else if( c == '#' ) {
+                while( (pos < source.length()) && (source.charAt( pos ) != '\n') )
+                    pos++;
+            }
+            else if( Character.isDigit( c ) || ((c == '.') && (pos + 1 < source.length()) && Character.isDigit( source.charAt( pos + 1 ) )) )
+                number();
+            else if( Character.isLetter( c ) || (c == '_') )
+                word();
+            else if( SYMBOLS.indexOf( c ) >= 0 ) {
+                tokens.add( new Token( Token.Type.SYMBOL, String.valueOf( c ), 0, line ) );
+                pos++;
+            }
+            else
+                throw new IllegalArgumentException( "Script line " + line + ": unexpected character '" + c + "'" );
+        }
+        newline();
+        tokens.add( new Token( Token.Type.END, "", 0, line ) );
+        return tokens;
+    }
+
+
+    // adds a newline token, unless the line was empty...
+    private void newline() {
+        if( !tokens.isEmpty() && (tokens.get( tokens.size() - 1 ).type != Token.Type.NEWLINE) )
+            tokens.add( new Token( Token.Type.NEWLINE, "", 0, line ) );
+    }
+
+
+    private void number() {
+        int start = pos;
+        while( (pos < source.length()) && Character.isDigit( source.charAt( pos ) ) ) pos++;
+        if( (pos < source.length()) && (source.charAt( pos ) == '.') ) {
+            pos++;
+            while( (pos < source.length()) && Character.isDigit( source.charAt( pos ) ) ) pos++;
+        }
+        String text = source.substring( start, pos );
+        tokens.add( new Token( Token.Type.NUMBER, text, Double.parseDouble( text ), line ) );
+    }
+
+
+    private void word() {
+        int start = pos;
+        while( (pos < source.length()) && (Character.isLetterOrDigit( source.charAt( pos ) ) || (source.charAt( pos ) == '_')) ) pos++;
+        tokens.add( new Token( Token.Type.WORD, source.substring( start, pos ).toLowerCase( Locale.ROOT ), 0, line ) );
+    }
+}
@@ -0,0 +1,539 @@
+package com.slightlyloony.jsisyphus.dsl;
+
+import com.slightlyloony.jsisyphus.DrawingContext;
+import com.slightlyloony.jsisyphus.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.Math.*;
+
+/**
+ * Instances of this class parse the tokens of a track script into a tree of statement and expression nodes, resolving every name to a variable slot as
+ * they go.  The result is a {@link Script} that can be run any number of times without being parsed again.  The grammar, one statement to a line:
+ * <pre>
+ *     param NAME = EXPR                           declares a parameter (before any other statement), with its default value
+ *     let NAME = EXPR                             declares a variable (or sets one that's already declared)
+ *     NAME = EXPR                                 sets a variable or parameter
+ *     erase [all] to POINT                        erases the table with a spiral to the point
+ *     line to POINT                               draws a straight line to the point
+ *     line by POINT                               draws a straight line by the point's offset from the current position
+ *     travel to POINT                             moves to the point along already drawn lines, where it can
+ *     arc to POINT [by] ANGLE                     draws a circular arc to the point
+ *     arc around POINT [by] ANGLE                 draws a circular arc around the point
+ *     curve to POINT via POINT [and] POINT        draws a cubic Bézier curve to the first point, with the other two as its control points
+ *     spiral to POINT around POINT turns EXPR     draws an arithmetic spiral to the first point, centered on the second
+ *     rotate (by|to) ANGLE                        rotates the drawing's coordinates
+ *     repeat EXPR times [with NAME]               repeats the statements up to the matching "end", counting from zero in the named variable
+ *     end
+ * </pre>
+ * A POINT is "center", "rim" (the edge of the table at the current position's angle), "rho EXPR[,] theta ANGLE", or "x EXPR[,] y EXPR".  Points are in
+ * the drawing context's relative coordinates, which (for a script track) have the table's center as their origin.  An ANGLE is an expression optionally
+ * followed by "degrees" or "radians" (the default); positive angles are clockwise.  Expressions have the usual operators (+ - * / % ^, with ^ being
+ * power), parentheses, the constant "pi", and the functions sin, cos, tan, atan2, sqrt, abs, min, max, floor, and round.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+/* package */ class Parser {
+
+    private static final Set<String> RESERVED = new HashSet<>( Arrays.asList(
+            "param", "let", "erase", "all", "line", "travel", "arc", "curve", "spiral", "rotate", "repeat", "times", "with", "end", "to", "by", "around",
+            "via", "and", "turns", "center", "rim", "rho", "theta", "x", "y", "degrees", "degree", "radians", "pi" ) );
+
+    private final List<Token> tokens;
+    private final Map<String,Integer> slots = new HashMap<>();
+    private final Map<String,Integer> parameterSlots = new LinkedHashMap<>();
+    private final Map<String,Expression> parameterDefaults = new LinkedHashMap<>();
+    private int pos;
+
+
+    /* package */ Parser( final List<Token> _tokens ) {
+        tokens = _tokens;
+    }
+
+
+    /**
+     * Parses the tokens into a script with the given hash.
+     *
+     * @param _hash the hash of the script's source.
+     * @return the compiled script.
+     */
+    /* package */ Script parse( final String _hash ) {
+        List<Statement> statements = block( false );
+        return new Script( _hash, statements.toArray( new Statement[statements.size()] ), slots.size(), parameterSlots, parameterDefaults );
+    }
+
+
+    // parses statements up to the end of the script or (if we're in a block) the matching "end"...
+    private List<Statement> block( final boolean _nested ) {
+
+        List<Statement> statements = new ArrayList<>();
+        while( true ) {
+
+            Token token = peek();
+            if( token.type == Token.Type.END ) {
+                if( _nested )
+                    throw error( token, "missing 'end'" );
+                return statements;
+            }
+            if( token.is( Token.Type.WORD, "end" ) ) {
+                if( !_nested )
+                    throw error( token, "'end' without 'repeat'" );
+                next();
+                endOfLine();
+                return statements;
+            }
+
+            if( token.is( Token.Type.WORD, "param" ) ) {
+                if( _nested || !statements.isEmpty() )
+                    throw error( token, "parameters must be declared before any other statement" );
+                parameter();
+            }
+            else
+                statements.add( statement() );
+        }
+    }
+
+
+    private void parameter() {
+        next();
+        String name = newName();
+        expect( "=" );
+        Expression value = expression();
+        endOfLine();
+        int slot = declare( name );
+        parameterSlots.put( name, slot );
+        parameterDefaults.put( name, value );
+    }
+
+
+    private Statement statement() {
+
+        Token token = next();
+        if( token.type != Token.Type.WORD )
+            throw error( token, "expected a statement, got " + token );
+
+        Statement statement;
+        switch( token.text ) {
+
+            case "let": {
+                Token nameToken = peek();
+                String name = word( "a variable name" );
+                if( RESERVED.contains( name ) )
+                    throw error( nameToken, "'" + name + "' is a reserved word" );
+                expect( "=" );
+                Expression value = expression();
+                int slot = slots.containsKey( name ) ? slots.get( name ) : declare( name );
+                statement = ( _dc, _v ) -> _v[slot] = value.evaluate( _v );
+                break;
+            }
+
+            case "erase": {
+                accept( "all" );
+                keyword( "to" );
+                PointExpression end = point();
+                statement = ( _dc, _v ) -> _dc.eraseTo( _dc.vectorTo( end.evaluate( _dc, _v ) ) );
+                break;
+            }
+
+            case "line": {
+                if( accept( "by" ) ) {
+                    PointExpression offset = point();
+                    statement = ( _dc, _v ) -> _dc.lineTo( offset.evaluate( _dc, _v ) );
+                }
+                else {
+                    keyword( "to" );
+                    PointExpression end = point();
+                    statement = ( _dc, _v ) -> _dc.lineTo( _dc.vectorTo( end.evaluate( _dc, _v ) ) );
+                }
+                break;
+            }
+
+            case "travel": {
+                keyword( "to" );
+                PointExpression end = point();
+                statement = ( _dc, _v ) -> {
+                    Point vector = _dc.vectorTo( end.evaluate( _dc, _v ) );
+                    if( vector.rho > 0 )
+                        _dc.travelTo( vector );
+                };
+                break;
+            }
+
+            case "arc": {
+                if( accept( "around" ) ) {
+                    PointExpression center = point();
+                    accept( "by" );
+                    Expression angle = angle();
+                    statement = ( _dc, _v ) -> _dc.arcAround( _dc.vectorTo( center.evaluate( _dc, _v ) ), angle.evaluate( _v ) );
+                }
+                else {
+                    keyword( "to" );
+                    PointExpression end = point();
+                    accept( "by" );
+                    Expression angle = angle();
+                    statement = ( _dc, _v ) -> _dc.arcTo( _dc.vectorTo( end.evaluate( _dc, _v ) ), angle.evaluate( _v ) );
+                }
+                break;
+            }
+
+            case "curve": {
+                keyword( "to" );
+                PointExpression end = point();
+                keyword( "via" );
+                PointExpression cp1 = point();
+                if( !accept( "and" ) )
+                    accept( "," );
+                PointExpression cp2 = point();
+                statement = ( _dc, _v ) -> {
+                    Point current = _dc.getCurrentRelativePosition();
+                    Point endPoint = end.evaluate( _dc, _v );
+                    _dc.curveTo( current.vectorTo( cp1.evaluate( _dc, _v ) ), endPoint.vectorTo( cp2.evaluate( _dc, _v ) ), current.vectorTo( endPoint ) );
+                };
+                break;
+            }
+
+            case "spiral": {
+                keyword( "to" );
+                PointExpression end = point();
+                keyword( "around" );
+                PointExpression center = point();
+                keyword( "turns" );
+                Expression turns = expression();
+                statement = ( _dc, _v ) -> {
+                    Point endPoint = end.evaluate( _dc, _v );
+                    Point centerPoint = center.evaluate( _dc, _v );
+
+                    // the spiral leaves (or reaches) the center at the angle of whichever end isn't at the center...
+                    Point fromCenter = centerPoint.vectorTo( _dc.getCurrentRelativePosition() );
+                    double centerTheta = (fromCenter.rho > 0) ? fromCenter.theta : centerPoint.vectorTo( endPoint ).theta;
+                    _dc.spiralTo( _dc.vectorTo( endPoint ), _dc.vectorTo( centerPoint ), centerTheta, (int) round( turns.evaluate( _v ) ) );
+                };
+                break;
+            }
+
+            case "rotate": {
+                boolean by = accept( "by" );
+                if( !by )
+                    keyword( "to" );
+                Expression angle = angle();
+                statement = by ? ( _dc, _v ) -> _dc.rotateBy( angle.evaluate( _v ) ) : ( _dc, _v ) -> _dc.rotateTo( angle.evaluate( _v ) );
+                break;
+            }
+
+            case "repeat": {
+                Expression count = expression();
+                keyword( "times" );
+                int slot = -1;
+                if( accept( "with" ) ) {
+                    String name = word( "a variable name" );
+                    if( RESERVED.contains( name ) )
+                        throw error( token, "'" + name + "' is a reserved word" );
+                    slot = slots.containsKey( name ) ? slots.get( name ) : declare( name );
+                }
+                endOfLine();
+                List<Statement> body = block( true );
+                Statement[] statements = body.toArray( new Statement[body.size()] );
+                int counter = slot;
+                return ( _dc, _v ) -> {
+                    long n = round( count.evaluate( _v ) );
+                    for( long i = 0; i < n; i++ ) {
+                        if( counter >= 0 )
+                            _v[counter] = i;
+                        for( Statement s : statements )
+                            s.execute( _dc, _v );
+                    }
+                };
+            }
+
+            default: {
+
+                // it must be an assignment to something already declared...
+                Integer slot = slots.get( token.text );
+                if( (slot == null) || !peek().is( Token.Type.SYMBOL, "=" ) )
+                    throw error( token, "unknown statement " + token );
+                next();
+                Expression value = expression();
+                int s = slot;
+                statement = ( _dc, _v ) -> _v[s] = value.evaluate( _v );
+                break;
+            }
+        }
+        endOfLine();
+        return statement;
+    }
+
+
+    /*
+     * Points...
+     */
+
+
+    /**
+     * Implemented by nodes that compute a point, in the drawing context's relative coordinates.
+     */
+    /* package */ interface PointExpression {
+        Point evaluate( DrawingContext _dc, double[] _variables );
+    }
+
+
+    private PointExpression point() {
+
+        Token token = next();
+        switch( token.type == Token.Type.WORD ? token.text : "" ) {
+
+            case "center": {
+                Point center = Point.fromXY( 0, 0 );
+                return ( _dc, _v ) -> center;
+            }
+
+            case "rim":
+                return ( _dc, _v ) -> Point.fromRT( 1, _dc.getCurrentRelativePosition().theta );
+
+            case "rho": {
+                Expression rho = expression();
+                accept( "," );
+                keyword( "theta" );
+                Expression theta = angle();
+                return ( _dc, _v ) -> Point.fromRT( rho.evaluate( _v ), theta.evaluate( _v ) );
+            }
+
+            case "x": {
+                Expression x = expression();
+                accept( "," );
+                keyword( "y" );
+                Expression y = expression();
+                return ( _dc, _v ) -> Point.fromXY( x.evaluate( _v ), y.evaluate( _v ) );
+            }
+
+            default:
+                throw error( token, "expected a point (center, rim, rho ... theta ..., or x ... y ...), got " + token );
+        }
+    }
+
+
+    /*
+     * Expressions...
+     */
+
+
+    // parses an expression optionally followed by a unit of angle, returning it in radians...
+    private Expression angle() {
+        Expression angle = expression();
+        if( accept( "degrees" ) || accept( "degree" ) )
+            return _v -> toRadians( angle.evaluate( _v ) );
+        accept( "radians" );
+        return angle;
+    }
+
+
+    private Expression expression() {
+        Expression left = term();
+        while( true ) {
+            Expression l = left;
+            if( accept( "+" ) ) {
+                Expression r = term();
+                left = _v -> l.evaluate( _v ) + r.evaluate( _v );
+            }
+            else if( accept( "-" ) ) {
+                Expression r = term();
+                left = _v -> l.evaluate( _v ) - r.evaluate( _v );
+            }
+            else
+                return left;
+        }
+    }
+
+
+    private Expression term() {
+        Expression left = unary();
+        while( true ) {
+            Expression l = left;
+            if( accept( "*" ) ) {
+                Expression r = unary();
+                left = _v -> l.evaluate( _v ) * r.evaluate( _v );
+            }
+            else if( accept( "/" ) ) {
+                Expression r = unary();
+                left = _v -> l.evaluate( _v ) / r.evaluate( _v );
+            }
+            else if( accept( "%" ) ) {
+                Expression r = unary();
+                left = _v -> l.evaluate( _v ) % r.evaluate( _v );
+            }
+            else
+                return left;
+        }
+    }
+
+
+    private Expression unary() {
+        if( accept( "-" ) ) {
+            Expression operand = unary();
+            return _v -> -operand.evaluate( _v );
+        }
+        Expression base = primary();
+        if( accept( "^" ) ) {
+            Expression exponent = unary();
+            return _v -> pow( base.evaluate( _v ), exponent.evaluate( _v ) );
+        }
+        return base;
+    }
+
+
+    private Expression primary() {
+
+        Token token = next();
+        if( token.type == Token.Type.NUMBER ) {
+            double value = token.number;
+            return _v -> value;
+        }
+        if( token.is( Token.Type.SYMBOL, "(" ) ) {
+            Expression inner = expression();
+            expect( ")" );
+            return inner;
+        }
+        if( token.type != Token.Type.WORD )
+            throw error( token, "expected a number, name, or '(', got " + token );
+
+        if( token.text.equals( "pi" ) )
+            return _v -> PI;
+
+        // a function call...
+        if( peek().is( Token.Type.SYMBOL, "(" ) ) {
+            next();
+            List<Expression> args = new ArrayList<>();
+            if( !accept( ")" ) ) {
+                do {
+                    args.add( expression() );
+                } while( accept( "," ) );
+                expect( ")" );
+            }
+            return function( token, args );
+        }
+
+        // a variable...
+        Integer slot = slots.get( token.text );
+        if( slot == null )
+            throw error( token, "unknown name " + token );
+        int s = slot;
+        return _v -> _v[s];
+    }
+
+
+    private Expression function( final Token _name, final List<Expression> _args ) {
+
+        int arity = (_name.text.equals( "atan2" ) || _name.text.equals( "min" ) || _name.text.equals( "max" )) ? 2 : 1;
+        if( _args.size() != arity )
+            throw error( _name, "'" + _name.text + "' takes " + arity + " argument" + ((arity == 1) ? "" : "s") );
+        Expression a = _args.get( 0 );
+        Expression b = (arity == 2) ? _args.get( 1 ) : null;
+
+        switch( _name.text ) {
+            case "sin":   return _v -> sin( a.evaluate( _v ) );
+            case "cos":   return _v -> cos( a.evaluate( _v ) );
+            case "tan":   return _v -> tan( a.evaluate( _v ) );
+            case "sqrt":  return _v -> sqrt( a.evaluate( _v ) );
+            case "abs":   return _v -> abs( a.evaluate( _v ) );
+            case "floor": return _v -> floor( a.evaluate( _v ) );
+            case "round": return _v -> rint( a.evaluate( _v ) );
+            case "atan2": return _v -> atan2( a.evaluate( _v ), b.evaluate( _v ) );
+            case "min":   return _v -> min( a.evaluate( _v ), b.evaluate( _v ) );
+            case "max":   return _v -> max( a.evaluate( _v ), b.evaluate( _v ) );
+            default:      throw error( _name, "unknown function " + _name );
+        }
+    }
+
+
+    /*
+     * Tokens...
+     */
+
+
+    private int declare( final String _name ) {
+        int slot = slots.size();
+        slots.put( _name, slot );
+        return slot;
+    }
+
+
+    // reads a name that hasn't been declared yet...
+    private String newName() {
+        Token token = peek();
+        String name = word( "a name" );
+        if( RESERVED.contains( name ) )
+            throw error( token, "'" + name + "' is a reserved word" );
+        if( slots.containsKey( name ) )
+            throw error( token, "'" + name + "' is already declared" );
+        return name;
+    }
+
+
+    private String word( final String _what ) {
+        Token token = next();
+        if( token.type != Token.Type.WORD )
+            throw error( token, "expected " + _what + ", got " + token );
+        return token.text;
+    }
+
+
+    private void keyword( final String _keyword ) {
+        Token token = next();
+        if( !token.is( Token.Type.WORD, _keyword ) )
+            throw error( token, "expected '" + _keyword + "', got " + token );
+    }
+
+
+    private void expect( final String _symbol ) {
+        Token token = next();
+        if( !token.is( Token.Type.SYMBOL, _symbol ) )
+            throw error( token, "expected '" + _symbol + "', got " + token );
+    }
+
+
+    // consumes the next token if it's the given word or symbol, returning true if it was...
+    private boolean accept( final String _text ) {
+        Token token = peek();
+        if( ((token.type == Token.Type.WORD) || (token.type == Token.Type.SYMBOL)) && token.text.equals( _text ) ) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+
+    private void endOfLine() {
+        Token token = peek();
+        if( token.type == Token.Type.END )
+            return;
+        if( token.type != Token.Type.NEWLINE )
+            throw error( token, "expected end of line, got " + token );
+        pos++;
+    }
+
+
+    private Token peek() {
+        return tokens.get( pos );
+    }
+
+
+    private Token next() {
+        Token token = tokens.get( pos );
+        if( token.type != Token.Type.END )
+            pos++;
+        return token;
+    }
+
+
+    private IllegalArgumentException error( final Token _token, final String _message ) {
+        return new IllegalArgumentException( "Script line " + _token.line + ": " + _message );
+    }
+}
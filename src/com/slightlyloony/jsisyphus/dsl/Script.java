@@ -0,0 +1,176 @@
+package com.slightlyloony.jsisyphus.dsl;
+
+import com.slightlyloony.jsisyphus.DrawingContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instances of this class are compiled track scripts, ready to run against a drawing context.  A track script is a text file in a small language made
+ * just for drawing tracks (see {@link Parser} for its grammar), so that tracks can be written without writing (and compiling) Java.  For example:
+ * <pre>
+ *     param petals = 6
+ *     erase all to center
+ *     repeat petals times with i
+ *         line to rho .9, theta i * 360 / petals degrees
+ *         arc around center by 360 / petals degrees
+ *         line to center
+ *     end
+ * </pre>
+ * Compiled scripts are cached by the SHA-256 hash of their source, so compiling the same source again (for instance, when regenerating a track after
+ * changing only its parameters) costs just the hash.  A compiled script holds no state of its own while it runs, so it may be run any number of times, with
+ * any parameter values, on any number of threads at once.
+ *
+ * Instances of this class are immutable and threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class Script {
+
+    private static final Map<String,Script> cache = new ConcurrentHashMap<>();
+
+    private final String hash;
+    private final Statement[] statements;
+    private final int variableCount;
+    private final Map<String,Integer> parameterSlots;
+    private final Map<String,Expression> parameterDefaults;
+
+
+    /* package */ Script( final String _hash, final Statement[] _statements, final int _variableCount, final Map<String,Integer> _parameterSlots,
+                          final Map<String,Expression> _parameterDefaults ) {
+        hash = _hash;
+        statements = _statements;
+        variableCount = _variableCount;
+        parameterSlots = _parameterSlots;
+        parameterDefaults = _parameterDefaults;
+    }
+
+
+    /**
+     * Returns the compiled form of the given script source, from the cache if the same source has been compiled before.
+     *
+     * @param _source the source of the script.
+     * @return the compiled script.
+     * @throws IllegalArgumentException if the script has an error in it; the message says what, and on which line.
+     */
+    public static Script compile( final String _source ) {
+        String hash = sha256( _source );
+        return cache.computeIfAbsent( hash, _hash -> new Parser( new Lexer( _source ).tokenize() ).parse( _hash ) );
+    }
+
+
+    /**
+     * Returns the compiled form of the script in the file with the given name (which must be UTF-8 encoded).
+     *
+     * @param _fileName the name of the script file.
+     * @return the compiled script.
+     * @throws IOException on any problem reading the file.
+     */
+    public static Script load( final String _fileName ) throws IOException {
+        return compile( new String( Files.readAllBytes( Paths.get( _fileName ) ), StandardCharsets.UTF_8 ) );
+    }
+
+
+    /**
+     * Runs this script against the given drawing context, with its parameters at their default values.
+     *
+     * @param _dc the drawing context to draw into.
+     */
+    public void run( final DrawingContext _dc ) {
+        run( _dc, Collections.emptyMap() );
+    }
+
+
+    /**
+     * Runs this script against the given drawing context, with the given parameter values.  Any parameter not given has its default value.
+     *
+     * @param _dc the drawing context to draw into.
+     * @param _parameters the values of the parameters to set, by name.
+     */
+    public void run( final DrawingContext _dc, final Map<String,Double> _parameters ) {
+        double[] variables = parameterValues( _parameters );
+        for( Statement statement : statements )
+            statement.execute( _dc, variables );
+    }
+
+
+    /**
+     * Returns the default values of this script's parameters, by name, in the order they're declared.
+     *
+     * @return the default parameter values.
+     */
+    public Map<String,Double> getParameters() {
+        double[] variables = parameterValues( Collections.emptyMap() );
+        Map<String,Double> result = new LinkedHashMap<>();
+        for( Map.Entry<String,Integer> entry : parameterSlots.entrySet() )
+            result.put( entry.getKey(), variables[entry.getValue()] );
+        return Collections.unmodifiableMap( result );
+    }
+
+
+    // returns new variables with the parameters set; each default is evaluated in order, so it may use the parameters declared before it...
+    private double[] parameterValues( final Map<String,Double> _parameters ) {
+
+        // sanity check...
+        for( String name : _parameters.keySet() )
+            if( !parameterSlots.containsKey( name ) )
+                throw new IllegalArgumentException( "Script has no parameter named " + name );
+
+        double[] variables = new double[variableCount];
+        for( Map.Entry<String,Integer> entry : parameterSlots.entrySet() ) {
+            Double value = _parameters.get( entry.getKey() );
+            variables[entry.getValue()] = (value != null) ? value : parameterDefaults.get( entry.getKey() ).evaluate( variables );
+        }
+        return variables;
+    }
+
+
+    /**
+     * Returns the SHA-256 hash of this script's source, in hexadecimal.
+     *
+     * @return the hash of this script's source.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+
+    /**
+     * Returns the number of compiled scripts in the cache.
+     *
+     * @return the number of cached scripts.
+     */
+    public static int getCacheSize() {
+        return cache.size();
+    }
+
+
+    /**
+     * Empties the cache of compiled scripts.
+     */
+    public static void clearCache() {
+        cache.clear();
+    }
+
+
+    private static String sha256( final String _source ) {
+        try {
+            byte[] digest = MessageDigest.getInstance( "SHA-256" ).digest( _source.getBytes( StandardCharsets.UTF_8 ) );
+            StringBuilder sb = new StringBuilder( 2 * digest.length );
+            for( byte b : digest )
+                sb.append( String.format( "%02x", b & 0xff ) );
+            return sb.toString();
+        }
+        catch( NoSuchAlgorithmException _e ) {
+            throw new IllegalStateException( "No SHA-256?", _e );
+        }
+    }
+}
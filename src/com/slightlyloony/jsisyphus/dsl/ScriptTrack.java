@@ -0,0 +1,60 @@
+package com.slightlyloony.jsisyphus.dsl;
+
+import com.slightlyloony.jsisyphus.ATrack;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A track defined by a track script (see {@link Script}) rather than by Java code.  The track and PNG files are written beside the script file, with the
+ * same name but the usual extensions.  The script's parameters can be set before the track is traced; compiled scripts are cached, so tracing the same
+ * script again with other parameters doesn't parse it again.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class ScriptTrack extends ATrack {
+
+    private final String scriptFileName;
+    private final Map<String,Double> parameters = new HashMap<>();
+
+
+    /**
+     * Creates a new instance of this class for the script in the file with the given name.
+     *
+     * @param _scriptFileName the name of the script file.
+     */
+    public ScriptTrack( final String _scriptFileName ) {
+        super( baseFileName( _scriptFileName ) );
+        scriptFileName = _scriptFileName;
+    }
+
+
+    /**
+     * Sets the value of the script parameter with the given name, overriding its default value.
+     *
+     * @param _name the name of the parameter.
+     * @param _value the value of the parameter.
+     */
+    public void setParameter( final String _name, final double _value ) {
+        parameters.put( _name, _value );
+    }
+
+
+    public void trace() throws IOException {
+        Script script = Script.load( scriptFileName );
+        script.run( dc, parameters );
+        dc.renderPNG( pngFileName );
+        dc.write( trackFileName );
+    }
+
+
+    // returns the script file's name without its extension...
+    private static String baseFileName( final String _scriptFileName ) {
+        int dot = _scriptFileName.lastIndexOf( '.' );
+        int slash = Math.max( _scriptFileName.lastIndexOf( '/' ), _scriptFileName.lastIndexOf( '\\' ) );
+        return (dot > slash) ? _scriptFileName.substring( 0, dot ) : _scriptFileName;
+    }
+}
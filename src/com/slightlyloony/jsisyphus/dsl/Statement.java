@@ -0,0 +1,19 @@
+package com.slightlyloony.jsisyphus.dsl;
+
+import com.slightlyloony.jsisyphus.DrawingContext;
+
+/**
+ * Implemented by the nodes of a compiled script that do something: draw into a drawing context, set a variable, or run other statements.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+/* package */ interface Statement {
+
+    /**
+     * Executes this statement.
+     *
+     * @param _dc the drawing context to draw into.
+     * @param _variables the values of the script's variables, indexed by slot.
+     */
+    void execute( DrawingContext _dc, double[] _variables );
+}
@@ -0,0 +1,46 @@
+package com.slightlyloony.jsisyphus.dsl;
+
+/**
+ * Instances of this class represent a single token in a track script: a number, a word (a keyword or a name), a symbol, or the end of a line.
+ *
+ * Instances of this class are immutable and threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+/* package */ class Token {
+
+    /**
+     * Enumerates the kinds of token.
+     */
+    /* package */ enum Type {
+        NUMBER,   // a numeric literal...
+        WORD,     // a keyword or a name, always in lower case...
+        SYMBOL,   // a single character operator or punctuation...
+        NEWLINE,  // the end of a line...
+        END       // the end of the script...
+    }
+
+    /* package */ final Type type;
+    /* package */ final String text;
+    /* package */ final double number;
+    /* package */ final int line;
+
+
+    /* package */ Token( final Type _type, final String _text, final double _number, final int _line ) {
+        type = _type;
+        text = _text;
+        number = _number;
+        line = _line;
+    }
+
+
+    /* package */ boolean is( final Type _type, final String _text ) {
+        return (type == _type) && text.equals( _text );
+    }
+
+
+    @Override
+    public String toString() {
+        return (type == Type.NEWLINE) ? "end of line" : (type == Type.END) ? "end of script" : "'" + text + "'";
+    }
+}
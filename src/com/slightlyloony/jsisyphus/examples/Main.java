@@ -1,12 +1,20 @@
 package com.slightlyloony.jsisyphus.examples;
 
+import com.slightlyloony.jsisyphus.FitCache;
+
 import java.io.IOException;
 
+import static com.slightlyloony.jsisyphus.Utils.log;
+
 
 public class Main {
 
     public static void main(String[] args) throws IOException {
 
+        // cache fits between runs, so that retracing a track only fits what's changed...
+        FitCache cache = new FitCache( "fitcache", 64 << 20 );
+        FitCache.setDefault( cache );
+
         new LineTests()             .traceIfNeeded();
 
         new SimpleRadiance()        .traceIfNeeded();
@@ -27,5 +35,8 @@ public class Main {
         new OrbitalMechanics()      .traceIfNeeded();
         new RandomlyCircular()      .traceIfNeeded();
         new RandomlyCircular2()     .trace();
+
+        log( cache.toString() );
+        cache.close();
     }
 }
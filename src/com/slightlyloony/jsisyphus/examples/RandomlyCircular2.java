@@ -1,39 +1,51 @@
 package com.slightlyloony.jsisyphus.examples;
 
-import com.slightlyloony.jsisyphus.ATrack;
+import com.slightlyloony.jsisyphus.AGenerativeTrack;
 import com.slightlyloony.jsisyphus.Point;
 
-import java.io.IOException;
-import java.util.Random;
-
 import static java.lang.Math.PI;
 
 /**
  * @author Tom Dilatush  tom@dilatush.com
  */
-public class RandomlyCircular2 extends ATrack {
-
-    private final Random random = new Random( System.currentTimeMillis() );
+public class RandomlyCircular2 extends AGenerativeTrack {
 
 
     public RandomlyCircular2() {
-        super( "RandomlyCircular2" );
+        this( "RandomlyCircular2", System.currentTimeMillis() );
+    }
+
+
+    public RandomlyCircular2( final String _baseFileName, final long _seed ) {
+        super( _baseFileName, _seed );
+
+        // givens...
+        parameter(    "minArcWidth",   0.5,  0.1,  1.5  );
+        parameter(    "maxArcWidth",   2.5,  1.5,  5.0  );
+        parameter(    "minTransWidth", 0.5,  0.2,  0.8  );
+        parameter(    "maxTransWidth", 1.0,  0.8,  2.0  );
+        intParameter( "arcLevels",     100,  20,   200  );
+        intParameter( "maxDeltaLevel", 5,    1,    15   );
+        parameter(    "minLevel",      0.1,  0.05, 0.3  );
+        parameter(    "maxLevel",      0.9,  0.7,  1.0  );
+        intParameter( "iterations",    1000, 100,  1500 );
+        parameter(    "controlK",      0.4,  0.1,  0.8  );
     }
 
 
-    public void trace() throws IOException {
+    protected void draw() {
 
         // givens...
-        double minArcWidth     = 0.5;
-        double maxArcWidth     = 2.5;
-        double minTransWidth   = 0.5;
-        double maxTransWidth   = 1.0;
-        int    arcLevels       = 100;
-        int    maxDeltaLevel   = 5;
-        double minLevel        = 0.1;
-        double maxLevel        = 0.9;
-        int    iterations      = 1000;
-        double controlK        = 0.4;
+        double minArcWidth     = param( "minArcWidth" );
+        double maxArcWidth     = param( "maxArcWidth" );
+        double minTransWidth   = param( "minTransWidth" );
+        double maxTransWidth   = param( "maxTransWidth" );
+        int    arcLevels       = intParam( "arcLevels" );
+        int    maxDeltaLevel   = intParam( "maxDeltaLevel" );
+        double minLevel        = param( "minLevel" );
+        double maxLevel        = param( "maxLevel" );
+        int    iterations      = intParam( "iterations" );
+        double controlK        = param( "controlK" );
 
         // first we erase out to the min level...
         eraseTo( Point.fromRT( minLevel, 0 ) );
@@ -65,9 +77,6 @@ public class RandomlyCircular2 extends ATrack {
             curveTo( cp1, cp2, vectorTo( end ) );
             angle += transitionWidth;
         }
-
-        renderPNG( pngFileName );
-        write( trackFileName );
     }
 
 
@@ -0,0 +1,18 @@
+package com.slightlyloony.jsisyphus.examples;
+
+import com.slightlyloony.jsisyphus.SweepRunner;
+
+import java.io.IOException;
+
+/**
+ * Sweeps the design space of a generative track, writing the best few variants.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class Sweep {
+
+    public static void main( String[] args ) throws IOException {
+
+        new SweepRunner( "RandomlyCircular2", RandomlyCircular2::new, 32, 4, 1 ).run();
+    }
+}
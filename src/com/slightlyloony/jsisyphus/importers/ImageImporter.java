@@ -0,0 +1,591 @@
+package com.slightlyloony.jsisyphus.importers;
+
+import com.slightlyloony.jsisyphus.Delta;
+import com.slightlyloony.jsisyphus.DrawingContext;
+import com.slightlyloony.jsisyphus.Point;
+import com.slightlyloony.jsisyphus.lines.Line;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.slightlyloony.jsisyphus.Utils.log;
+import static java.lang.Math.*;
+
+/**
+ * Instances of this class turn a raster image (a photo, say) into a single continuous line in a drawing context.  The image is reduced to a grid of
+ * darkness values, at a resolution that suits the table rather than the image.  An image file is read in bands of rows, subsampled as it's read, so that
+ * even a large image is never entirely in memory.  The grid is mapped onto the table just as {@link SvgImporter} maps a view box: centered on the drawing
+ * context's relative origin, with the image's corners on a circle of the importer's radius.  Then it's drawn in one of two ways:
+ * <ul>
+ *     <li>{@link Mode#SPIRAL}: an arithmetic spiral from the center out to the radius, with rho wiggled back and forth across the spiral by an amount
+ *     proportional to the darkness under it.  Dark areas get a dense, heavily grooved spiral; light areas a plain one.</li>
+ *     <li>{@link Mode#EDGES}: the edges in the image (found with a Sobel filter and thinned), traced into chains and drawn one after another, nearest
+ *     first, with the ball traveling between them along the lines already drawn wherever it can.</li>
+ * </ul>
+ * Either way, the lines drawn go through the drawing context, and are fitted like any others.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class ImageImporter {
+
+    /**
+     * Enumerates the ways an image can be drawn.
+     */
+    public enum Mode {
+        SPIRAL,  // a spiral with its rho modulated by the darkness...
+        EDGES    // the edges in the image, traced and joined...
+    }
+
+    private static final int BAND_ROWS = 64;  // the number of (subsampled) rows read from an image file at once...
+
+    private final DrawingContext dc;
+    private Mode mode = Mode.SPIRAL;
+    private double radius = 1;
+    private int resolution = 300;       // the number of grid cells across the longer side of the image...
+    private int rings = 60;             // the number of turns of the spiral...
+    private double edgeThreshold = 0.2; // the minimum edge strength, as a fraction of the strongest edge...
+    private int minEdgeLength = 4;      // the minimum length of an edge chain, in grid cells...
+
+    // the grid of darkness, from 0 (white) to 1 (black)...
+    private int cols;
+    private int rows;
+    private double cellSize;  // in image pixels...
+    private double[] sums;
+    private int[] counts;
+    private float[] darkness;
+    private double scale;     // in rho units per grid cell...
+
+
+    /**
+     * Creates a new instance of this class that imports into the given drawing context.
+     *
+     * @param _dc the drawing context to import into.
+     */
+    public ImageImporter( final DrawingContext _dc ) {
+        dc = _dc;
+    }
+
+
+    /**
+     * Imports the image in the file with the given name, in any format ImageIO can read.
+     *
+     * @param _fileName the name of the image file.
+     * @throws IOException on any problem reading the image.
+     */
+    public void importFile( final String _fileName ) throws IOException {
+
+        long startTime = System.currentTimeMillis();
+        try( ImageInputStream input = ImageIO.createImageInputStream( new File( _fileName ) ) ) {
+
+            if( input == null )
+                throw new IOException( "Can't read image file: " + _fileName );
+            Iterator<ImageReader> readers = ImageIO.getImageReaders( input );
+            if( !readers.hasNext() )
+                throw new IOException( "Unknown image format: " + _fileName );
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput( input, true, true );
+                int width = reader.getWidth( 0 );
+                int height = reader.getHeight( 0 );
+                int stride = startGrid( width, height );
+
+                // read the image a band of rows at a time, subsampling as we go...
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling( stride, stride, 0, 0 );
+                for( int y = 0; y < height; y += BAND_ROWS * stride ) {
+                    param.setSourceRegion( new Rectangle( 0, y, width, min( BAND_ROWS * stride, height - y ) ) );
+                    BufferedImage band = reader.read( 0, param );
+                    int[] rgb = band.getRGB( 0, 0, band.getWidth(), band.getHeight(), null, 0, band.getWidth() );
+                    for( int j = 0; j < band.getHeight(); j++ )
+                        accumulateRow( rgb, j * band.getWidth(), band.getWidth(), stride, y + j * stride );
+                }
+            }
+            finally {
+                reader.dispose();
+            }
+        }
+        finishGrid();
+        log( "Read " + cols + " x " + rows + " grid from " + _fileName + " in " + (System.currentTimeMillis() - startTime) + "ms" );
+        draw();
+        log( "Imported " + _fileName + " in " + (System.currentTimeMillis() - startTime) + "ms" );
+    }
+
+
+    /**
+     * Imports the given image.
+     *
+     * @param _image the image to import.
+     */
+    public void importImage( final BufferedImage _image ) {
+
+        int width = _image.getWidth();
+        int stride = startGrid( width, _image.getHeight() );
+        int[] rgb = new int[width];
+        for( int y = 0; y < _image.getHeight(); y += stride ) {
+            _image.getRGB( 0, y, width, 1, rgb, 0, width );
+            accumulateRow( rgb, 0, width, 1, y );
+        }
+        finishGrid();
+        draw();
+    }
+
+
+    // sets up an empty grid for an image of the given size, returning the subsampling stride to read it with...
+    private int startGrid( final int _width, final int _height ) {
+
+        // sanity check...
+        if( (_width < 1) || (_height < 1) )
+            throw new IllegalArgumentException( "Empty image" );
+
+        cellSize = max( 1.0, 1.0 * max( _width, _height ) / resolution );
+        cols = (int) ceil( _width / cellSize );
+        rows = (int) ceil( _height / cellSize );
+        sums = new double[cols * rows];
+        counts = new int[cols * rows];
+
+        // a few samples per cell in each direction are plenty...
+        return max( 1, (int) (cellSize / 3) );
+    }
+
+
+    // adds the darkness of the pixels in the given row (every stride pixels in the source image) to the grid...
+    private void accumulateRow( final int[] _rgb, final int _offset, final int _count, final int _stride, final int _sourceY ) {
+
+        int row = min( rows - 1, (int) (_sourceY / cellSize) );
+        for( int i = 0; i < _count; i++ ) {
+
+            int pixel = _rgb[_offset + i];
+            double alpha = (pixel >>> 24) / 255.0;
+            double luminance = (0.299 * ((pixel >> 16) & 0xff) + 0.587 * ((pixel >> 8) & 0xff) + 0.114 * (pixel & 0xff)) / 255.0;
+
+            // transparent pixels are white, like the sand...
+            int cell = row * cols + min( cols - 1, (int) (i * _stride / cellSize) );
+            sums[cell] += alpha * (1 - luminance);
+            counts[cell]++;
+        }
+    }
+
+
+    // turns the accumulated sums into darkness, stretched to the full range...
+    private void finishGrid() {
+
+        darkness = new float[cols * rows];
+        double least = 1;
+        double most = 0;
+        for( int i = 0; i < darkness.length; i++ ) {
+            darkness[i] = (counts[i] == 0) ? 0 : (float) (sums[i] / counts[i]);
+            least = min( least, darkness[i] );
+            most = max( most, darkness[i] );
+        }
+        if( most - least > 0.01 )
+            for( int i = 0; i < darkness.length; i++ )
+                darkness[i] = (float) ((darkness[i] - least) / (most - least));
+        sums = null;
+        counts = null;
+        scale = 2 * radius / hypot( cols, rows );
+    }
+
+
+    private void draw() {
+        if( mode == Mode.SPIRAL )
+            drawSpiral();
+        else
+            drawEdges();
+    }
+
+
+    /*
+     * Spiral mode...
+     */
+
+
+    // draws a spiral from the center out, with its rho modulated by the darkness of the image under it...
+    private void drawSpiral() {
+
+        double pitch = radius / rings;
+        double step = pitch / 8;          // the path length between points...
+        double amplitude = 0.45 * pitch;  // just short of touching the neighboring turns...
+        double wavelength = pitch;
+
+        // start at the center...
+        Point center = dc.getCurrentRelativePosition();
+        center = center.vectorTo( Point.fromXY( 0, 0 ) );
+        if( center.rho > 0 )
+            dc.travelTo( center );
+
+        // draw a turn at a time, so each line the drawing context fits is a reasonable size...
+        Point current = dc.getCurrentRelativePosition();
+        double lastX = current.x;
+        double lastY = current.y;
+        double maxTheta = 2 * PI * rings;
+        double nextTurn = 2 * PI;
+        double theta = 0;
+        double phase = 0;
+        List<Delta> deltas = new ArrayList<>();
+        while( theta < maxTheta ) {
+
+            double base = pitch * theta / (2 * PI);
+            double dTheta = step / max( base, pitch );
+            theta = min( theta + dTheta, maxTheta );
+            phase += 2 * PI * step / wavelength;
+            base = pitch * theta / (2 * PI);
+
+            // taper the wiggle off at the center and the edge...
+            double taper = min( 1, min( base, radius - base ) / pitch );
+            double rho = base + taper * amplitude * darknessAt( base * sin( theta ), base * cos( theta ) ) * sin( phase );
+            double x = rho * sin( theta );
+            double y = rho * cos( theta );
+            deltas.add( new Delta( x - lastX, y - lastY ) );
+            lastX = x;
+            lastY = y;
+
+            if( (theta >= nextTurn) || (theta >= maxTheta) ) {
+                dc.draw( new ImageLine( deltas ) );
+                deltas = new ArrayList<>();
+                nextTurn += 2 * PI;
+            }
+        }
+    }
+
+
+    // returns the darkness of the image at the given point (in rho units, relative to the drawing context's relative origin), or 0 if it's off the image...
+    private double darknessAt( final double _x, final double _y ) {
+
+        double u = _x / scale + cols / 2.0 - 0.5;
+        double v = rows / 2.0 - _y / scale - 0.5;
+        if( (u < -0.5) || (v < -0.5) || (u > cols - 0.5) || (v > rows - 0.5) )
+            return 0;
+
+        // interpolate bilinearly between the cells around the point...
+        u = max( 0, min( cols - 1, u ) );
+        v = max( 0, min( rows - 1, v ) );
+        int c = min( cols - 2, (int) u );
+        int r = min( rows - 2, (int) v );
+        if( (c < 0) || (r < 0) )
+            return darkness[(int) v * cols + (int) u];
+        double fu = u - c;
+        double fv = v - r;
+        int i = r * cols + c;
+        return (1 - fv) * ((1 - fu) * darkness[i] + fu * darkness[i + 1]) + fv * ((1 - fu) * darkness[i + cols] + fu * darkness[i + cols + 1]);
+    }
+
+
+    /*
+     * Edge mode...
+     */
+
+
+    // draws the edges in the image, as chains joined nearest first...
+    private void drawEdges() {
+
+        boolean[] edges = findEdges();
+        List<int[]> chains = traceChains( edges );
+
+        // draw the nearest chain (from either end) next, until they're all drawn...
+        Point current = dc.getCurrentRelativePosition();
+        boolean[] drawn = new boolean[chains.size()];
+        for( int n = 0; n < chains.size(); n++ ) {
+
+            int best = -1;
+            boolean bestReversed = false;
+            double bestDistance = Double.MAX_VALUE;
+            for( int i = 0; i < chains.size(); i++ ) {
+                if( drawn[i] ) continue;
+                int[] chain = chains.get( i );
+                double startDistance = cellPoint( chain[0] ).distanceFrom( current );
+                double endDistance = cellPoint( chain[chain.length - 1] ).distanceFrom( current );
+                if( min( startDistance, endDistance ) < bestDistance ) {
+                    best = i;
+                    bestReversed = endDistance < startDistance;
+                    bestDistance = min( startDistance, endDistance );
+                }
+            }
+            drawn[best] = true;
+            int[] chain = chains.get( best );
+            if( bestReversed ) {
+                for( int i = 0; i < chain.length / 2; i++ ) {
+                    int t = chain[i];
+                    chain[i] = chain[chain.length - 1 - i];
+                    chain[chain.length - 1 - i] = t;
+                }
+            }
+            drawChain( chain );
+            current = dc.getCurrentRelativePosition();
+        }
+    }
+
+
+    // returns the thinned edges (found with a Sobel filter) in the darkness grid...
+    private boolean[] findEdges() {
+
+        // get the gradient at every cell except the border...
+        float[] magnitude = new float[cols * rows];
+        float[] gx = new float[cols * rows];
+        float[] gy = new float[cols * rows];
+        float strongest = 0;
+        for( int r = 1; r < rows - 1; r++ ) {
+            for( int c = 1; c < cols - 1; c++ ) {
+                int i = r * cols + c;
+                float x = (darkness[i - cols + 1] + 2 * darkness[i + 1] + darkness[i + cols + 1]) - (darkness[i - cols - 1] + 2 * darkness[i - 1] + darkness[i + cols - 1]);
+                float y = (darkness[i + cols - 1] + 2 * darkness[i + cols] + darkness[i + cols + 1]) - (darkness[i - cols - 1] + 2 * darkness[i - cols] + darkness[i - cols + 1]);
+                gx[i] = x;
+                gy[i] = y;
+                magnitude[i] = (float) hypot( x, y );
+                strongest = max( strongest, magnitude[i] );
+            }
+        }
+
+        // an edge is a strong enough gradient that's stronger than its neighbors across the edge...
+        boolean[] edges = new boolean[cols * rows];
+        float threshold = (float) (edgeThreshold * strongest);
+        for( int r = 1; r < rows - 1; r++ ) {
+            for( int c = 1; c < cols - 1; c++ ) {
+                int i = r * cols + c;
+                if( (magnitude[i] == 0) || (magnitude[i] < threshold) )
+                    continue;
+
+                // quantize the gradient's direction to one of four neighbor pairs...
+                double angle = atan2( gy[i], gx[i] );
+                if( angle < 0 ) angle += PI;
+                int across;
+                if( (angle < PI / 8) || (angle >= 7 * PI / 8) ) across = 1;
+                else if( angle < 3 * PI / 8 ) across = cols + 1;
+                else if( angle < 5 * PI / 8 ) across = cols;
+                else across = cols - 1;
+                edges[i] = (magnitude[i] >= magnitude[i - across]) && (magnitude[i] > magnitude[i + across]);
+            }
+        }
+        return edges;
+    }
+
+
+    // returns the edges traced into chains of neighboring cells, starting from the ends of open chains, then around whatever loops are left...
+    private List<int[]> traceChains( final boolean[] _edges ) {
+
+        List<int[]> chains = new ArrayList<>();
+        boolean[] used = new boolean[_edges.length];
+        for( int pass = 0; pass < 2; pass++ ) {
+            for( int i = 0; i < _edges.length; i++ ) {
+                if( !_edges[i] || used[i] || ((pass == 0) && (neighbors( _edges, used, i ) != 1)) )
+                    continue;
+
+                List<Integer> chain = new ArrayList<>();
+                int cell = i;
+                while( cell >= 0 ) {
+                    used[cell] = true;
+                    chain.add( cell );
+                    cell = nextCell( _edges, used, cell );
+                }
+                if( chain.size() >= minEdgeLength ) {
+                    int[] cells = new int[chain.size()];
+                    for( int j = 0; j < cells.length; j++ )
+                        cells[j] = chain.get( j );
+                    chains.add( cells );
+                }
+            }
+        }
+        return chains;
+    }
+
+
+    // returns the number of unused edge cells next to the given one...
+    private int neighbors( final boolean[] _edges, final boolean[] _used, final int _cell ) {
+        int count = 0;
+        for( int offset : neighborOffsets() )
+            if( _edges[_cell + offset] && !_used[_cell + offset] )
+                count++;
+        return count;
+    }
+
+
+    // returns an unused edge cell next to the given one (preferring those beside it to those diagonal from it), or -1 if there are none...
+    private int nextCell( final boolean[] _edges, final boolean[] _used, final int _cell ) {
+        for( int offset : neighborOffsets() )
+            if( _edges[_cell + offset] && !_used[_cell + offset] )
+                return _cell + offset;
+        return -1;
+    }
+
+
+    // edges are never on the border, so these never go off the grid...
+    private int[] neighborOffsets() {
+        return new int[] { 1, -1, cols, -cols, cols + 1, cols - 1, -cols + 1, -cols - 1 };
+    }
+
+
+    // returns the center of the given cell, in rho units relative to the drawing context's relative origin...
+    private Point cellPoint( final int _cell ) {
+        return Point.fromXY( ((_cell % cols) + 0.5 - cols / 2.0) * scale, (rows / 2.0 - (_cell / cols) - 0.5) * scale );
+    }
+
+
+    // draws the given chain of cells, smoothed a little to get rid of the stair steps...
+    private void drawChain( final int[] _chain ) {
+
+        double[] x = new double[_chain.length];
+        double[] y = new double[_chain.length];
+        for( int i = 0; i < _chain.length; i++ ) {
+            Point point = cellPoint( _chain[i] );
+            x[i] = point.x;
+            y[i] = point.y;
+        }
+        for( int pass = 0; pass < 2; pass++ ) {
+            smooth( x );
+            smooth( y );
+        }
+
+        Point start = dc.getCurrentRelativePosition().vectorTo( Point.fromXY( x[0], y[0] ) );
+        if( start.rho > 0 )
+            dc.travelTo( start );
+
+        List<Delta> deltas = new ArrayList<>( _chain.length );
+        double maxDistance = dc.getMaxPointDistance();
+        for( int i = 1; i < x.length; i++ ) {
+
+            // split any step longer than the maximum point distance...
+            double dx = x[i] - x[i - 1];
+            double dy = y[i] - y[i - 1];
+            int steps = max( 1, (int) ceil( hypot( dx, dy ) / maxDistance ) );
+            for( int j = 0; j < steps; j++ )
+                deltas.add( new Delta( dx / steps, dy / steps ) );
+        }
+        if( !deltas.isEmpty() )
+            dc.draw( new ImageLine( deltas ) );
+    }
+
+
+    // smooths the given values with a [1 2 1] kernel, leaving the ends where they are...
+    private void smooth( final double[] _values ) {
+        double previous = _values[0];
+        for( int i = 1; i < _values.length - 1; i++ ) {
+            double value = _values[i];
+            _values[i] = (previous + 2 * value + _values[i + 1]) / 4;
+            previous = value;
+        }
+    }
+
+
+    public Mode getMode() {
+        return mode;
+    }
+
+
+    public void setMode( final Mode _mode ) {
+        mode = _mode;
+    }
+
+
+    public double getRadius() {
+        return radius;
+    }
+
+
+    /**
+     * Sets the radius (in rho units) of the circle that the corners of the image are mapped onto.  The default is 1, the edge of the table.
+     *
+     * @param _radius the radius of the circle the image is fitted into.
+     */
+    public void setRadius( final double _radius ) {
+        radius = _radius;
+    }
+
+
+    public int getResolution() {
+        return resolution;
+    }
+
+
+    /**
+     * Sets the number of grid cells across the longer side of the image.  The default is 300, which is finer than the sand can show on most tables.
+     *
+     * @param _resolution the number of grid cells across the image.
+     */
+    public void setResolution( final int _resolution ) {
+
+        // sanity check...
+        if( _resolution < 3 )
+            throw new IllegalArgumentException( "Invalid image resolution: " + _resolution );
+
+        resolution = _resolution;
+    }
+
+
+    public int getRings() {
+        return rings;
+    }
+
+
+    /**
+     * Sets the number of turns of the spiral drawn in spiral mode.  The default is 60.
+     *
+     * @param _rings the number of turns of the spiral.
+     */
+    public void setRings( final int _rings ) {
+
+        // sanity check...
+        if( _rings < 1 )
+            throw new IllegalArgumentException( "Invalid number of rings: " + _rings );
+
+        rings = _rings;
+    }
+
+
+    public double getEdgeThreshold() {
+        return edgeThreshold;
+    }
+
+
+    /**
+     * Sets the minimum strength of an edge in edge mode, as a fraction of the strongest edge in the image.  The default is 0.2.
+     *
+     * @param _edgeThreshold the minimum edge strength.
+     */
+    public void setEdgeThreshold( final double _edgeThreshold ) {
+        edgeThreshold = _edgeThreshold;
+    }
+
+
+    public int getMinEdgeLength() {
+        return minEdgeLength;
+    }
+
+
+    /**
+     * Sets the minimum length (in grid cells) of the edges drawn in edge mode; shorter ones are dropped as noise.  The default is 4.
+     *
+     * @param _minEdgeLength the minimum length of an edge.
+     */
+    public void setMinEdgeLength( final int _minEdgeLength ) {
+        minEdgeLength = _minEdgeLength;
+    }
+
+
+    // a line made of the points we've computed...
+    private static class ImageLine implements Line {
+
+        private final List<Delta> deltas;
+
+
+        private ImageLine( final List<Delta> _deltas ) {
+            deltas = _deltas;
+        }
+
+
+        @Override
+        public List<Delta> getDeltas() {
+            return Collections.unmodifiableList( deltas );
+        }
+    }
+}
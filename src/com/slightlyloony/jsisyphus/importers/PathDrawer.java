@@ -0,0 +1,83 @@
+package com.slightlyloony.jsisyphus.importers;
+
+import com.slightlyloony.jsisyphus.DrawingContext;
+import com.slightlyloony.jsisyphus.Point;
+
+/**
+ * Instances of this class draw the segments of imported paths (which are in absolute coordinates, not relative to the previous point) into a drawing
+ * context.  All points are in the drawing context's relative coordinates (as returned by {@link DrawingContext#getCurrentRelativePosition()}).  Segments
+ * too short to matter are dropped, and moves to the start of a new subpath travel along the lines already drawn wherever they can, so that the subpaths
+ * of a shape are stitched together into the single continuous line the table can draw.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+/* package */ class PathDrawer {
+
+    private static final double EPSILON = 1.0E-12;  // lengths (in table units) shorter than this aren't drawn...
+
+    private final DrawingContext dc;
+    private Point start;
+    private int segments;
+
+
+    /* package */ PathDrawer( final DrawingContext _dc ) {
+        dc = _dc;
+    }
+
+
+    // starts a new subpath at the given point, traveling there along what's already drawn...
+    /* package */ void moveTo( final Point _point ) {
+        Point vector = dc.vectorTo( _point );
+        if( vector.rho >= EPSILON )
+            dc.travelTo( vector );
+        start = _point;
+    }
+
+
+    /* package */ void lineTo( final Point _point ) {
+        Point vector = dc.vectorTo( _point );
+        if( vector.rho < EPSILON )
+            return;
+        dc.lineTo( vector );
+        segments++;
+    }
+
+
+    /* package */ void cubicTo( final Point _cp1, final Point _cp2, final Point _end ) {
+        Point current = dc.getCurrentRelativePosition();
+        if( (current.vectorTo( _end ).rho < EPSILON) && (current.vectorTo( _cp1 ).rho < EPSILON) && (current.vectorTo( _cp2 ).rho < EPSILON) )
+            return;
+        dc.curveTo( current.vectorTo( _cp1 ), _end.vectorTo( _cp2 ), current.vectorTo( _end ) );
+        segments++;
+    }
+
+
+    /* package */ void quadTo( final Point _cp, final Point _end ) {
+        Point current = dc.getCurrentRelativePosition();
+        if( (current.vectorTo( _end ).rho < EPSILON) && (current.vectorTo( _cp ).rho < EPSILON) )
+            return;
+        dc.quadTo( current.vectorTo( _cp ), current.vectorTo( _end ) );
+        segments++;
+    }
+
+
+    // draws a circular arc around the given center; positive angles are clockwise...
+    /* package */ void arcAround( final Point _center, final double _arcAngle ) {
+        dc.arcAround( dc.vectorTo( _center ), _arcAngle );
+        segments++;
+    }
+
+
+    // closes the current subpath with a straight line back to its start...
+    /* package */ void closePath() {
+        if( start != null )
+            lineTo( start );
+    }
+
+
+    /* package */ int getSegments() {
+        return segments;
+    }
+}
@@ -0,0 +1,196 @@
+package com.slightlyloony.jsisyphus.importers;
+
+import com.slightlyloony.jsisyphus.DrawingContext;
+import com.slightlyloony.jsisyphus.Point;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instances of this class import Java2D shapes (any {@link Shape}, including the outlines of text) into a drawing context.  Shapes are in Java2D's
+ * orientation, with y increasing downwards; they're flipped as they're imported, so that what's drawn looks like what Java2D would draw.  The shape's
+ * coordinates are in rho units (after the optional transform is applied), relative to the drawing context's relative origin.  Each subpath is drawn in
+ * turn, with the ball traveling to the start of the next one along the lines already drawn wherever it can, so that the whole shape is stitched into the
+ * single continuous line the table can draw.
+ *
+ * Text is laid out at a fixed reference size ({@value #REFERENCE_SIZE} points), and scaled down to the size it's drawn at.  Laying it out at the drawn
+ * size (a small fraction of a point, in rho units) would snap the glyphs' outlines and positions to the font's coarse grid at that size.  The outlines
+ * of the glyphs are cached at the reference size (in a cache shared by all instances), keyed by the font and glyph, so text with repeated characters,
+ * or the same text on many tracks or at many sizes, only has each glyph's outline computed once.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe, though the glyph cache they share is threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class ShapeImporter {
+
+    private static final Map<GlyphKey,Shape> glyphCache = new ConcurrentHashMap<>();
+
+    private static final FontRenderContext FRC = new FontRenderContext( null, true, true );
+
+    private static final float REFERENCE_SIZE = 1000;  // the font size text is laid out at, before it's scaled to the size it's drawn at...
+
+    private final PathDrawer drawer;
+
+
+    /**
+     * Creates a new instance of this class that imports into the given drawing context.
+     *
+     * @param _dc the drawing context to import into.
+     */
+    public ShapeImporter( final DrawingContext _dc ) {
+        drawer = new PathDrawer( _dc );
+    }
+
+
+    /**
+     * Imports the given shape, whose coordinates are in rho units relative to the drawing context's relative origin (with y increasing downwards).
+     *
+     * @param _shape the shape to import.
+     */
+    public void importShape( final Shape _shape ) {
+        importShape( _shape, null );
+    }
+
+
+    /**
+     * Imports the given shape, after transforming it with the given transform.  The transformed coordinates are in rho units relative to the drawing
+     * context's relative origin (with y increasing downwards).
+     *
+     * @param _shape the shape to import.
+     * @param _transform the transform to apply to the shape, or null for none.
+     */
+    public void importShape( final Shape _shape, final AffineTransform _transform ) {
+        importPath( _shape.getPathIterator( _transform ) );
+    }
+
+
+    /**
+     * Imports the outlines of the given text, in the given font and at the given size, with the start of its baseline at the given point (relative to
+     * the drawing context's relative origin).  The glyphs are drawn in order, from the start of the text to its end.
+     *
+     * @param _text the text to import.
+     * @param _font the font to draw the text in (its size is ignored).
+     * @param _size the size of the font, in rho units (the font's em size, roughly the distance from the top of a capital to the bottom of a descender).
+     * @param _origin the start of the text's baseline.
+     */
+    public void importText( final String _text, final Font _font, final double _size, final Point _origin ) {
+
+        // sanity check...
+        if( !(_size > 0) )
+            throw new IllegalArgumentException( "Invalid text size: " + _size );
+
+        // lay the text out at the reference size, then scale each glyph down to our size as we place it...
+        Font font = _font.deriveFont( REFERENCE_SIZE );
+        GlyphVector glyphs = font.createGlyphVector( FRC, _text );
+        double scale = _size / REFERENCE_SIZE;
+        for( int i = 0; i < glyphs.getNumGlyphs(); i++ ) {
+
+            Point2D position = glyphs.getGlyphPosition( i );
+            Shape outline = glyphOutline( font, glyphs, i, position );
+            AffineTransform placement = AffineTransform.getTranslateInstance( _origin.x, -_origin.y );
+            placement.scale( scale, scale );
+            placement.translate( position.getX(), position.getY() );
+            importPath( outline.getPathIterator( placement ) );
+        }
+    }
+
+
+    /**
+     * Returns the number of segments (lines, curves, and arcs) drawn so far.
+     *
+     * @return the number of segments drawn.
+     */
+    public int getSegmentCount() {
+        return drawer.getSegments();
+    }
+
+
+    /**
+     * Empties the glyph outline cache shared by all instances of this class.
+     */
+    public static void clearGlyphCache() {
+        glyphCache.clear();
+    }
+
+
+    // returns the outline of the glyph at the given index (at the reference size), with its origin at (0,0), from the cache if it's there...
+    private Shape glyphOutline( final Font _font, final GlyphVector _glyphs, final int _index, final Point2D _position ) {
+        GlyphKey key = new GlyphKey( _font, _glyphs.getGlyphCode( _index ) );
+        return glyphCache.computeIfAbsent( key,
+                k -> new Path2D.Double( _glyphs.getGlyphOutline( _index, (float) -_position.getX(), (float) -_position.getY() ) ) );
+    }
+
+
+    // draws the path from the given iterator, flipping y...
+    private void importPath( final PathIterator _path ) {
+
+        double[] coords = new double[6];
+        while( !_path.isDone() ) {
+
+            switch( _path.currentSegment( coords ) ) {
+
+                case PathIterator.SEG_MOVETO:
+                    drawer.moveTo( Point.fromXY( coords[0], -coords[1] ) );
+                    break;
+
+                case PathIterator.SEG_LINETO:
+                    drawer.lineTo( Point.fromXY( coords[0], -coords[1] ) );
+                    break;
+
+                case PathIterator.SEG_QUADTO:
+                    drawer.quadTo( Point.fromXY( coords[0], -coords[1] ), Point.fromXY( coords[2], -coords[3] ) );
+                    break;
+
+                case PathIterator.SEG_CUBICTO:
+                    drawer.cubicTo( Point.fromXY( coords[0], -coords[1] ), Point.fromXY( coords[2], -coords[3] ), Point.fromXY( coords[4], -coords[5] ) );
+                    break;
+
+                case PathIterator.SEG_CLOSE:
+                    drawer.closePath();
+                    break;
+
+                default:
+                    throw new IllegalStateException( "Unknown path segment type" );
+            }
+            _path.next();
+        }
+    }
+
+
+    // the key for the glyph outline cache; the fonts are all at the reference size, but they include it in equality anyway...
+    private static class GlyphKey {
+
+        private final Font font;
+        private final int glyphCode;
+
+
+        private GlyphKey( final Font _font, final int _glyphCode ) {
+            font = _font;
+            glyphCode = _glyphCode;
+        }
+
+
+        @Override
+        public boolean equals( final Object _o ) {
+            if( this == _o ) return true;
+            if( (_o == null) || (getClass() != _o.getClass()) ) return false;
+            GlyphKey glyphKey = (GlyphKey) _o;
+            return (glyphCode == glyphKey.glyphCode) && font.equals( glyphKey.font );
+        }
+
+
+        @Override
+        public int hashCode() {
+            return 31 * font.hashCode() + glyphCode;
+        }
+    }
+}
@@ -0,0 +1,741 @@
+package com.slightlyloony.jsisyphus.importers;
+
+import com.slightlyloony.jsisyphus.DrawingContext;
+import com.slightlyloony.jsisyphus.Point;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static com.slightlyloony.jsisyphus.Utils.log;
+import static java.lang.Math.*;
+
+/**
+ * Instances of this class import the paths in an SVG file (such as those exported by Illustrator) into a drawing context.  The SVG is read as a stream of
+ * characters by a simple state machine, rather than being parsed into a document first, so large files import quickly and in little memory.  Only the
+ * root &lt;svg&gt; element (for its viewBox, or failing that its width and height) and &lt;path&gt; elements (for their path data) are looked at;
+ * everything else is skipped.  Transforms, styles, and the other shape elements are not supported.
+ *
+ * The viewBox is mapped onto the table with its center at the drawing context's relative origin (where the relative position is zero), y flipped so that
+ * up is up, and scaled so that its corners lie on a circle of the importer's radius (by default, the edge of the table).  All of the path commands are
+ * supported (M, L, H, V, C, S, Q, T, A, and Z, absolute and relative).  Lines are drawn as straight lines, curves as cubic or quadratic Bézier curves (as they
+ * are given), and arcs as circular arcs when they're circular, or as cubic Bézier curves (one per quarter turn, at most) when they're elliptical.
+ * Since the table can only draw a single continuous line, the ball travels to the start of each subpath along the lines it has already drawn, wherever
+ * it can (see {@link DrawingContext#travelTo(Point)}).
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class SvgImporter {
+
+    private static final int NONE = -2;  // no lookahead character...
+
+    private final PathDrawer drawer;
+    private double radius = 1;
+
+    // the mapping from SVG user units to the table...
+    private boolean fixedMapping;  // true if the view box was set explicitly, and the SVG's own should be ignored...
+    private boolean haveMapping;
+    private double centerX;
+    private double centerY;
+    private double scale;
+
+    // the character stream...
+    private Reader reader;
+    private int lookahead = NONE;
+    private int quote;             // the quote that ends the attribute value we're reading path data from...
+
+    // the path state, in SVG user units...
+    private double curX;
+    private double curY;
+    private double startX;
+    private double startY;
+    private double ctrlX;          // the last control point, for smooth curves...
+    private double ctrlY;
+    private char lastCommand;
+
+    private int paths;
+
+
+    /**
+     * Creates a new instance of this class that imports into the given drawing context.
+     *
+     * @param _dc the drawing context to import into.
+     */
+    public SvgImporter( final DrawingContext _dc ) {
+        drawer = new PathDrawer( _dc );
+    }
+
+
+    /**
+     * Imports the paths in the SVG file with the given name.
+     *
+     * @param _fileName the name of the SVG file.
+     * @throws IOException on any problem reading the file.
+     */
+    public void importFile( final String _fileName ) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int startPaths = paths;
+        int startSegments = drawer.getSegments();
+        try( Reader fileReader = new InputStreamReader( new FileInputStream( _fileName ), StandardCharsets.UTF_8 ) ) {
+            importSvg( fileReader );
+        }
+        log( "Imported " + (paths - startPaths) + " paths (" + (drawer.getSegments() - startSegments) + " segments) from " + _fileName + " in " +
+                (System.currentTimeMillis() - startTime) + "ms" );
+    }
+
+
+    /**
+     * Imports the paths in the SVG read from the given reader.
+     *
+     * @param _reader the reader to read the SVG from.
+     * @throws IOException on any problem reading the SVG.
+     */
+    public void importSvg( final Reader _reader ) throws IOException {
+
+        reader = (_reader instanceof BufferedReader) ? _reader : new BufferedReader( _reader );
+        lookahead = NONE;
+        if( !fixedMapping )
+            haveMapping = false;
+
+        int c;
+        while( (c = read()) >= 0 ) {
+
+            if( c != '<' )
+                continue;
+
+            // skip anything that isn't a start tag...
+            c = peek();
+            if( c == '!' ) {
+                skipDeclaration();
+                continue;
+            }
+            if( (c == '?') || (c == '/') ) {
+                skipTag();
+                continue;
+            }
+
+            String name = readName();
+            if( "svg".equals( name ) )
+                readSvgAttributes();
+            else if( "path".equals( name ) )
+                readPathAttributes();
+            else
+                skipTag();
+        }
+    }
+
+
+    /**
+     * Imports the given SVG path data (the contents of a path element's "d" attribute).  The view box must already be known, either from a previously
+     * imported SVG or from {@link #setViewBox(double, double, double, double)}.
+     *
+     * @param _pathData the SVG path data.
+     */
+    public void importPathData( final String _pathData ) {
+
+        // sanity check...
+        if( !haveMapping )
+            throw new IllegalStateException( "No view box to import path data with" );
+
+        try {
+            reader = new StringReader( _pathData );
+            lookahead = NONE;
+            quote = -1;
+            readPath();
+        }
+        catch( IOException _e ) {
+            throw new IllegalStateException( "Can't read a string?", _e );
+        }
+    }
+
+
+    /**
+     * Sets the view box (in SVG user units) to map onto the table, overriding the view box (or size) of any SVG imported afterwards.
+     *
+     * @param _minX the minimum x of the view box.
+     * @param _minY the minimum y of the view box.
+     * @param _width the width of the view box.
+     * @param _height the height of the view box.
+     */
+    public void setViewBox( final double _minX, final double _minY, final double _width, final double _height ) {
+        map( _minX, _minY, _width, _height );
+        fixedMapping = true;
+    }
+
+
+    public double getRadius() {
+        return radius;
+    }
+
+
+    /**
+     * Sets the radius (in rho units) of the circle that the corners of the view box are mapped onto.  The default is 1, the edge of the table.
+     *
+     * @param _radius the radius of the circle the view box is fitted into.
+     */
+    public void setRadius( final double _radius ) {
+        radius = _radius;
+    }
+
+
+    public int getPathCount() {
+        return paths;
+    }
+
+
+    public int getSegmentCount() {
+        return drawer.getSegments();
+    }
+
+
+    // sets up the mapping for the given view box...
+    private void map( final double _minX, final double _minY, final double _width, final double _height ) {
+
+        // sanity check...
+        if( !((_width > 0) && (_height > 0)) )
+            throw new IllegalArgumentException( "Invalid SVG view box: " + _width + " x " + _height );
+
+        centerX = _minX + _width / 2;
+        centerY = _minY + _height / 2;
+        scale = 2 * radius / hypot( _width, _height );
+        haveMapping = true;
+    }
+
+
+    // returns the given SVG point mapped onto the table, in the drawing context's relative coordinates...
+    private Point toTable( final double _x, final double _y ) {
+        return Point.fromXY( (_x - centerX) * scale, (centerY - _y) * scale );
+    }
+
+
+    // reads the attributes of the svg element, setting up our mapping from its view box (or size)...
+    private void readSvgAttributes() throws IOException {
+
+        String viewBox = null;
+        String width = null;
+        String height = null;
+        String name;
+        while( (name = readAttributeName()) != null ) {
+            String value = readAttributeValue();
+            if( "viewBox".equals( name ) )
+                viewBox = value;
+            else if( "width".equals( name ) )
+                width = value;
+            else if( "height".equals( name ) )
+                height = value;
+        }
+
+        if( fixedMapping )
+            return;
+
+        if( viewBox != null ) {
+            String[] parts = viewBox.trim().split( "[\\s,]+" );
+            if( parts.length != 4 )
+                throw new IllegalArgumentException( "Invalid SVG view box: " + viewBox );
+            map( Double.parseDouble( parts[0] ), Double.parseDouble( parts[1] ), Double.parseDouble( parts[2] ), Double.parseDouble( parts[3] ) );
+        }
+        else if( (width != null) && (height != null) )
+            map( 0, 0, leadingNumber( width ), leadingNumber( height ) );
+    }
+
+
+    // reads the attributes of a path element, drawing its path data...
+    private void readPathAttributes() throws IOException {
+
+        String name;
+        while( (name = readAttributeName()) != null ) {
+
+            if( !"d".equals( name ) ) {
+                if( "transform".equals( name ) )
+                    log( "Ignoring SVG transform on path" );
+                readAttributeValue();
+                continue;
+            }
+
+            // sanity check...
+            if( !haveMapping )
+                throw new IllegalStateException( "SVG has no view box or size before its first path" );
+
+            // stream the path data straight from the attribute...
+            skipWhitespace();
+            if( read() != '=' )
+                throw new IllegalArgumentException( "Invalid SVG attribute: " + name );
+            skipWhitespace();
+            quote = read();
+            if( (quote != '"') && (quote != '\'') )
+                throw new IllegalArgumentException( "Invalid SVG attribute value for " + name );
+            readPath();
+            read();  // the closing quote...
+        }
+    }
+
+
+    /*
+     * Path data...
+     */
+
+
+    // reads and draws path data up to the end of the attribute (or string) it's in...
+    private void readPath() throws IOException {
+
+        // each path starts afresh, so that a leading relative move is taken as absolute...
+        paths++;
+        curX = curY = 0;
+        startX = startY = 0;
+        ctrlX = ctrlY = 0;
+        lastCommand = 0;
+        char command = 0;
+        while( true ) {
+
+            skipSeparators();
+            int c = peekData();
+            if( c < 0 )
+                break;
+
+            if( isCommand( c ) ) {
+                command = (char) read();
+                if( (command == 'Z') || (command == 'z') ) {
+                    closePath();
+                    continue;
+                }
+            }
+            else if( (command == 0) || (command == 'Z') || (command == 'z') )
+                throw new IllegalArgumentException( "Invalid SVG path data: number without a command" );
+
+            execute( command );
+
+            // after a move, any further coordinate pairs are lines...
+            if( command == 'M' ) command = 'L';
+            if( command == 'm' ) command = 'l';
+        }
+    }
+
+
+    // reads the arguments for and executes one instance of the given command...
+    private void execute( final char _command ) throws IOException {
+
+        boolean relative = Character.isLowerCase( _command );
+        double dx = relative ? curX : 0;
+        double dy = relative ? curY : 0;
+        switch( Character.toUpperCase( _command ) ) {
+
+            case 'M': {
+                double x = dx + readNumber();
+                double y = dy + readNumber();
+                moveTo( x, y );
+                break;
+            }
+
+            case 'L': {
+                double x = dx + readNumber();
+                double y = dy + readNumber();
+                lineTo( x, y );
+                break;
+            }
+
+            case 'H':
+                lineTo( (relative ? curX : 0) + readNumber(), curY );
+                break;
+
+            case 'V':
+                lineTo( curX, (relative ? curY : 0) + readNumber() );
+                break;
+
+            case 'C': {
+                double x1 = dx + readNumber();
+                double y1 = dy + readNumber();
+                double x2 = dx + readNumber();
+                double y2 = dy + readNumber();
+                double x = dx + readNumber();
+                double y = dy + readNumber();
+                cubicTo( x1, y1, x2, y2, x, y );
+                break;
+            }
+
+            case 'S': {
+                boolean smooth = (lastCommand == 'C') || (lastCommand == 'S');
+                double x1 = smooth ? 2 * curX - ctrlX : curX;
+                double y1 = smooth ? 2 * curY - ctrlY : curY;
+                double x2 = dx + readNumber();
+                double y2 = dy + readNumber();
+                double x = dx + readNumber();
+                double y = dy + readNumber();
+                cubicTo( x1, y1, x2, y2, x, y );
+                break;
+            }
+
+            case 'Q': {
+                double x1 = dx + readNumber();
+                double y1 = dy + readNumber();
+                double x = dx + readNumber();
+                double y = dy + readNumber();
+                quadTo( x1, y1, x, y );
+                break;
+            }
+
+            case 'T': {
+                boolean smooth = (lastCommand == 'Q') || (lastCommand == 'T');
+                double x1 = smooth ? 2 * curX - ctrlX : curX;
+                double y1 = smooth ? 2 * curY - ctrlY : curY;
+                double x = dx + readNumber();
+                double y = dy + readNumber();
+                quadTo( x1, y1, x, y );
+                break;
+            }
+
+            case 'A': {
+                double rx = readNumber();
+                double ry = readNumber();
+                double rotation = readNumber();
+                boolean large = readFlag();
+                boolean sweep = readFlag();
+                double x = dx + readNumber();
+                double y = dy + readNumber();
+                arcTo( rx, ry, rotation, large, sweep, x, y );
+                break;
+            }
+
+            default:
+                throw new IllegalArgumentException( "Invalid SVG path command: " + _command );
+        }
+        lastCommand = Character.toUpperCase( _command );
+    }
+
+
+    // starts a new subpath at the given point, traveling there along what's already drawn...
+    private void moveTo( final double _x, final double _y ) {
+        drawer.moveTo( toTable( _x, _y ) );
+        curX = startX = _x;
+        curY = startY = _y;
+    }
+
+
+    private void lineTo( final double _x, final double _y ) {
+        drawer.lineTo( toTable( _x, _y ) );
+        curX = _x;
+        curY = _y;
+    }
+
+
+    private void cubicTo( final double _x1, final double _y1, final double _x2, final double _y2, final double _x, final double _y ) {
+        drawer.cubicTo( toTable( _x1, _y1 ), toTable( _x2, _y2 ), toTable( _x, _y ) );
+        ctrlX = _x2;
+        ctrlY = _y2;
+        curX = _x;
+        curY = _y;
+    }
+
+
+    private void quadTo( final double _x1, final double _y1, final double _x, final double _y ) {
+        drawer.quadTo( toTable( _x1, _y1 ), toTable( _x, _y ) );
+        ctrlX = _x1;
+        ctrlY = _y1;
+        curX = _x;
+        curY = _y;
+    }
+
+
+    // draws an SVG elliptical arc, using the endpoint to center conversion in the SVG specification (appendix F.6.5)...
+    private void arcTo( final double _rx, final double _ry, final double _rotation, final boolean _large, final boolean _sweep,
+                        final double _x, final double _y ) {
+
+        // if the ends are the same, there's no arc at all; if either radius is zero, it's a straight line...
+        if( (_x == curX) && (_y == curY) )
+            return;
+        double rx = abs( _rx );
+        double ry = abs( _ry );
+        if( (rx == 0) || (ry == 0) ) {
+            lineTo( _x, _y );
+            return;
+        }
+
+        // transform the start into the ellipse's coordinates, with the origin midway between the ends...
+        double phi = toRadians( _rotation );
+        double cosPhi = cos( phi );
+        double sinPhi = sin( phi );
+        double hx = (curX - _x) / 2;
+        double hy = (curY - _y) / 2;
+        double x1p =  cosPhi * hx + sinPhi * hy;
+        double y1p = -sinPhi * hx + cosPhi * hy;
+
+        // if the radii are too small to reach, scale them up until they just do...
+        double lambda = (x1p * x1p) / (rx * rx) + (y1p * y1p) / (ry * ry);
+        if( lambda > 1 ) {
+            rx *= sqrt( lambda );
+            ry *= sqrt( lambda );
+        }
+
+        // find the center...
+        double num = rx * rx * ry * ry - rx * rx * y1p * y1p - ry * ry * x1p * x1p;
+        double den = rx * rx * y1p * y1p + ry * ry * x1p * x1p;
+        double coef = ((_large == _sweep) ? -1 : 1) * sqrt( max( 0, num / den ) );
+        double cxp =  coef * rx * y1p / ry;
+        double cyp = -coef * ry * x1p / rx;
+        double cx = cosPhi * cxp - sinPhi * cyp + (curX + _x) / 2;
+        double cy = sinPhi * cxp + cosPhi * cyp + (curY + _y) / 2;
+
+        // find the start angle and the angle swept...
+        double ux = (x1p - cxp) / rx;
+        double uy = (y1p - cyp) / ry;
+        double vx = (-x1p - cxp) / rx;
+        double vy = (-y1p - cyp) / ry;
+        double startAngle = atan2( uy, ux );
+        double sweepAngle = atan2( ux * vy - uy * vx, ux * vx + uy * vy );
+        if( !_sweep && (sweepAngle > 0) ) sweepAngle -= 2 * PI;
+        if( _sweep && (sweepAngle < 0) ) sweepAngle += 2 * PI;
+
+        // a circular arc we can draw directly; in SVG a positive sweep is clockwise on the screen, which is clockwise on the table too...
+        if( abs( rx - ry ) <= 1.0E-9 * max( rx, ry ) ) {
+            // we draw it around its center, as the arc's end points may be too close together to find the center from them accurately...
+            drawer.arcAround( toTable( cx, cy ), sweepAngle );
+            curX = _x;
+            curY = _y;
+            return;
+        }
+
+        // otherwise, we approximate it with a cubic Bézier curve for each quarter turn (or less)...
+        int pieces = max( 1, (int) ceil( abs( sweepAngle ) / (PI / 2) - 1.0E-9 ) );
+        double pieceAngle = sweepAngle / pieces;
+        double k = 4.0 / 3.0 * tan( pieceAngle / 4 );
+        double a1 = startAngle;
+        for( int i = 0; i < pieces; i++ ) {
+            double a2 = a1 + pieceAngle;
+            double e1x = -rx * sin( a1 );
+            double e1y =  ry * cos( a1 );
+            double e2x = -rx * sin( a2 );
+            double e2y =  ry * cos( a2 );
+            double p1x = rx * cos( a1 ) + k * e1x;
+            double p1y = ry * sin( a1 ) + k * e1y;
+            double p2x = rx * cos( a2 ) - k * e2x;
+            double p2y = ry * sin( a2 ) - k * e2y;
+            double endX = (i == pieces - 1) ? _x : cx + cosPhi * rx * cos( a2 ) - sinPhi * ry * sin( a2 );
+            double endY = (i == pieces - 1) ? _y : cy + sinPhi * rx * cos( a2 ) + cosPhi * ry * sin( a2 );
+            cubicTo( cx + cosPhi * p1x - sinPhi * p1y, cy + sinPhi * p1x + cosPhi * p1y,
+                     cx + cosPhi * p2x - sinPhi * p2y, cy + sinPhi * p2x + cosPhi * p2y, endX, endY );
+            a1 = a2;
+        }
+    }
+
+
+    // closes the current subpath with a straight line back to its start...
+    private void closePath() {
+        drawer.closePath();
+        curX = startX;
+        curY = startY;
+        lastCommand = 'Z';
+    }
+
+
+    private boolean isCommand( final int _c ) {
+        return "MmLlHhVvCcSsQqTtAaZz".indexOf( _c ) >= 0;
+    }
+
+
+    // reads a number from the path data; numbers may be run together wherever that's unambiguous (like "-1.5.5", which is -1.5 and 0.5)...
+    private double readNumber() throws IOException {
+
+        skipSeparators();
+        StringBuilder sb = new StringBuilder();
+        int c = peekData();
+        if( (c == '-') || (c == '+') )
+            sb.append( (char) read() );
+        boolean digits = readDigits( sb );
+        if( peekData() == '.' ) {
+            sb.append( (char) read() );
+            digits |= readDigits( sb );
+        }
+        if( !digits )
+            throw new IllegalArgumentException( "Invalid SVG path data: expected a number, got '" + sb + "'" );
+
+        // an exponent, if that's what we have (and not the start of something else)...
+        c = peekData();
+        if( (c == 'e') || (c == 'E') ) {
+            sb.append( (char) read() );
+            c = peekData();
+            if( (c == '-') || (c == '+') )
+                sb.append( (char) read() );
+            if( !readDigits( sb ) )
+                throw new IllegalArgumentException( "Invalid SVG path data: bad exponent in '" + sb + "'" );
+        }
+        return Double.parseDouble( sb.toString() );
+    }
+
+
+    // reads any digits into the given string builder, returning true if there were any...
+    private boolean readDigits( final StringBuilder _sb ) throws IOException {
+        boolean any = false;
+        int c;
+        while( ((c = peekData()) >= '0') && (c <= '9') ) {
+            _sb.append( (char) read() );
+            any = true;
+        }
+        return any;
+    }
+
+
+    // reads an arc flag, which is a single digit that needn't be separated from whatever follows it...
+    private boolean readFlag() throws IOException {
+        skipSeparators();
+        int c = peekData();
+        if( (c != '0') && (c != '1') )
+            throw new IllegalArgumentException( "Invalid SVG path data: bad arc flag" );
+        read();
+        return c == '1';
+    }
+
+
+    private void skipSeparators() throws IOException {
+        int c;
+        while( ((c = peekData()) == ',') || ((c >= 0) && Character.isWhitespace( c )) )
+            read();
+    }
+
+
+    // returns the next character of path data without consuming it, or -1 if the path data has ended...
+    private int peekData() throws IOException {
+        int c = peek();
+        return (c == quote) ? -1 : c;
+    }
+
+
+    /*
+     * XML...
+     */
+
+
+    // reads the name of an element or attribute...
+    private String readName() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while( ((c = peek()) >= 0) && (Character.isLetterOrDigit( c ) || (c == ':') || (c == '-') || (c == '_') || (c == '.')) )
+            sb.append( (char) read() );
+        return sb.toString();
+    }
+
+
+    // reads the name of the next attribute in a start tag, or returns null (having consumed the end of the tag) if there are no more...
+    private String readAttributeName() throws IOException {
+        while( true ) {
+            skipWhitespace();
+            int c = peek();
+            if( c < 0 )
+                return null;
+            if( c == '>' ) {
+                read();
+                return null;
+            }
+            if( c == '/' ) {
+                read();
+                continue;
+            }
+            String name = readName();
+            if( name.isEmpty() )
+                throw new IllegalArgumentException( "Invalid SVG: unexpected '" + (char) c + "' in tag" );
+            return name;
+        }
+    }
+
+
+    // reads an attribute's value (including the equals sign and quotes)...
+    private String readAttributeValue() throws IOException {
+        skipWhitespace();
+        if( peek() != '=' )
+            return "";  // an attribute with no value...
+        read();
+        skipWhitespace();
+        int q = read();
+        if( (q != '"') && (q != '\'') )
+            throw new IllegalArgumentException( "Invalid SVG: unquoted attribute value" );
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while( ((c = read()) >= 0) && (c != q) )
+            sb.append( (char) c );
+        return sb.toString();
+    }
+
+
+    // skips the rest of a tag, which may have quoted attribute values containing anything...
+    private void skipTag() throws IOException {
+        int q = 0;
+        int c;
+        while( (c = read()) >= 0 ) {
+            if( q != 0 ) {
+                if( c == q ) q = 0;
+            }
+            else if( (c == '"') || (c == '\'') )
+                q = c;
+            else if( c == '>' )
+                return;
+        }
+    }
+
+
+    // skips a comment, CDATA section, or declaration (like DOCTYPE, which may have an internal subset in brackets)...
+    private void skipDeclaration() throws IOException {
+        read();  // the '!'...
+        if( peek() == '-' ) {
+            skipPast( "-->" );
+            return;
+        }
+        if( peek() == '[' ) {
+            skipPast( "]]>" );
+            return;
+        }
+        int depth = 0;
+        int c;
+        while( (c = read()) >= 0 ) {
+            if( c == '[' ) depth++;
+            else if( c == ']' ) depth--;
+            else if( (c == '>') && (depth <= 0) ) return;
+        }
+    }
+
+
+    private void skipPast( final String _end ) throws IOException {
+        int matched = 0;
+        int c;
+        while( (matched < _end.length()) && ((c = read()) >= 0) ) {
+            if( c == _end.charAt( matched ) )
+                matched++;
+            else
+                matched = (c == _end.charAt( 0 )) ? 1 : 0;
+        }
+    }
+
+
+    private void skipWhitespace() throws IOException {
+        int c;
+        while( ((c = peek()) >= 0) && Character.isWhitespace( c ) )
+            read();
+    }
+
+
+    // returns the number at the start of the given string (like "306px"), ignoring whatever follows it...
+    private double leadingNumber( final String _value ) {
+        String value = _value.trim();
+        int end = 0;
+        while( (end < value.length()) && ("+-.0123456789eE".indexOf( value.charAt( end ) ) >= 0) )
+            end++;
+        return Double.parseDouble( value.substring( 0, end ) );
+    }
+
+
+    private int peek() throws IOException {
+        if( lookahead == NONE )
+            lookahead = reader.read();
+        return lookahead;
+    }
+
+
+    private int read() throws IOException {
+        int c = peek();
+        lookahead = NONE;
+        return c;
+    }
+}
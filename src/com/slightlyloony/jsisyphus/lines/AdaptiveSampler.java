@@ -0,0 +1,163 @@
+package com.slightlyloony.jsisyphus.lines;
+
+import com.slightlyloony.jsisyphus.Delta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Instances of this class sample a parametric curve adaptively: where the curve is straight, the samples are as far apart as the maximum point distance
+ * allows, and where it bends, they're close enough together that the chords between them stay within a given distance of the curve.  The parameter range
+ * is first divided into a given number of equal intervals (so that wiggles smaller than the whole range aren't missed), and then each interval is split in
+ * half, recursively, until its chord is short enough and the curve's midpoint is close enough to the chord.
+ *
+ * Instances of this class are mutable and <i>not</i> threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+/* package */ class AdaptiveSampler {
+
+    private static final int MAX_DEPTH = 30;  // the most times an interval is split, so that singularities can't split it forever...
+
+    private final Curve curve;
+    private final double maxPointDistance;
+    private final double chordError;
+    private final double[] xy = new double[2];  // scratch for evaluating the curve...
+
+    private double[] ts = new double[256];  // the samples: their parameters, x and y...
+    private double[] xs = new double[256];
+    private double[] ys = new double[256];
+    private int count;
+
+
+    /**
+     * Implemented by the curves to be sampled.
+     */
+    /* package */ interface Curve {
+
+        /**
+         * Evaluates the curve at the given parameter, putting its x and y in the given array.
+         *
+         * @param _t the parameter.
+         * @param _xy the array (of length two) to put the x and y in.
+         */
+        void evaluate( double _t, double[] _xy );
+    }
+
+
+    /**
+     * Creates a new instance of this class to sample the given curve.
+     *
+     * @param _curve the curve to sample.
+     * @param _maxPointDistance the maximum distance between samples.
+     * @param _chordError the maximum distance between the curve and the chords between samples (as measured at each chord's midpoint).
+     */
+    /* package */ AdaptiveSampler( final Curve _curve, final double _maxPointDistance, final double _chordError ) {
+
+        // sanity check...
+        if( (_maxPointDistance <= 0) || (_chordError <= 0) )
+            throw new IllegalArgumentException( "Maximum point distance and chord error must be positive" );
+
+        curve = _curve;
+        maxPointDistance = _maxPointDistance;
+        chordError = _chordError;
+    }
+
+
+    /**
+     * Samples the curve between the given parameters, which are first divided into the given number of equal intervals.  The samples replace any taken
+     * before, and include both ends.
+     *
+     * @param _from the parameter at the start of the curve.
+     * @param _to the parameter at the end of the curve.
+     * @param _intervals the number of equal intervals to start with.
+     */
+    /* package */ void sample( final double _from, final double _to, final int _intervals ) {
+
+        count = 0;
+        curve.evaluate( _from, xy );
+        add( _from, xy[0], xy[1] );
+        int intervals = Math.max( 1, _intervals );
+        for( int i = 1; i <= intervals; i++ ) {
+            double t = (i == intervals) ? _to : _from + i * (_to - _from) / intervals;
+            curve.evaluate( t, xy );
+            split( ts[count - 1], xs[count - 1], ys[count - 1], t, xy[0], xy[1], 0 );
+        }
+    }
+
+
+    // adds the samples after the given start of an interval, up to and including its end, splitting it as needed...
+    private void split( final double _ta, final double _xa, final double _ya, final double _tb, final double _xb, final double _yb, final int _depth ) {
+
+        if( _depth < MAX_DEPTH ) {
+
+            double tm = 0.5 * (_ta + _tb);
+            curve.evaluate( tm, xy );
+            double xm = xy[0];
+            double ym = xy[1];
+            if( (Math.hypot( _xb - _xa, _yb - _ya ) > maxPointDistance) || (chordDistance( _xa, _ya, _xb, _yb, xm, ym ) > chordError) ) {
+                split( _ta, _xa, _ya, tm, xm, ym, _depth + 1 );
+                split( tm, xm, ym, _tb, _xb, _yb, _depth + 1 );
+                return;
+            }
+        }
+        add( _tb, _xb, _yb );
+    }
+
+
+    // returns the distance from the given point to the chord between the given ends...
+    private static double chordDistance( final double _xa, final double _ya, final double _xb, final double _yb, final double _x, final double _y ) {
+        double dx = _xb - _xa;
+        double dy = _yb - _ya;
+        double length2 = dx * dx + dy * dy;
+        double t = (length2 == 0) ? 0 : Math.min( 1, Math.max( 0, ((_x - _xa) * dx + (_y - _ya) * dy) / length2 ) );
+        return Math.hypot( _x - _xa - t * dx, _y - _ya - t * dy );
+    }
+
+
+    private void add( final double _t, final double _x, final double _y ) {
+        if( count == ts.length ) {
+            ts = Arrays.copyOf( ts, 2 * count );
+            xs = Arrays.copyOf( xs, 2 * count );
+            ys = Arrays.copyOf( ys, 2 * count );
+        }
+        ts[count] = _t;
+        xs[count] = _x;
+        ys[count] = _y;
+        count++;
+    }
+
+
+    /**
+     * Returns the deltas between the samples, with the first sample taken as the start of the line.
+     *
+     * @return the deltas between the samples.
+     */
+    /* package */ List<Delta> getDeltas() {
+        List<Delta> deltas = new ArrayList<>( count - 1 );
+        for( int i = 1; i < count; i++ )
+            deltas.add( new Delta( xs[i] - xs[i - 1], ys[i] - ys[i - 1] ) );
+        return deltas;
+    }
+
+
+    /* package */ int getCount() {
+        return count;
+    }
+
+
+    /* package */ double getT( final int _index ) {
+        return ts[_index];
+    }
+
+
+    /* package */ double getX( final int _index ) {
+        return xs[_index];
+    }
+
+
+    /* package */ double getY( final int _index ) {
+        return ys[_index];
+    }
+}
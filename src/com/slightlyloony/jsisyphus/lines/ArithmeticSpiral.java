@@ -2,7 +2,6 @@ package com.slightlyloony.jsisyphus.lines;
 
 import com.slightlyloony.jsisyphus.Delta;
 import com.slightlyloony.jsisyphus.Point;
-import com.slightlyloony.jsisyphus.Utils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,10 +14,16 @@ import static java.lang.Math.*;
  * (normalized to 1) and 𝚹 is the angle (in radians) from the zero degree coordinate.  Note that the center of the spiral is assumed to be at the origin
  * in transformed coordinates.
  *
+ * The spiral's points are evenly spaced along its length.  The length of an arithmetic spiral has a closed form (see {@link SpiralSpec#getLength()}), so
+ * the number of points is known before any are generated, and each point's rho is found from its distance along the spiral with a few steps of Newton's
+ * method.
+ *
  * @author Tom Dilatush  tom@dilatush.com
  */
 public class ArithmeticSpiral extends ALine implements Line {
 
+    private static final double SPACING = 0.7;  // the spacing of the points along the spiral, as a fraction of the maximum point distance...
+
 
     /**
      * Creates a representation of an arithmetic spiral line with the given end point position, spiral center position, and number of turns to make.  The
@@ -47,59 +52,27 @@ public class ArithmeticSpiral extends ALine implements Line {
         // if we have a radial...
         if( spec.isRadial ) return StraightLine.getDeltas( _maxPointDistance, _end.x, _end.y );
 
-        // handle a normal spiral...
-        double curTheta = spec.sTheta;
-        double curRho = spec.sRho;
-        int estSize = (int) ceil( 1.5 * (abs( spec.dTheta * max( spec.sRho, spec.eRho )) + abs( spec.dRho )) / _maxPointDistance );
-        List<Delta> deltas = new ArrayList<>( estSize );
+        // handle a normal spiral, with points evenly spaced along its length; the points are a bit closer than they must be, which gives the fitter more
+        // places to put vertices...
+        int count = max( 1, (int) ceil( spec.getLength() / (SPACING * _maxPointDistance) ) );
+        double spacing = spec.getLength() / count;
+        List<Delta> deltas = new ArrayList<>( count );
         double lastX = 0;
         double lastY = 0;
-
-        for( int iters = 0; iters < 100000; iters++ ) {
-
-            // bail out if we iterate too much...
-            if( iters >= 99999 )
-                throw new IllegalStateException( "Arithmetic spiral deltas not terminating..." );
-
-            // get the slope at our current point...
-            double rs = spec.getRadialSlope( curTheta );
-
-            // calculate our new point's rho and theta...
-            double npt;
-            double npr;
-
-            // if the slope over one, then we're near the center and we'll calculate with delta rho...
-            if( abs( rs ) > 1 ) {
-
-                // first we generate a rho for the next point, then get the theta from that...
-                npr = curRho + Utils.sign( spec.dRho ) * 0.7 * _maxPointDistance / min( 10, abs( rs ));  // dividing by the slope makes the points closer together near the center...
-                npt = spec.getThetaFromRho( npr );
-            }
-
-            // otherwise, we do it with delta theta...
-            else {
-                npt = curTheta + Utils.sign( spec.dTheta ) * atan( 0.7 * _maxPointDistance / curRho );
-                npr = spec.getRhoFromTheta( npt );
-            }
-
-            // if we've reached the end, adjust and we're done...
-            if( spec.isClockwise ? npt >= spec.eTheta : npt <= spec.eTheta ) {
-                deltas.add( new Delta( _end.x - lastX, _end.y - lastY ) );
-                break;
-            }
-
-            // otherwise, stuff our new delta away and carry on...
-            double npx = _center.x + npr * sin( npt );
-            double npy = _center.y + npr * cos( npt );
-            curTheta = npt;
-            curRho = npr;
-            double dx = npx - lastX;
-            double dy = npy - lastY;
-            deltas.add( new Delta( dx, dy ) );
-            lastX = npx;
-            lastY = npy;
+        double rho = spec.sRho;
+        for( int i = 1; i < count; i++ ) {
+
+            rho = spec.getRhoAtLength( i * spacing, rho );
+            double theta = spec.getThetaFromRho( rho );
+            double x = _center.x + rho * sin( theta );
+            double y = _center.y + rho * cos( theta );
+            deltas.add( new Delta( x - lastX, y - lastY ) );
+            lastX = x;
+            lastY = y;
         }
 
+        // the last delta takes us exactly to the end...
+        deltas.add( new Delta( _end.x - lastX, _end.y - lastY ) );
         return deltas;
     }
 
@@ -126,6 +99,7 @@ public class ArithmeticSpiral extends ALine implements Line {
         private boolean isCircle;
         private boolean isRadial;
         private boolean isNearZeroLength;
+        private double length;
 
 
         public SpiralSpec( final Point _end, final Point _center, final double _centerTheta, final int _turns ) {
@@ -173,6 +147,58 @@ public class ArithmeticSpiral extends ALine implements Line {
             m = dRho / dTheta;
             b = sRho - m * sTheta;
             isClockwise = (dTheta >= 0);
+            length = abs( lengthTo( eRho ) - lengthTo( sRho ) );
+        }
+
+
+        /*
+         * Returns the length of the spiral from rho zero to the given rho.  With a = |m|, the length of the spiral is the integral of √(𝚸² + a²) d𝚹, and
+         * since d𝚸 = m d𝚹 that's (1/a) times the integral of √(𝚸² + a²) d𝚸, which is (𝚸√(𝚸² + a²) + a² asinh(𝚸/a)) / 2a.
+         */
+        private double lengthTo( final double _rho ) {
+            double a = abs( m );
+            double root = sqrt( _rho * _rho + a * a );
+            double asinh = signum( _rho ) * log( abs( _rho ) / a + root / a );
+            return (_rho * root + a * a * asinh) / (2 * a);
+        }
+
+
+        /**
+         * Returns the rho of the point at the given length along this spiral from its start.  The rho is found with Newton's method, starting from the
+         * given rho (which should be near the answer, like the rho of the point before it, for the quickest convergence).  This spiral must not be a
+         * circle or a radial.
+         *
+         * @param _length the length along the spiral from its start.
+         * @param _rhoGuess a rho near the answer.
+         * @return the rho of the point at the given length.
+         */
+        public double getRhoAtLength( final double _length, final double _rhoGuess ) {
+
+            double a = abs( m );
+            double sign = signum( dRho );
+            double target = lengthTo( sRho ) + sign * _length;
+            double lo = min( sRho, eRho );
+            double hi = max( sRho, eRho );
+            double rho = _rhoGuess;
+
+            // the length is increasing in rho with a slope (√(𝚸² + a²) / a) of at least one, so Newton converges quickly from a nearby guess...
+            for( int i = 0; i < 20; i++ ) {
+                double step = (lengthTo( rho ) - target) * a / sqrt( rho * rho + a * a );
+                rho = min( hi, max( lo, rho - step ) );
+                if( abs( step ) <= 1.0E-15 * max( 1, abs( rho ) ) )
+                    break;
+            }
+            return rho;
+        }
+
+
+        /**
+         * Returns the length of this spiral, in rho units.  Zero for a circle or a radial.
+         *
+         * @return the length of this spiral.
+         */
+        public double getLength() {
+            return length;
         }
 
 
@@ -0,0 +1,82 @@
+package com.slightlyloony.jsisyphus.lines;
+
+import com.slightlyloony.jsisyphus.Delta;
+import com.slightlyloony.jsisyphus.Point;
+
+import java.util.List;
+
+/**
+ * Represents a uniform cubic B-spline: a smooth curve pulled toward each of a series of control points, in order, without (in general) passing through
+ * them.  The start of the line and the last control point are each repeated three times, so that the spline starts at the start of the line and ends at
+ * the last control point.  The whole spline is sampled in a single adaptive pass (see {@link AdaptiveSampler}), so that the chords between its points
+ * stay within a given distance of it.
+ *
+ * Instances of this class are immutable and threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class BSpline extends ALine implements Line {
+
+    private static final int INTERVALS_PER_SEGMENT = 4;  // the number of equal intervals the sampling starts with, for each segment of the spline...
+
+
+    /**
+     * Creates a new instance of this class from the start of the line, controlled by each of the given control points, which are relative to the start of
+     * the line.  The line ends at the last control point.
+     *
+     * @param _maxPointDistance the maximum distance between points on this line.
+     * @param _chordError the maximum distance between the curve and the chords between its points.
+     * @param _controlPoints the control points after the start, in order.
+     */
+    public BSpline( final double _maxPointDistance, final double _chordError, final List<Point> _controlPoints ) {
+        super( _maxPointDistance, getDeltas( _maxPointDistance, _chordError, _controlPoints ) );
+    }
+
+
+    private static List<Delta> getDeltas( final double _maxPointDistance, final double _chordError, final List<Point> _controlPoints ) {
+
+        // sanity check...
+        if( (_controlPoints == null) || _controlPoints.isEmpty() )
+            throw new IllegalArgumentException( "B-spline needs at least one control point after its start" );
+
+        // the control points, with the start first and each end repeated three times...
+        int n = _controlPoints.size();
+        int segments = n + 2;
+        double[] x = new double[n + 5];
+        double[] y = new double[n + 5];
+        for( int i = 0; i < n; i++ ) {
+            x[i + 3] = _controlPoints.get( i ).x;
+            y[i + 3] = _controlPoints.get( i ).y;
+        }
+        x[n + 3] = x[n + 4] = x[n + 2];
+        y[n + 3] = y[n + 4] = y[n + 2];
+
+        AdaptiveSampler sampler = new AdaptiveSampler( ( _t, _xy ) -> {
+            int s = Math.min( (int) _t, segments - 1 );
+            double u = _t - s;
+            _xy[0] = poly( u, x[s], x[s + 1], x[s + 2], x[s + 3] );
+            _xy[1] = poly( u, y[s], y[s + 1], y[s + 2], y[s + 3] );
+        }, _maxPointDistance, _chordError );
+        sampler.sample( 0, segments, segments * INTERVALS_PER_SEGMENT );
+        return sampler.getDeltas();
+    }
+
+
+    /**
+     * Computes the uniform cubic B-spline polynomial for the segment controlled by p0 through p3: ((1 - t)^3 * p0 + (3t^3 - 6t^2 + 4) * p1 +
+     * (-3t^3 + 3t^2 + 3t + 1) * p2 + t^3 * p3) / 6.  This is computed twice for each resulting point: once for the x result, once for the y result.
+     *
+     * @param _t the interval along the segment, [0..1].
+     * @param _p0 the x or y coordinate for the first control point of the segment.
+     * @param _p1 the x or y coordinate for the second control point of the segment.
+     * @param _p2 the x or y coordinate for the third control point of the segment.
+     * @param _p3 the x or y coordinate for the fourth control point of the segment.
+     * @return the x or y coordinate at the given interval.
+     */
+    private static double poly( final double _t, final double _p0, final double _p1, final double _p2, final double _p3 ) {
+        double t2 = _t * _t;
+        double t3 = t2 * _t;
+        double u = 1 - _t;
+        return (u * u * u * _p0 + (3 * t3 - 6 * t2 + 4) * _p1 + (-3 * t3 + 3 * t2 + 3 * _t + 1) * _p2 + t3 * _p3) / 6;
+    }
+}
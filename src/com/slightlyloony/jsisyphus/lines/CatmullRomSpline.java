@@ -0,0 +1,79 @@
+package com.slightlyloony.jsisyphus.lines;
+
+import com.slightlyloony.jsisyphus.Delta;
+import com.slightlyloony.jsisyphus.Point;
+
+import java.util.List;
+
+/**
+ * Represents a uniform Catmull-Rom spline: a smooth curve from the start of the line through each of a series of points, in order.  The tangent at each
+ * point is parallel to the chord between its neighbors; at the ends, the end point stands in for the missing neighbor.  The whole spline is sampled in a
+ * single adaptive pass (see {@link AdaptiveSampler}), so that the chords between its points stay within a given distance of it.
+ *
+ * Instances of this class are immutable and threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class CatmullRomSpline extends ALine implements Line {
+
+    private static final int INTERVALS_PER_SEGMENT = 4;  // the number of equal intervals the sampling starts with, for each segment of the spline...
+
+
+    /**
+     * Creates a new instance of this class from the start of the line through each of the given points, which are relative to the start of the line.
+     *
+     * @param _maxPointDistance the maximum distance between points on this line.
+     * @param _chordError the maximum distance between the curve and the chords between its points.
+     * @param _points the points the spline passes through after the start, in order.
+     */
+    public CatmullRomSpline( final double _maxPointDistance, final double _chordError, final List<Point> _points ) {
+        super( _maxPointDistance, getDeltas( _maxPointDistance, _chordError, _points ) );
+    }
+
+
+    private static List<Delta> getDeltas( final double _maxPointDistance, final double _chordError, final List<Point> _points ) {
+
+        // sanity check...
+        if( (_points == null) || _points.isEmpty() )
+            throw new IllegalArgumentException( "Catmull-Rom spline needs at least one point after its start" );
+
+        // the knots, with the start first, and each end repeated to stand in for its missing neighbor...
+        int segments = _points.size();
+        double[] x = new double[segments + 3];
+        double[] y = new double[segments + 3];
+        for( int i = 0; i < segments; i++ ) {
+            x[i + 2] = _points.get( i ).x;
+            y[i + 2] = _points.get( i ).y;
+        }
+        x[segments + 2] = x[segments + 1];
+        y[segments + 2] = y[segments + 1];
+
+        AdaptiveSampler sampler = new AdaptiveSampler( ( _t, _xy ) -> {
+            int s = Math.min( (int) _t, segments - 1 );
+            double u = _t - s;
+            _xy[0] = poly( u, x[s], x[s + 1], x[s + 2], x[s + 3] );
+            _xy[1] = poly( u, y[s], y[s + 1], y[s + 2], y[s + 3] );
+        }, _maxPointDistance, _chordError );
+        sampler.sample( 0, segments, segments * INTERVALS_PER_SEGMENT );
+        return sampler.getDeltas();
+    }
+
+
+    /**
+     * Computes the Catmull-Rom polynomial for the segment between p1 and p2: ((-p0 + 3p1 - 3p2 + p3) * t^3 + (2p0 - 5p1 + 4p2 - p3) * t^2 +
+     * (p2 - p0) * t + 2p1) / 2.  This is computed twice for each resulting point: once for the x result, once for the y result.
+     *
+     * @param _t the interval along the segment, [0..1].
+     * @param _p0 the x or y coordinate for the knot before the segment.
+     * @param _p1 the x or y coordinate for the knot starting the segment.
+     * @param _p2 the x or y coordinate for the knot ending the segment.
+     * @param _p3 the x or y coordinate for the knot after the segment.
+     * @return the x or y coordinate at the given interval.
+     */
+    private static double poly( final double _t, final double _p0, final double _p1, final double _p2, final double _p3 ) {
+        double a = -_p0 + 3 * _p1 - 3 * _p2 + _p3;
+        double b = 2 * _p0 - 5 * _p1 + 4 * _p2 - _p3;
+        double c = _p2 - _p0;
+        return 0.5 * (((a * _t + b) * _t + c) * _t + 2 * _p1);
+    }
+}
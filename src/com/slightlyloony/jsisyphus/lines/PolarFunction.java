@@ -0,0 +1,33 @@
+package com.slightlyloony.jsisyphus.lines;
+
+/**
+ * Implemented by functions that give a curve's rho for each theta (in radians), for drawing with a {@link PolarFunctionLine}.  Rho and theta are measured
+ * from the curve's own center, with theta measured clockwise from the +Y axis, like the table's.  For example, a five-petaled rose is
+ * {@code _theta -> 0.8 * Math.abs( Math.cos( 2.5 * _theta ) )}.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+@FunctionalInterface
+public interface PolarFunction {
+
+    /**
+     * Returns the rho of this curve at the given theta.
+     *
+     * @param _theta the theta, in radians.
+     * @return the rho at that theta.
+     */
+    double rho( double _theta );
+
+
+    /**
+     * Returns the slope (d rho / d theta) of this curve at the given theta.  By default this is estimated numerically, with a central difference; functions
+     * whose derivative is known should override this with it.
+     *
+     * @param _theta the theta, in radians.
+     * @return the slope at that theta.
+     */
+    default double slope( final double _theta ) {
+        double h = 1.0E-6 * Math.max( 1, Math.abs( _theta ) );
+        return (rho( _theta + h ) - rho( _theta - h )) / (2 * h);
+    }
+}
@@ -0,0 +1,125 @@
+package com.slightlyloony.jsisyphus.lines;
+
+import com.slightlyloony.jsisyphus.Point;
+
+import java.util.Arrays;
+
+import static java.lang.Math.*;
+
+/**
+ * Represents a curve given as a polar function (rho as a function of theta, around the curve's own center), drawn from one theta to another.  The line
+ * starts at the current position, so the curve's center is wherever that puts it.  The curve is sampled adaptively in theta (see {@link AdaptiveSampler}),
+ * so that the chords between samples stay within a given distance of the curve: gentle stretches get few samples, and tight bends get many.
+ *
+ * The line also reports which spans of its points are nearly arithmetic spirals around its center (see {@link SpiralSpans}): those over which the
+ * function's slope varies so little that no point strays more than the chord error from the spiral between the span's ends.  If the center is the table's
+ * center, each span is nearly a single Sisyphus line.
+ *
+ * Instances of this class are immutable and threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class PolarFunctionLine extends ALine implements Line, SpiralSpans {
+
+    private static final double MAX_INTERVAL = PI / 16;  // the widest theta interval the sampling starts with...
+
+    private final Point center;
+    private final int[] spans;
+
+
+    /**
+     * Creates a new instance of this class that draws the given polar function from the given theta to the given theta.
+     *
+     * @param _maxPointDistance the maximum distance between points on this line.
+     * @param _chordError the maximum distance between the curve and the chords between its points.
+     * @param _function the polar function giving the curve's rho at each theta.
+     * @param _fromTheta the theta (in radians) at the start of the line.
+     * @param _toTheta the theta (in radians) at the end of the line.
+     */
+    public PolarFunctionLine( final double _maxPointDistance, final double _chordError, final PolarFunction _function, final double _fromTheta,
+                              final double _toTheta ) {
+        this( _maxPointDistance, _chordError, _function, sample( _maxPointDistance, _chordError, _function, _fromTheta, _toTheta ) );
+    }
+
+
+    private PolarFunctionLine( final double _maxPointDistance, final double _chordError, final PolarFunction _function, final AdaptiveSampler _sampler ) {
+        super( _maxPointDistance, _sampler.getDeltas() );
+        center = Point.fromXY( -_sampler.getX( 0 ), -_sampler.getY( 0 ) );
+        spans = spans( _chordError, _function, _sampler );
+    }
+
+
+    private static AdaptiveSampler sample( final double _maxPointDistance, final double _chordError, final PolarFunction _function, final double _fromTheta,
+                                           final double _toTheta ) {
+
+        // sanity check...
+        if( _fromTheta == _toTheta )
+            throw new IllegalArgumentException( "Polar function line has no length" );
+
+        AdaptiveSampler sampler = new AdaptiveSampler( ( _theta, _xy ) -> {
+            double rho = _function.rho( _theta );
+            _xy[0] = rho * sin( _theta );
+            _xy[1] = rho * cos( _theta );
+        }, _maxPointDistance, _chordError );
+        sampler.sample( _fromTheta, _toTheta, (int) ceil( abs( _toTheta - _fromTheta ) / MAX_INTERVAL ) );
+        return sampler;
+    }
+
+
+    /*
+     * Returns the ends of the spans that are nearly arithmetic spirals.  The spiral between a span's ends has a slope (d rho / d theta) somewhere between the
+     * function's least and greatest slopes over the span, so the function strays from it by no more than the span's width in theta times the difference
+     * between those slopes.  We grow each span until that bound passes the chord error (or rho isn't positive, where the function isn't a spiral at all).
+     */
+    private static int[] spans( final double _chordError, final PolarFunction _function, final AdaptiveSampler _sampler ) {
+
+        int last = _sampler.getCount() - 1;
+        int[] result = new int[last];
+        int spanCount = 0;
+        int start = 0;
+        double previousSlope = _function.slope( _sampler.getT( 0 ) );
+        double minSlope = previousSlope;
+        double maxSlope = previousSlope;
+        for( int i = 1; i <= last; i++ ) {
+
+            double theta = _sampler.getT( i );
+            double slope = _function.slope( theta );
+            boolean isSpiral = (_function.rho( theta ) > 0) &&
+                    ((max( maxSlope, slope ) - min( minSlope, slope )) * abs( theta - _sampler.getT( start ) ) <= _chordError);
+
+            // if this point doesn't belong in the span, the span ends at the point before it, and the next span starts there...
+            if( !isSpiral && (i - 1 > start) ) {
+                start = i - 1;
+                result[spanCount++] = start;
+                minSlope = previousSlope;
+                maxSlope = previousSlope;
+            }
+
+            // but one interval is always a span, so if the point before it is the span's start, the span ends here...
+            else if( !isSpiral ) {
+                start = i;
+                result[spanCount++] = start;
+                minSlope = slope;
+                maxSlope = slope;
+            }
+            minSlope = min( minSlope, slope );
+            maxSlope = max( maxSlope, slope );
+            previousSlope = slope;
+        }
+        if( (spanCount == 0) || (result[spanCount - 1] != last) )
+            result[spanCount++] = last;
+        return Arrays.copyOf( result, spanCount );
+    }
+
+
+    @Override
+    public Point getSpiralCenter() {
+        return center;
+    }
+
+
+    @Override
+    public int[] getSpiralSpans() {
+        return spans.clone();
+    }
+}
@@ -0,0 +1,63 @@
+package com.slightlyloony.jsisyphus.lines;
+
+import com.slightlyloony.jsisyphus.Delta;
+
+import java.util.List;
+
+/**
+ * Represents a quadratic Bezier curve (a Bezier curve with one control point).  The curve is sampled adaptively (see {@link AdaptiveSampler}), so that
+ * the chords between its points stay within a given distance of it.
+ *
+ * Instances of this class are immutable and threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class QuadraticBezierCurve extends ALine implements Line {
+
+    private static final int INTERVALS = 2;  // the number of equal intervals the sampling starts with...
+
+
+    /**
+     * Creates a new instance of this class from the start of the line, controlled by the given control point, to the given end.  Both are relative to the
+     * start of the line.
+     *
+     * @param _maxPointDistance the maximum distance between points on this line.
+     * @param _chordError the maximum distance between the curve and the chords between its points.
+     * @param _xControl the x coordinate of the control point.
+     * @param _yControl the y coordinate of the control point.
+     * @param _xEnd the x coordinate of the end of the line.
+     * @param _yEnd the y coordinate of the end of the line.
+     */
+    public QuadraticBezierCurve( final double _maxPointDistance, final double _chordError,
+                                 final double _xControl, final double _yControl,
+                                 final double _xEnd, final double _yEnd ) {
+        super( _maxPointDistance, getDeltas( _maxPointDistance, _chordError, _xControl, _yControl, _xEnd, _yEnd ) );
+    }
+
+
+    private static List<Delta> getDeltas( final double _maxPointDistance, final double _chordError,
+                                          final double _xControl, final double _yControl,
+                                          final double _xEnd, final double _yEnd ) {
+
+        AdaptiveSampler sampler = new AdaptiveSampler( ( _t, _xy ) -> {
+            _xy[0] = poly( _t, _xControl, _xEnd );
+            _xy[1] = poly( _t, _yControl, _yEnd );
+        }, _maxPointDistance, _chordError );
+        sampler.sample( 0, 1, INTERVALS );
+        return sampler.getDeltas();
+    }
+
+
+    /**
+     * Computes the basic quadratic Bezier polynomial: (1 - t)^2 * p0 + 2 * (1 - t) * t * p1 + t^2 * p2.  This is computed twice for each resulting point:
+     * once for the x result, once for the y result.  The starting point is assumed: 0, 0.
+     *
+     * @param _t the interval along the curve, [0..1].
+     * @param _p1 the x or y coordinate for the control point.
+     * @param _p2 the x or y coordinate for the ending point.
+     * @return the x or y coordinate at the given interval.
+     */
+    private static double poly( final double _t, final double _p1, final double _p2 ) {
+        return 2 * (1 - _t) * _t * _p1 + _t * _t * _p2;
+    }
+}
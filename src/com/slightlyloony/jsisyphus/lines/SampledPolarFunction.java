@@ -0,0 +1,114 @@
+package com.slightlyloony.jsisyphus.lines;
+
+import java.util.Arrays;
+
+/**
+ * Represents a polar function given by a table of its rho at evenly spaced thetas, from one theta to another.  Between the thetas in the table, rho is
+ * interpolated linearly (so the curve between them is an arithmetic spiral), and the slope is that of the interpolation.  With the thetas finely spaced,
+ * this stands in for the function it was sampled from, without needing that function; a display list records polar functions this way, so that they can
+ * be sampled again (at another tolerance, say) when they're replayed.
+ *
+ * Instances of this class are immutable and threadsafe.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public class SampledPolarFunction implements PolarFunction {
+
+    private final double fromTheta;
+    private final double toTheta;
+    private final double interval;  // the change in theta from each entry in the table to the next (negative if the thetas decrease)...
+    private final double[] rhos;
+
+
+    /**
+     * Creates a new instance of this class by sampling the given polar function from the given theta to the given theta, at evenly spaced thetas no
+     * further apart than the given interval.
+     *
+     * @param _function the polar function to sample.
+     * @param _fromTheta the theta (in radians) of the first sample.
+     * @param _toTheta the theta (in radians) of the last sample.
+     * @param _maxInterval the greatest change in theta (in radians) between samples.
+     */
+    public SampledPolarFunction( final PolarFunction _function, final double _fromTheta, final double _toTheta, final double _maxInterval ) {
+        this( _fromTheta, _toTheta, sample( _function, _fromTheta, _toTheta, _maxInterval ) );
+    }
+
+
+    /**
+     * Creates a new instance of this class from the given table of rhos, at evenly spaced thetas from the given theta to the given theta.
+     *
+     * @param _fromTheta the theta (in radians) of the first rho.
+     * @param _toTheta the theta (in radians) of the last rho.
+     * @param _rhos the rhos, at least two of them.
+     */
+    public SampledPolarFunction( final double _fromTheta, final double _toTheta, final double[] _rhos ) {
+
+        // sanity check...
+        if( (_rhos == null) || (_rhos.length < 2) )
+            throw new IllegalArgumentException( "Sampled polar function needs at least two samples" );
+
+        fromTheta = _fromTheta;
+        toTheta = _toTheta;
+        interval = (_toTheta - _fromTheta) / (_rhos.length - 1);
+        rhos = _rhos.clone();
+    }
+
+
+    private static double[] sample( final PolarFunction _function, final double _fromTheta, final double _toTheta, final double _maxInterval ) {
+
+        // sanity check...
+        if( !(_maxInterval > 0) )
+            throw new IllegalArgumentException( "Invalid sampling interval: " + _maxInterval );
+
+        int intervals = Math.max( 1, (int) Math.ceil( Math.abs( _toTheta - _fromTheta ) / _maxInterval ) );
+        double interval = (_toTheta - _fromTheta) / intervals;
+        double[] result = new double[intervals + 1];
+        for( int i = 0; i <= intervals; i++ )
+            result[i] = _function.rho( _fromTheta + i * interval );
+        return result;
+    }
+
+
+    @Override
+    public double rho( final double _theta ) {
+        int i = index( _theta );
+        double f = (_theta - fromTheta) / interval - i;
+        return rhos[i] + f * (rhos[i + 1] - rhos[i]);
+    }
+
+
+    @Override
+    public double slope( final double _theta ) {
+        int i = index( _theta );
+        return (rhos[i + 1] - rhos[i]) / interval;
+    }
+
+
+    // returns the index of the table entry starting the interval the given theta is in; thetas outside the table are in its first or last interval...
+    private int index( final double _theta ) {
+        if( interval == 0 )
+            return 0;
+        double f = Math.floor( (_theta - fromTheta) / interval );
+        return (int) Math.max( 0, Math.min( rhos.length - 2, f ) );
+    }
+
+
+    public double getFromTheta() {
+        return fromTheta;
+    }
+
+
+    public double getToTheta() {
+        return toTheta;
+    }
+
+
+    /**
+     * Returns the table of rhos, at evenly spaced thetas from the first theta to the last.
+     *
+     * @return the rhos.
+     */
+    public double[] getRhos() {
+        return Arrays.copyOf( rhos, rhos.length );
+    }
+}
@@ -0,0 +1,30 @@
+package com.slightlyloony.jsisyphus.lines;
+
+import com.slightlyloony.jsisyphus.Point;
+
+/**
+ * Implemented by lines that know which spans of their points are nearly arithmetic spirals around some center.  When that center is the table's center,
+ * each such span is nearly a single Sisyphus line, and the drawing context passes the spans to the fitter as hints: the fitter tries the line to the end
+ * of the span first, so that a span that fits costs a single probe rather than a whole binary search.  Hints are only hints; every line the fitter emits
+ * is still tested against every point.
+ *
+ * @author Tom Dilatush  tom@dilatush.com
+ */
+public interface SpiralSpans {
+
+    /**
+     * Returns the center of the spirals, relative to the start of this line.
+     *
+     * @return the center of the spirals.
+     */
+    Point getSpiralCenter();
+
+
+    /**
+     * Returns the indices of the points that end the spans, in increasing order.  Point 0 is the start of the line, and point n is the end of its nth
+     * delta, so the last span ends at the number of deltas.
+     *
+     * @return the indices of the ends of the spans.
+     */
+    int[] getSpiralSpans();
+}
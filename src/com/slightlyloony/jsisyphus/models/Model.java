@@ -14,4 +14,19 @@ public interface Model {
     double thetaStepsPerRevolution();
     double tableRadiusMeters();
     String modelName();
+
+    // approximate motion limits, used to estimate playback time; the defaults suit the tables we know of...
+    default double maxBallSpeedMetersPerSecond() {
+        return 0.03;
+    }
+
+
+    default double maxThetaRadiansPerSecond() {
+        return 1.0;
+    }
+
+
+    default double maxRhoMetersPerSecond() {
+        return 0.02;
+    }
 }